@@ -1,8 +1,8 @@
 package world.bentobox.magiccobblestonegenerator;
 
 
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -20,15 +20,21 @@ import world.bentobox.level.Level;
 import world.bentobox.magiccobblestonegenerator.commands.admin.GeneratorAdminCommand;
 import world.bentobox.magiccobblestonegenerator.commands.player.GeneratorPlayerCommand;
 import world.bentobox.magiccobblestonegenerator.config.Settings;
-import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject;
+import world.bentobox.magiccobblestonegenerator.listeners.HotspotRegistry;
 import world.bentobox.magiccobblestonegenerator.listeners.IslandLevelListener;
+import world.bentobox.magiccobblestonegenerator.listeners.IslandLookupCache;
 import world.bentobox.magiccobblestonegenerator.listeners.JoinLeaveListener;
+import world.bentobox.magiccobblestonegenerator.listeners.PlaceholderCache;
+import world.bentobox.magiccobblestonegenerator.listeners.PlayerPositionIndex;
 import world.bentobox.magiccobblestonegenerator.listeners.VanillaGeneratorListener;
 import world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorImportManager;
 import world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager;
 import world.bentobox.magiccobblestonegenerator.request.ActiveGeneratorNamesRequestHandler;
 import world.bentobox.magiccobblestonegenerator.request.GeneratorDataRequestHandler;
+import world.bentobox.magiccobblestonegenerator.request.IslandSnapshotRequestHandler;
+import world.bentobox.magiccobblestonegenerator.tasks.GenerationLimiter;
 import world.bentobox.magiccobblestonegenerator.tasks.MagicGenerator;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
 import world.bentobox.magiccobblestonegenerator.web.WebManager;
 
 
@@ -115,8 +121,47 @@ public class StoneGeneratorAddon extends Addon
     private void setupAddon()
     {
         this.generator = new MagicGenerator(this);
+        this.generationLimiter = new GenerationLimiter(this);
+
+        // Queued island data changes are written on an interval.
+        long saveInterval = this.settings.getDataSaveInterval() * 20L;
+
+        if (saveInterval > 0)
+        {
+            Schedulers.runTimer(this.getPlugin(),
+                () -> this.stoneGeneratorManager.flushGeneratorData(),
+                saveInterval,
+                saveInterval);
+        }
+
+        // Island data that is not used for a while is removed from memory.
+        Schedulers.runTimer(this.getPlugin(),
+            () -> this.stoneGeneratorManager.evictIdleIslandData(),
+            1200L,
+            1200L);
 
         // Register the listener.
+        this.islandLookupCache = new IslandLookupCache(this);
+        this.playerPositionIndex = new PlayerPositionIndex(this);
+        this.hotspotRegistry = new HotspotRegistry(this);
+        this.placeholderCache = new PlaceholderCache(this);
+
+        if (Schedulers.isRegionThreading())
+        {
+            // Lookup caches are filled by a single thread, so they are not used when regions are ticked in parallel.
+            this.log("Region threaded server detected. Generators run on region threads.");
+        }
+        else
+        {
+            this.registerListener(this.islandLookupCache);
+            this.registerListener(this.hotspotRegistry);
+        }
+
+        // Player positions are published from player region threads when regions are ticked in parallel.
+        this.playerPositionIndex.indexOnlinePlayers();
+        this.registerListener(this.playerPositionIndex);
+
+        this.registerListener(this.placeholderCache);
         this.registerListener(new VanillaGeneratorListener(this));
         // TODO: fix and implement
         //this.registerListener(new MagicGeneratorListener(this));
@@ -132,6 +177,7 @@ public class StoneGeneratorAddon extends Addon
         // Register Request Handlers
         this.registerRequestHandler(new ActiveGeneratorNamesRequestHandler(this));
         this.registerRequestHandler(new GeneratorDataRequestHandler(this));
+        this.registerRequestHandler(new IslandSnapshotRequestHandler(this));
     }
 
 
@@ -191,106 +237,27 @@ public class StoneGeneratorAddon extends Addon
         // Placeholder returns currently active count.
         this.getPlugin().getPlaceholdersManager().registerPlaceholder(addon,
             addonName + "_active_generator_count",
-            user -> {
-                GeneratorDataObject object = this.getAddonManager().getGeneratorData(user, world);
-                return String.valueOf(object != null ?
-                    object.getActiveGeneratorList().size() : 0);
-            });
+            user -> String.valueOf(this.placeholderCache.getValues(user, world).getActiveCount()));
 
         // Placeholder returns maximal active generator count, that user can activate.
         this.getPlugin().getPlaceholdersManager().registerPlaceholder(addon,
             addonName + "_max_active_generator_count",
-            user -> {
-                GeneratorDataObject object = this.getAddonManager().getGeneratorData(user, world);
-                return String.valueOf(object != null ?
-                    object.getActiveGeneratorCount() : 0);
-            });
+            user -> String.valueOf(this.placeholderCache.getValues(user, world).getMaxActiveCount()));
 
         // Placeholder returns active generator names separated with ','
         this.getPlugin().getPlaceholdersManager().registerPlaceholder(addon,
             addonName + "_active_generator_names",
-            user -> {
-                GeneratorDataObject object = this.getAddonManager().getGeneratorData(user, world);
-
-                if (object != null && !object.getActiveGeneratorList().isEmpty())
-                {
-                    StringBuilder stringBuilder = new StringBuilder();
-
-                    object.getActiveGeneratorList().stream().
-                        map(this.stoneGeneratorManager::getGeneratorByID).
-                        filter(Objects::nonNull).
-                        forEach(generator -> stringBuilder.append(generator.getFriendlyName()).append(","));
-
-                    if (stringBuilder.length() > 0)
-                    {
-                        stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-                    }
-
-                    return stringBuilder.toString();
-                }
-                else
-                {
-                    return "";
-                }
-            });
+            user -> this.placeholderCache.getValues(user, world).getActiveNames());
 
         // Placeholder returns unlocked generator names separated with ','
         this.getPlugin().getPlaceholdersManager().registerPlaceholder(addon,
             addonName + "_unlocked_generator_names",
-            user -> {
-                GeneratorDataObject object = this.getAddonManager().getGeneratorData(user, world);
-
-                if (object != null && !object.getUnlockedTiers().isEmpty())
-                {
-                    StringBuilder stringBuilder = new StringBuilder();
-
-                    object.getUnlockedTiers().stream().
-                        sorted().
-                        map(this.stoneGeneratorManager::getGeneratorByID).
-                        filter(Objects::nonNull).
-                        forEach(generator -> stringBuilder.append(generator.getFriendlyName()).append(","));
-
-                    if (stringBuilder.length() > 0)
-                    {
-                        stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-                    }
-
-                    return stringBuilder.toString();
-                }
-                else
-                {
-                    return "";
-                }
-            });
+            user -> this.placeholderCache.getValues(user, world).getUnlockedNames());
 
         // Placeholder returns purchased generator names separated with ','
         this.getPlugin().getPlaceholdersManager().registerPlaceholder(addon,
             addonName + "_purchased_generator_names",
-            user -> {
-                GeneratorDataObject object = this.getAddonManager().getGeneratorData(user, world);
-
-                if (object != null && !object.getPurchasedTiers().isEmpty())
-                {
-                    StringBuilder stringBuilder = new StringBuilder();
-
-                    object.getPurchasedTiers().stream().
-                        sorted().
-                        map(this.stoneGeneratorManager::getGeneratorByID).
-                        filter(Objects::nonNull).
-                        forEach(generator -> stringBuilder.append(generator.getFriendlyName()).append(","));
-
-                    if (stringBuilder.length() > 0)
-                    {
-                        stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-                    }
-
-                    return stringBuilder.toString();
-                }
-                else
-                {
-                    return "";
-                }
-            });
+            user -> this.placeholderCache.getValues(user, world).getPurchasedNames());
     }
 
 
@@ -381,7 +348,14 @@ public class StoneGeneratorAddon extends Addon
     @Override
     public void onDisable()
     {
-        // Do some stuff...
+        if (this.stoneGeneratorManager != null)
+        {
+            // Write queued island data changes and wait for them, as they would be lost otherwise.
+            if (!this.stoneGeneratorManager.flushGeneratorDataAndWait(TimeUnit.SECONDS.toMillis(10)))
+            {
+                this.logWarning("Not all island generator data could be written before addon was disabled.");
+            }
+        }
     }
 
 
@@ -441,6 +415,17 @@ public class StoneGeneratorAddon extends Addon
     }
 
 
+    /**
+     * This method returns generation limiter.
+     *
+     * @return Generation Limiter object.
+     */
+    public GenerationLimiter getGenerationLimiter()
+    {
+        return this.generationLimiter;
+    }
+
+
     /**
      * This method returns stone manager.
      *
@@ -452,6 +437,50 @@ public class StoneGeneratorAddon extends Addon
     }
 
 
+    /**
+     * This method returns island lookup cache.
+     *
+     * @return Island Lookup Cache
+     */
+    public IslandLookupCache getIslandLookupCache()
+    {
+        return this.islandLookupCache;
+    }
+
+
+    /**
+     * This method returns player position index.
+     *
+     * @return Player Position Index
+     */
+    public PlayerPositionIndex getPlayerPositionIndex()
+    {
+        return this.playerPositionIndex;
+    }
+
+
+    /**
+     * This method returns hotspot registry.
+     *
+     * @return Hotspot Registry
+     */
+    public HotspotRegistry getHotspotRegistry()
+    {
+        return this.hotspotRegistry;
+    }
+
+
+    /**
+     * This method returns placeholder cache.
+     *
+     * @return Placeholder Cache
+     */
+    public PlaceholderCache getPlaceholderCache()
+    {
+        return this.placeholderCache;
+    }
+
+
     /**
      * This method returns stone import manager.
      *
@@ -585,6 +614,31 @@ public class StoneGeneratorAddon extends Addon
      */
     private MagicGenerator generator;
 
+    /**
+     * Variable holds GenerationLimiter object.
+     */
+    private GenerationLimiter generationLimiter;
+
+    /**
+     * Variable holds island lookup cache object.
+     */
+    private IslandLookupCache islandLookupCache;
+
+    /**
+     * Variable holds player position index object.
+     */
+    private PlayerPositionIndex playerPositionIndex;
+
+    /**
+     * Variable holds hotspot registry object.
+     */
+    private HotspotRegistry hotspotRegistry;
+
+    /**
+     * Variable holds placeholder cache object.
+     */
+    private PlaceholderCache placeholderCache;
+
     /**
      * VaultHook that process economy.
      */
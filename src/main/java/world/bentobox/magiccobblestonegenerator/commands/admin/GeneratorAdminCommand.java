@@ -1,14 +1,12 @@
 package world.bentobox.magiccobblestonegenerator.commands.admin;
 
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import org.bukkit.metadata.FixedMetadataValue;
-import org.bukkit.metadata.MetadataValue;
-
 import world.bentobox.bentobox.api.commands.CompositeCommand;
 import world.bentobox.bentobox.api.commands.ConfirmableCommand;
 import world.bentobox.bentobox.api.localization.TextVariables;
@@ -19,6 +17,7 @@ import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
 import world.bentobox.magiccobblestonegenerator.panels.admin.AdminPanel;
 import world.bentobox.magiccobblestonegenerator.utils.Constants;
 import world.bentobox.magiccobblestonegenerator.utils.Utils;
+import world.bentobox.magiccobblestonegenerator.utils.Why;
 
 
 /**
@@ -64,6 +63,7 @@ public class GeneratorAdminCommand extends CompositeCommand
         new ImportCommand(this.getAddon(), this);
         new GeneratorWhyCommand(this.getAddon(), this);
         new GeneratorDatabaseCommand(this.getAddon(), this);
+        new GeneratorStatsCommand(this.getAddon(), this);
     }
 
 
@@ -213,7 +213,7 @@ public class GeneratorAdminCommand extends CompositeCommand
         public boolean execute(User user, String label, List<String> args)
         {
             // If args are not right, show help
-            if (args.size() != 1)
+            if (args.isEmpty() || args.size() > 2 || args.size() == 2 && !LOG.equalsIgnoreCase(args.get(1)))
             {
                 this.showHelp(this, user);
                 return false;
@@ -230,7 +230,6 @@ public class GeneratorAdminCommand extends CompositeCommand
                 return false;
             }
 
-            // Set meta data on player
             Island island = this.getAddon().getIslands().getIsland(this.getWorld(), targetUUID);
 
             if (island == null || island.getOwner() == null || !island.getOwner().equals(targetUUID))
@@ -242,19 +241,33 @@ public class GeneratorAdminCommand extends CompositeCommand
 
             User target = User.getInstance(island.getOwner());
 
-            if (!target.isOnline())
+            if (args.size() == 2)
             {
-                Utils.sendMessage(user,
-                    user.getTranslation("general.errors.offline-player"));
-                return false;
+                // Print decisions that are stored in island trace buffer.
+                List<Why.DecisionRecord> records = Why.getDecisionRecords(island);
+
+                if (records.isEmpty())
+                {
+                    Utils.sendMessage(user,
+                        user.getTranslation(Constants.ADMIN_COMMANDS + "why.no-records",
+                            TextVariables.NAME, target.getName()));
+                    return true;
+                }
+
+                records.forEach(decision -> user.sendMessage(Constants.ADMIN_COMMANDS + "why.record",
+                    Constants.TIME, Instant.ofEpochMilli(decision.getTimestamp()).toString(),
+                    Constants.WORLD, decision.getWorld(),
+                    Constants.LOCATION, decision.getX() + ", " + decision.getY() + ", " + decision.getZ(),
+                    Constants.GENERATOR, decision.getGeneratorTier() == null ? "-" : decision.getGeneratorTier(),
+                    Constants.MESSAGE, decision.getMessage()));
+
+                return true;
             }
 
-            // Determine the debug mode and toggle if required
-            boolean newValue = !target.getPlayer().getMetadata(getWorld().getName() + "_why_debug_generator").stream().
-                filter(p -> getPlugin().equals(p.getOwningPlugin())).
-                findFirst().
-                map(MetadataValue::asBoolean).
-                orElse(false);
+            // Toggle tracing for target island.
+            boolean newValue = Why.toggleTracing(island,
+                this.getWorld(),
+                user.isPlayer() ? user.getUniqueId() : null);
 
             if (newValue)
             {
@@ -269,16 +282,6 @@ public class GeneratorAdminCommand extends CompositeCommand
                         TextVariables.NAME, target.getName()));
             }
 
-            // Set the debug meta
-            target.getPlayer().setMetadata(getWorld().getName() + "_why_debug_generator",
-                new FixedMetadataValue(this.getPlugin(), newValue));
-
-            if (user.isPlayer())
-            {
-                target.getPlayer().setMetadata(getWorld().getName() + "_why_debug_generator_issuer",
-                    new FixedMetadataValue(this.getPlugin(), user.getUniqueId().toString()));
-            }
-
             return true;
         }
 
@@ -300,6 +303,11 @@ public class GeneratorAdminCommand extends CompositeCommand
                 // Don't show every player on the server. Require at least the first letter
                 return Optional.empty();
             }
+            else if (args.size() > 3)
+            {
+                // Arguments contain command labels, so player name is at third position.
+                return Optional.of(Util.tabLimit(List.of(LOG), args.get(args.size() - 1)));
+            }
             else
             {
                 return Optional.of(Util.tabLimit(
@@ -307,5 +315,11 @@ public class GeneratorAdminCommand extends CompositeCommand
                     args.get(args.size() - 1)));
             }
         }
+
+
+        /**
+         * Argument that prints stored decision records instead of toggling tracing.
+         */
+        private static final String LOG = "log";
     }
 }
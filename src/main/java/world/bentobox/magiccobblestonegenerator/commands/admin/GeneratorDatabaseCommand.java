@@ -18,7 +18,9 @@ import world.bentobox.bentobox.api.commands.ConfirmableCommand;
 import world.bentobox.bentobox.api.user.User;
 import world.bentobox.bentobox.util.Util;
 import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager;
 import world.bentobox.magiccobblestonegenerator.utils.Constants;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
 import world.bentobox.magiccobblestonegenerator.utils.Utils;
 
 
@@ -62,6 +64,7 @@ public class GeneratorDatabaseCommand extends CompositeCommand
 
         new ImportCommand(this.getAddon(), this);
         new ExportCommand(this.getAddon(), this);
+        new SaveCommand(this.getAddon(), this);
     }
 
 
@@ -246,4 +249,118 @@ public class GeneratorDatabaseCommand extends CompositeCommand
                 args.get(0));
         }
     }
+
+
+    /**
+     * This command writes changed generators, bundles and island data to database. With "full" argument it writes
+     * every cached object.
+     */
+    private static class SaveCommand extends CompositeCommand
+    {
+        /**
+         * This is simple constructor for initializing /{admin_command} generator database save command.
+         *
+         * @param addon StoneGeneratorAddon addon.
+         * @param parentCommand Parent Command where we hook our command into.
+         */
+        public SaveCommand(StoneGeneratorAddon addon, CompositeCommand parentCommand)
+        {
+            super(addon, parentCommand, "save");
+        }
+
+
+        /**
+         * Setups anything that is needed for this command. <br/><br/> It is recommended you do the following in this
+         * method:
+         * <ul>
+         * <li>Register any of the sub-commands of this command;</li>
+         * <li>Define the permission required to use this command using {@link
+         * CompositeCommand#setPermission(String)};</li>
+         * <li>Define whether this command can only be run by players or not using {@link
+         * CompositeCommand#setOnlyPlayer(boolean)};</li>
+         * </ul>
+         */
+        @Override
+        public void setup()
+        {
+            this.inheritPermission();
+            this.setParametersHelp(Constants.ADMIN_COMMANDS + "save-database.parameters");
+            this.setDescription(Constants.ADMIN_COMMANDS + "save-database.description");
+
+            this.setOnlyPlayer(false);
+        }
+
+
+        /**
+         * Defines what will be executed when this command is run.
+         *
+         * @param user the {@link User} who is executing this command.
+         * @param label the label which has been used to execute this command. It can be {@link
+         * CompositeCommand#getLabel()} or an alias.
+         * @param args the command arguments.
+         * @return {@code true} if the command executed successfully, {@code false} otherwise.
+         */
+        @Override
+        public boolean execute(User user, String label, List<String> args)
+        {
+            if (args.size() > 1 || args.size() == 1 && !args.get(0).equalsIgnoreCase("full"))
+            {
+                this.showHelp(this, user);
+                return false;
+            }
+
+            StoneGeneratorAddon addon = this.getAddon();
+
+            addon.getAddonManager().save(args.size() == 1).whenComplete((result, error) ->
+                // Writes are completed on database threads, so message is sent from main thread.
+                Schedulers.runGlobal(addon.getPlugin(), () -> {
+                    if (error != null)
+                    {
+                        addon.logError("Generator database save failed: " + error.getMessage());
+                        Utils.sendMessage(user,
+                            user.getTranslation(Constants.ADMIN_COMMANDS + "save-database.failed",
+                                Constants.MESSAGE, String.valueOf(error.getMessage())));
+                        return;
+                    }
+
+                    this.sendResult(user, "save-database.tiers", result.getTiers());
+                    this.sendResult(user, "save-database.bundles", result.getBundles());
+                    this.sendResult(user, "save-database.data", result.getData());
+                }));
+
+            return true;
+        }
+
+
+        /**
+         * This method sends result of single object category to the user.
+         *
+         * @param user User who receives the message.
+         * @param reference Translation reference.
+         * @param category Result of object category.
+         */
+        private void sendResult(User user, String reference, StoneGeneratorManager.SaveResult.Category category)
+        {
+            Utils.sendMessage(user,
+                user.getTranslation(Constants.ADMIN_COMMANDS + reference,
+                    Constants.NUMBER, String.valueOf(category.getWritten()),
+                    Constants.FAILED, String.valueOf(category.getFailed()),
+                    Constants.TIME, String.valueOf(category.getTimeMillis())));
+        }
+
+
+        /**
+         * Tab Completer for CompositeCommands.
+         *
+         * @param user the {@link User} who is executing this command.
+         * @param alias alias for command
+         * @param args command arguments
+         * @return List of strings that could be used to complete this command.
+         */
+        @Override
+        public Optional<List<String>> tabComplete(User user, String alias, List<String> args)
+        {
+            return Optional.of(Util.tabLimit(List.of("full"), args.get(args.size() - 1)));
+        }
+    }
 }
@@ -0,0 +1,183 @@
+//
+// Created by BONNe
+// Copyright - 2020
+//
+
+
+package world.bentobox.magiccobblestonegenerator.commands.admin;
+
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import world.bentobox.bentobox.api.commands.CompositeCommand;
+import world.bentobox.bentobox.api.user.User;
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.listeners.HotspotRegistry;
+import world.bentobox.magiccobblestonegenerator.tasks.GenerationLimiter;
+import world.bentobox.magiccobblestonegenerator.utils.Constants;
+import world.bentobox.magiccobblestonegenerator.utils.Utils;
+
+
+/**
+ * This is a statistics command for admins. Admins could use it to check how generator caches and limits work on
+ * the server.
+ */
+public class GeneratorStatsCommand extends CompositeCommand
+{
+    /**
+     * This is simple constructor for initializing /{admin_command} generator stats command.
+     *
+     * @param addon StoneGeneratorAddon addon.
+     * @param parentCommand Parent Command where we hook our command into.
+     */
+    public GeneratorStatsCommand(StoneGeneratorAddon addon, CompositeCommand parentCommand)
+    {
+        super(addon, parentCommand, "stats");
+    }
+
+
+    /**
+     * Setups anything that is needed for this command. <br/><br/> It is recommended you do the following in this
+     * method:
+     * <ul>
+     * <li>Register any of the sub-commands of this command;</li>
+     * <li>Define the permission required to use this command using {@link
+     * CompositeCommand#setPermission(String)};</li>
+     * <li>Define whether this command can only be run by players or not using {@link
+     * CompositeCommand#setOnlyPlayer(boolean)};</li>
+     * </ul>
+     */
+    @Override
+    public void setup()
+    {
+        this.setPermission("admin.stone-generator.stats");
+        this.setParametersHelp(Constants.ADMIN_COMMANDS + "stats.parameters");
+        this.setDescription(Constants.ADMIN_COMMANDS + "stats.description");
+
+        this.setOnlyPlayer(false);
+    }
+
+
+    /**
+     * Defines what will be executed when this command is run.
+     *
+     * @param user the {@link User} who is executing this command.
+     * @param label the label which has been used to execute this command. It can be {@link CompositeCommand#getLabel()}
+     * or an alias.
+     * @param args the command arguments.
+     * @return {@code true} if the command executed successfully, {@code false} otherwise.
+     */
+    @Override
+    public boolean execute(User user, String label, List<String> args)
+    {
+        if (!args.isEmpty())
+        {
+            this.showHelp(this, user);
+            return false;
+        }
+
+        StoneGeneratorAddon addon = this.getAddon();
+
+        Utils.sendMessage(user,
+            user.getTranslation(Constants.ADMIN_COMMANDS + "stats.data",
+                "[loads]", String.valueOf(addon.getAddonManager().getAsyncLoadCount()),
+                "[served]", String.valueOf(addon.getAddonManager().getServedBeforeLoadCount())));
+
+        Utils.sendMessage(user,
+            user.getTranslation(Constants.ADMIN_COMMANDS + "stats.saves",
+                "[queued]", String.valueOf(addon.getAddonManager().getQueuedDataCount()),
+                "[written]", String.valueOf(addon.getAddonManager().getDataWriteCount()),
+                "[coalesced]", String.valueOf(addon.getAddonManager().getCoalescedSaveCount())));
+
+        Utils.sendMessage(user,
+            user.getTranslation(Constants.ADMIN_COMMANDS + "stats.cache",
+                "[size]", String.valueOf(addon.getAddonManager().getCachedDataCount()),
+                "[hits]", String.valueOf(addon.getAddonManager().getDataCacheHitCount()),
+                "[misses]", String.valueOf(addon.getAddonManager().getDataCacheMissCount()),
+                "[evictions]", String.valueOf(addon.getAddonManager().getDataCacheEvictionCount())));
+
+        GenerationLimiter generationLimiter = addon.getGenerationLimiter();
+
+        if (generationLimiter != null)
+        {
+            List<GenerationLimiter.ThrottledIsland> throttledIslands = generationLimiter.getThrottledIslands();
+
+            Utils.sendMessage(user,
+                user.getTranslation(Constants.ADMIN_COMMANDS + "stats.limits",
+                    "[islands]", String.valueOf(throttledIslands.size()),
+                    "[queued]", String.valueOf(generationLimiter.getQueuedCount()),
+                    "[placed]", String.valueOf(generationLimiter.getPlacedCount())));
+
+            // Show islands that are throttled most.
+            throttledIslands.stream().
+                sorted(Comparator.comparingLong(GenerationLimiter.ThrottledIsland::getThrottledCount).reversed()).
+                limit(TOP_ISLANDS).
+                forEach(throttled -> Utils.sendMessage(user,
+                    user.getTranslation(Constants.ADMIN_COMMANDS + "stats.throttled-island",
+                        Constants.ISLAND, this.getIslandName(user, throttled.getIsland()),
+                        "[throttled]", String.valueOf(throttled.getThrottledCount()),
+                        "[deferred]", String.valueOf(throttled.getDeferredCount()),
+                        "[dropped]", String.valueOf(throttled.getDroppedCount()))));
+        }
+
+        HotspotRegistry hotspotRegistry = addon.getHotspotRegistry();
+
+        if (hotspotRegistry != null)
+        {
+            Map<Island, Integer> hotspotCounts = hotspotRegistry.getHotspotCounts();
+
+            Utils.sendMessage(user,
+                user.getTranslation(Constants.ADMIN_COMMANDS + "stats.hotspots",
+                    "[islands]", String.valueOf(hotspotCounts.size()),
+                    Constants.NUMBER, String.valueOf(hotspotCounts.values().stream().mapToInt(Integer::intValue).sum())));
+
+            // Show islands with most hotspots.
+            hotspotCounts.entrySet().stream().
+                sorted(Map.Entry.<Island, Integer>comparingByValue().reversed()).
+                limit(TOP_ISLANDS).
+                forEach(entry -> Utils.sendMessage(user,
+                    user.getTranslation(Constants.ADMIN_COMMANDS + "stats.hotspot-island",
+                        Constants.ISLAND, this.getIslandName(user, entry.getKey()),
+                        Constants.NUMBER, String.valueOf(entry.getValue()))));
+        }
+
+        return true;
+    }
+
+
+    /**
+     * This method returns name of given island, or name of its owner if island does not have a name.
+     *
+     * @param user User who receives the message.
+     * @param island Island which name must be returned.
+     * @return Name of the island.
+     */
+    private String getIslandName(User user, Island island)
+    {
+        if (island.getName() != null)
+        {
+            return island.getName();
+        }
+
+        if (island.getOwner() != null)
+        {
+            return this.getPlayers().getName(island.getOwner());
+        }
+
+        return user.getTranslation(Constants.ADMIN_COMMANDS + "stats.unowned");
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Number of islands with most hotspots that are shown.
+     */
+    private static final int TOP_ISLANDS = 5;
+}
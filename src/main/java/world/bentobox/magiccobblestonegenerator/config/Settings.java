@@ -328,6 +328,314 @@ public class Settings implements ConfigObject
     }
 
 
+    /**
+     * Gets hotspot size.
+     *
+     * @return the hotspot size
+     */
+    public int getHotspotSize()
+    {
+        return hotspotSize;
+    }
+
+
+    /**
+     * Sets hotspot size.
+     *
+     * @param hotspotSize the hotspot size
+     */
+    public void setHotspotSize(int hotspotSize)
+    {
+        this.hotspotSize = hotspotSize;
+    }
+
+
+    /**
+     * Gets hotspot time to live.
+     *
+     * @return the hotspot time to live
+     */
+    public long getHotspotTimeToLive()
+    {
+        return hotspotTimeToLive;
+    }
+
+
+    /**
+     * Sets hotspot time to live.
+     *
+     * @param hotspotTimeToLive the hotspot time to live
+     */
+    public void setHotspotTimeToLive(long hotspotTimeToLive)
+    {
+        this.hotspotTimeToLive = hotspotTimeToLive;
+    }
+
+
+    /**
+     * Gets limit island rate.
+     *
+     * @return the limit island rate
+     */
+    public int getLimitIslandRate()
+    {
+        return limitIslandRate;
+    }
+
+
+    /**
+     * Sets limit island rate.
+     *
+     * @param limitIslandRate the limit island rate
+     */
+    public void setLimitIslandRate(int limitIslandRate)
+    {
+        this.limitIslandRate = limitIslandRate;
+    }
+
+
+    /**
+     * Gets limit island burst.
+     *
+     * @return the limit island burst
+     */
+    public int getLimitIslandBurst()
+    {
+        return limitIslandBurst;
+    }
+
+
+    /**
+     * Sets limit island burst.
+     *
+     * @param limitIslandBurst the limit island burst
+     */
+    public void setLimitIslandBurst(int limitIslandBurst)
+    {
+        this.limitIslandBurst = limitIslandBurst;
+    }
+
+
+    /**
+     * Gets limit chunk rate.
+     *
+     * @return the limit chunk rate
+     */
+    public int getLimitChunkRate()
+    {
+        return limitChunkRate;
+    }
+
+
+    /**
+     * Sets limit chunk rate.
+     *
+     * @param limitChunkRate the limit chunk rate
+     */
+    public void setLimitChunkRate(int limitChunkRate)
+    {
+        this.limitChunkRate = limitChunkRate;
+    }
+
+
+    /**
+     * Gets limit chunk burst.
+     *
+     * @return the limit chunk burst
+     */
+    public int getLimitChunkBurst()
+    {
+        return limitChunkBurst;
+    }
+
+
+    /**
+     * Sets limit chunk burst.
+     *
+     * @param limitChunkBurst the limit chunk burst
+     */
+    public void setLimitChunkBurst(int limitChunkBurst)
+    {
+        this.limitChunkBurst = limitChunkBurst;
+    }
+
+
+    /**
+     * Gets limit queue size.
+     *
+     * @return the limit queue size
+     */
+    public int getLimitQueueSize()
+    {
+        return limitQueueSize;
+    }
+
+
+    /**
+     * Sets limit queue size.
+     *
+     * @param limitQueueSize the limit queue size
+     */
+    public void setLimitQueueSize(int limitQueueSize)
+    {
+        this.limitQueueSize = limitQueueSize;
+    }
+
+
+    /**
+     * Gets limit queue per tick.
+     *
+     * @return the limit queue per tick
+     */
+    public int getLimitQueuePerTick()
+    {
+        return limitQueuePerTick;
+    }
+
+
+    /**
+     * Sets limit queue per tick.
+     *
+     * @param limitQueuePerTick the limit queue per tick
+     */
+    public void setLimitQueuePerTick(int limitQueuePerTick)
+    {
+        this.limitQueuePerTick = limitQueuePerTick;
+    }
+
+
+    /**
+     * Gets data save interval.
+     *
+     * @return the data save interval
+     */
+    public int getDataSaveInterval()
+    {
+        return dataSaveInterval;
+    }
+
+
+    /**
+     * Sets data save interval.
+     *
+     * @param dataSaveInterval the data save interval
+     */
+    public void setDataSaveInterval(int dataSaveInterval)
+    {
+        this.dataSaveInterval = dataSaveInterval;
+    }
+
+
+    /**
+     * Gets data queue size.
+     *
+     * @return the data queue size
+     */
+    public int getDataQueueSize()
+    {
+        return dataQueueSize;
+    }
+
+
+    /**
+     * Sets data queue size.
+     *
+     * @param dataQueueSize the data queue size
+     */
+    public void setDataQueueSize(int dataQueueSize)
+    {
+        this.dataQueueSize = dataQueueSize;
+    }
+
+
+    /**
+     * Gets data cache size.
+     *
+     * @return the data cache size
+     */
+    public int getDataCacheSize()
+    {
+        return dataCacheSize;
+    }
+
+
+    /**
+     * Sets data cache size.
+     *
+     * @param dataCacheSize the data cache size
+     */
+    public void setDataCacheSize(int dataCacheSize)
+    {
+        this.dataCacheSize = dataCacheSize;
+    }
+
+
+    /**
+     * Gets data idle time.
+     *
+     * @return the data idle time
+     */
+    public int getDataIdleTime()
+    {
+        return dataIdleTime;
+    }
+
+
+    /**
+     * Sets data idle time.
+     *
+     * @param dataIdleTime the data idle time
+     */
+    public void setDataIdleTime(int dataIdleTime)
+    {
+        this.dataIdleTime = dataIdleTime;
+    }
+
+
+    /**
+     * Gets permission refresh interval.
+     *
+     * @return the permission refresh interval
+     */
+    public int getPermissionRefreshInterval()
+    {
+        return permissionRefreshInterval;
+    }
+
+
+    /**
+     * Sets permission refresh interval.
+     *
+     * @param permissionRefreshInterval the permission refresh interval
+     */
+    public void setPermissionRefreshInterval(int permissionRefreshInterval)
+    {
+        this.permissionRefreshInterval = permissionRefreshInterval;
+    }
+
+
+    /**
+     * Is placeholder async snapshot boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isPlaceholderAsyncSnapshot()
+    {
+        return placeholderAsyncSnapshot;
+    }
+
+
+    /**
+     * Sets placeholder async snapshot.
+     *
+     * @param placeholderAsyncSnapshot the placeholder async snapshot
+     */
+    public void setPlaceholderAsyncSnapshot(boolean placeholderAsyncSnapshot)
+    {
+        this.placeholderAsyncSnapshot = placeholderAsyncSnapshot;
+    }
+
+
 // ---------------------------------------------------------------------
 // Section: Variables
 // ---------------------------------------------------------------------
@@ -409,6 +717,110 @@ public class Settings implements ConfigObject
     @ConfigEntry(path = "use-bank-account")
     private boolean useBankAccount = false;
 
+    @ConfigComment("")
+    @ConfigComment("Generators form blocks at the same positions over and over. Island, flag, range and generator tier")
+    @ConfigComment("checks for each position are remembered for a short time.")
+    @ConfigComment("This allows to define how many positions per world can be remembered.")
+    @ConfigComment("0 or less will disable this functionality.")
+    @ConfigEntry(path = "hotspots.size")
+    private int hotspotSize = 4096;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how long (in milliseconds) checks for a position are remembered.")
+    @ConfigComment("0 or less will disable this functionality.")
+    @ConfigEntry(path = "hotspots.time-to-live")
+    private long hotspotTimeToLive = 1000;
+
+    @ConfigComment("")
+    @ConfigComment("Generation limits protect server from generator arrays that form a lot of blocks each tick.")
+    @ConfigComment("Each island and each chunk can generate only a certain number of magic blocks per second.")
+    @ConfigComment("Limits are disabled by default. To enable them, set island-rate and/or chunk-rate above 0,")
+    @ConfigComment("f.e. island-rate: 100 and chunk-rate: 40.")
+    @ConfigComment("This allows to define how many magic blocks per second a single island can generate.")
+    @ConfigComment("0 or less will mean that there is no limitation.")
+    @ConfigEntry(path = "limits.island-rate")
+    private int limitIslandRate = 0;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how many magic blocks a single island can generate at once")
+    @ConfigComment("after it has not generated blocks for a while.")
+    @ConfigEntry(path = "limits.island-burst")
+    private int limitIslandBurst = 200;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how many magic blocks per second a single chunk can generate.")
+    @ConfigComment("0 or less will mean that there is no limitation.")
+    @ConfigEntry(path = "limits.chunk-rate")
+    private int limitChunkRate = 0;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how many magic blocks a single chunk can generate at once")
+    @ConfigComment("after it has not generated blocks for a while.")
+    @ConfigEntry(path = "limits.chunk-burst")
+    private int limitChunkBurst = 80;
+
+    @ConfigComment("")
+    @ConfigComment("Blocks that are over the limit are generated as vanilla blocks. Queued blocks are replaced")
+    @ConfigComment("with magic blocks in later ticks, when island and chunk have enough budget.")
+    @ConfigComment("This allows to define how many blocks can wait in the queue.")
+    @ConfigComment("0 or less will mean that blocks over the limit stay vanilla.")
+    @ConfigEntry(path = "limits.queue-size")
+    private int limitQueueSize = 256;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how many queued blocks can be processed in a single tick.")
+    @ConfigEntry(path = "limits.queue-per-tick")
+    private int limitQueuePerTick = 16;
+
+    @ConfigComment("")
+    @ConfigComment("Island generator data changes are collected and written to database together.")
+    @ConfigComment("This allows to define how often (in seconds) collected changes are written.")
+    @ConfigComment("Changes are also written when island owner leaves the server and when server stops.")
+    @ConfigComment("0 or less will write each change immediately.")
+    @ConfigEntry(path = "data.save-interval", needsRestart = true)
+    private int dataSaveInterval = 30;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how many islands can wait to be written.")
+    @ConfigComment("When limit is reached, oldest changes are written immediately.")
+    @ConfigComment("0 or less will mean that there is no limitation.")
+    @ConfigEntry(path = "data.queue-size")
+    private int dataQueueSize = 1000;
+
+    @ConfigComment("")
+    @ConfigComment("Island generator data is kept in memory only for a limited number of islands.")
+    @ConfigComment("This allows to define how many islands can be kept in memory.")
+    @ConfigComment("When limit is reached, least recently used islands are removed from memory.")
+    @ConfigComment("Spawn islands and islands with online members are always kept in memory.")
+    @ConfigComment("0 or less will mean that there is no limitation.")
+    @ConfigEntry(path = "data.cache-size")
+    private int dataCacheSize = 10000;
+
+    @ConfigComment("")
+    @ConfigComment("This allows to define how long (in minutes) island data is kept in memory after it was used last time.")
+    @ConfigComment("Spawn islands and islands with online members are always kept in memory.")
+    @ConfigComment("0 or less will mean that island data is not removed by time.")
+    @ConfigEntry(path = "data.idle-time")
+    private int dataIdleTime = 30;
+
+    @ConfigComment("")
+    @ConfigComment("Island owner permissions for bundle, working range, active generator count and generator")
+    @ConfigComment("requirements are read once and remembered. They are read again when player joins the server.")
+    @ConfigComment("This allows to define how often (in seconds) remembered permissions are read again,")
+    @ConfigComment("so permission changes are noticed while player is online.")
+    @ConfigComment("0 or less will read permissions on each check.")
+    @ConfigEntry(path = "permissions.refresh-interval")
+    private int permissionRefreshInterval = 60;
+
+    @ConfigComment("")
+    @ConfigComment("Placeholder values are remembered for each player and built again only when")
+    @ConfigComment("island generators change.")
+    @ConfigComment("This allows to enable snapshot mode, in which placeholders that are requested outside main thread")
+    @ConfigComment("return remembered values, and new values are built on main thread.")
+    @ConfigComment("Enable it if scoreboard or tab plugins request placeholders asynchronously.")
+    @ConfigEntry(path = "placeholders.async-snapshot")
+    private boolean placeholderAsyncSnapshot = false;
+
     @ConfigComment("")
     @ConfigComment("This list stores GameModes in which the addon should not work.")
     @ConfigComment("To disable addon it is necessary to write its name in new line that starts with -. Example:")
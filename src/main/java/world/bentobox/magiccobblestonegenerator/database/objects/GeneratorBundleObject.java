@@ -11,10 +11,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.annotations.Expose;
 
@@ -178,6 +180,24 @@ public class GeneratorBundleObject implements DataObject
     }
 
 
+    /**
+     * This method returns if given bundle has the same stored content as this object. It is used on reload to detect
+     * bundles that are changed in database.
+     *
+     * @param other Bundle that must be compared.
+     * @return {@code true} if all stored fields are equal.
+     */
+    public boolean isSameAs(@Nullable GeneratorBundleObject other)
+    {
+        return other != null &&
+            Objects.equals(this.uniqueId, other.uniqueId) &&
+            Objects.equals(this.friendlyName, other.friendlyName) &&
+            Objects.equals(this.description, other.description) &&
+            Objects.equals(this.generatorIcon, other.generatorIcon) &&
+            Objects.equals(this.generatorTiers, other.generatorTiers);
+    }
+
+
 // ---------------------------------------------------------------------
 // Section: Static dummy bundle.
 // ---------------------------------------------------------------------
@@ -7,9 +7,11 @@
 package world.bentobox.magiccobblestonegenerator.database.objects;
 
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -17,11 +19,16 @@ import com.google.gson.annotations.Expose;
 
 import world.bentobox.bentobox.database.objects.DataObject;
 import world.bentobox.bentobox.database.objects.Table;
+import world.bentobox.magiccobblestonegenerator.utils.IdInterner;
 
 
 /**
  * This object stores generator data per island. In short, it allows to easily access active and unlocked generator
  * tiers for island.
+ * <p>
+ * Object can be read from any thread. Stored sets are never changed after they are published: mutation methods
+ * replace them with changed copies, so readers always see a complete set. Bit set views of stored sets are built from
+ * the current set and rebuilt when the set is replaced.
  */
 @Table(name = "GeneratorData")
 public class GeneratorDataObject implements DataObject
@@ -257,6 +264,28 @@ public class GeneratorDataObject implements DataObject
     }
 
 
+    /**
+     * Method GeneratorDataObject#isDirty returns if this object has changes that are not written to database.
+     *
+     * @return the dirty (type boolean) of this object.
+     */
+    public boolean isDirty()
+    {
+        return dirty;
+    }
+
+
+    /**
+     * Method GeneratorDataObject#setDirty sets new value for the dirty of this object.
+     *
+     * @param dirty new value for this object.
+     */
+    public void setDirty(boolean dirty)
+    {
+        this.dirty = dirty;
+    }
+
+
 // ---------------------------------------------------------------------
 // Section: Processing Methods
 // ---------------------------------------------------------------------
@@ -270,7 +299,8 @@ public class GeneratorDataObject implements DataObject
      */
     public String getBundle()
     {
-        return this.ownerBundle != null ? this.ownerBundle : this.islandBundle;
+        String bundle = this.ownerBundle;
+        return bundle != null ? bundle : this.islandBundle;
     }
 
 
@@ -282,8 +312,8 @@ public class GeneratorDataObject implements DataObject
      */
     public int getRange()
     {
-        return this.ownerWorkingRange == -1 || this.ownerWorkingRange > 0 ?
-            this.ownerWorkingRange : this.islandWorkingRange;
+        int range = this.ownerWorkingRange;
+        return range == -1 || range > 0 ? range : this.islandWorkingRange;
     }
 
 
@@ -295,8 +325,177 @@ public class GeneratorDataObject implements DataObject
      */
     public int getActiveGeneratorCount()
     {
-        return this.ownerActiveGeneratorCount == -1 || this.ownerActiveGeneratorCount > 0 ?
-            this.ownerActiveGeneratorCount : this.islandActiveGeneratorCount;
+        int count = this.ownerActiveGeneratorCount;
+        return count == -1 || count > 0 ? count : this.islandActiveGeneratorCount;
+    }
+
+
+    /**
+     * This method adds given generator tier to unlocked tiers.
+     *
+     * @param generatorId Generator tier unique id.
+     * @return {@code true} if generator tier was not unlocked before.
+     */
+    public synchronized boolean addUnlockedTier(String generatorId)
+    {
+        if (this.unlockedTiers.contains(generatorId))
+        {
+            return false;
+        }
+
+        Set<String> tiers = new HashSet<>(this.unlockedTiers);
+        tiers.add(generatorId);
+        this.unlockedTiers = tiers;
+        return true;
+    }
+
+
+    /**
+     * This method removes given generator tier from unlocked tiers.
+     *
+     * @param generatorId Generator tier unique id.
+     * @return {@code true} if generator tier was unlocked.
+     */
+    public synchronized boolean removeUnlockedTier(String generatorId)
+    {
+        if (!this.unlockedTiers.contains(generatorId))
+        {
+            return false;
+        }
+
+        Set<String> tiers = new HashSet<>(this.unlockedTiers);
+        tiers.remove(generatorId);
+        this.unlockedTiers = tiers;
+        return true;
+    }
+
+
+    /**
+     * This method adds given generator tier to purchased tiers.
+     *
+     * @param generatorId Generator tier unique id.
+     * @return {@code true} if generator tier was not purchased before.
+     */
+    public synchronized boolean addPurchasedTier(String generatorId)
+    {
+        if (this.purchasedTiers.contains(generatorId))
+        {
+            return false;
+        }
+
+        Set<String> tiers = new HashSet<>(this.purchasedTiers);
+        tiers.add(generatorId);
+        this.purchasedTiers = tiers;
+        return true;
+    }
+
+
+    /**
+     * This method adds given generator tier to the end of active generator list.
+     *
+     * @param generatorId Generator tier unique id.
+     * @return {@code true} if generator tier was not active before.
+     */
+    public synchronized boolean addActiveGenerator(String generatorId)
+    {
+        if (this.activeGeneratorList.contains(generatorId))
+        {
+            return false;
+        }
+
+        Set<String> generators = new LinkedHashSet<>(this.activeGeneratorList);
+        generators.add(generatorId);
+        this.activeGeneratorList = generators;
+        return true;
+    }
+
+
+    /**
+     * This method removes given generator tier from active generator list.
+     *
+     * @param generatorId Generator tier unique id.
+     * @return {@code true} if generator tier was active.
+     */
+    public synchronized boolean removeActiveGenerator(String generatorId)
+    {
+        return this.removeActiveGenerators(generatorId::equals);
+    }
+
+
+    /**
+     * This method removes all generator tiers that match given filter from active generator list.
+     *
+     * @param filter Filter for generator tier unique ids that must be removed.
+     * @return {@code true} if any generator tier was removed.
+     */
+    public synchronized boolean removeActiveGenerators(Predicate<String> filter)
+    {
+        Set<String> generators = new LinkedHashSet<>(this.activeGeneratorList);
+
+        if (!generators.removeIf(filter))
+        {
+            return false;
+        }
+
+        this.activeGeneratorList = generators;
+        return true;
+    }
+
+
+    /**
+     * This method returns unlocked generator tiers as a bit set of interned tier ids. Returned bit set must not be
+     * changed.
+     *
+     * @param interner Interner of generator tier ids.
+     * @return Bit set of unlocked generator tiers.
+     */
+    public BitSet getUnlockedTierBits(IdInterner interner)
+    {
+        TierBits bits = this.unlockedTierBits;
+        Set<String> tiers = this.unlockedTiers;
+
+        if (bits == null || bits.source != tiers)
+        {
+            bits = new TierBits(tiers, interner.toBits(tiers));
+            this.unlockedTierBits = bits;
+        }
+
+        return bits.bits;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class links bit set view with the set it was built from.
+     */
+    private static class TierBits
+    {
+        /**
+         * Creates bit set view.
+         *
+         * @param source Set from which view is built.
+         * @param bits Bit set with interned ids of set elements.
+         */
+        private TierBits(Set<String> source, BitSet bits)
+        {
+            this.source = source;
+            this.bits = bits;
+        }
+
+
+        /**
+         * Set from which view is built.
+         */
+        private final Set<String> source;
+
+        /**
+         * Bit set with interned ids of set elements.
+         */
+        private final BitSet bits;
     }
 
 
@@ -314,53 +513,63 @@ public class GeneratorDataObject implements DataObject
      * Stores a names of unlocked generator tiers.
      */
     @Expose
-    private Set<String> unlockedTiers = new HashSet<>();
+    private volatile Set<String> unlockedTiers = new HashSet<>();
 
     /**
      * Stores a names of unlocked purchased tiers.
      */
     @Expose
-    private Set<String> purchasedTiers = new HashSet<>();
+    private volatile Set<String> purchasedTiers = new HashSet<>();
 
     /**
      * Stores currently active generator names.
      */
     @Expose
-    private Set<String> activeGeneratorList = new LinkedHashSet<>();
+    private volatile Set<String> activeGeneratorList = new LinkedHashSet<>();
 
     /**
      * Stores maximum allowed active generator count for island object.
      */
     @Expose
-    private int ownerActiveGeneratorCount = 0;
+    private volatile int ownerActiveGeneratorCount = 0;
 
     /**
      * Stores working range for generators on current island defined by owner.
      */
     @Expose
-    private int ownerWorkingRange = -1;
+    private volatile int ownerWorkingRange = -1;
 
     /**
      * Stores active bundle.
      */
     @Expose
-    private @Nullable String ownerBundle = null;
+    private volatile @Nullable String ownerBundle = null;
 
     /**
      * Stores maximum allowed active generator count for island object.
      */
     @Expose
-    private int islandActiveGeneratorCount = 0;
+    private volatile int islandActiveGeneratorCount = 0;
 
     /**
      * Stores working range for generators on current island.
      */
     @Expose
-    private int islandWorkingRange = -1;
+    private volatile int islandWorkingRange = -1;
 
     /**
      * Stores active bundle.
      */
     @Expose
-    private @Nullable String islandBundle = null;
+    private volatile @Nullable String islandBundle = null;
+
+    /**
+     * Indicates if object has changes that are not written to database. It is not stored in database.
+     */
+    private transient volatile boolean dirty;
+
+    /**
+     * Bit set view of unlocked generator tiers. It is not stored in database.
+     */
+    private transient volatile TierBits unlockedTierBits;
 }
@@ -8,22 +8,26 @@ package world.bentobox.magiccobblestonegenerator.database.objects;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 
 import org.bukkit.Material;
 import org.bukkit.block.Biome;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import com.google.gson.annotations.Expose;
 
 import world.bentobox.bentobox.database.objects.DataObject;
 import world.bentobox.bentobox.database.objects.Table;
+import world.bentobox.magiccobblestonegenerator.utils.CompiledTier;
 
 
 /**
@@ -466,6 +470,53 @@ public class GeneratorTierObject implements DataObject
     }
 
 
+// ---------------------------------------------------------------------
+// Section: Compiled tier
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns compiled tier that is used by generators. This object is an editable draft, and its changes
+     * are not visible to generators until they are committed. If draft was never committed, then it is committed on
+     * the first request. Draft that failed to compile is not compiled again until it is committed.
+     *
+     * @return Compiled tier, or null if draft was never valid.
+     */
+    public @Nullable CompiledTier getCompiledTier()
+    {
+        CompiledTier compiled = this.compiledTier;
+
+        if (compiled == null && !this.compileFailed && this.commit())
+        {
+            compiled = this.compiledTier;
+        }
+
+        return compiled;
+    }
+
+
+    /**
+     * This method validates and compiles current draft, and publishes it to generators. If draft is not valid, then
+     * generators keep using previously committed version.
+     *
+     * @return {@code true} if draft was valid and published.
+     */
+    public boolean commit()
+    {
+        CompiledTier compiled = CompiledTier.compile(this);
+
+        if (compiled == null)
+        {
+            this.compileFailed = true;
+            return false;
+        }
+
+        this.compiledTier = compiled;
+        this.compileFailed = false;
+        return true;
+    }
+
+
 // ---------------------------------------------------------------------
 // Section: Methods
 // ---------------------------------------------------------------------
@@ -521,6 +572,77 @@ public class GeneratorTierObject implements DataObject
     }
 
 
+    /**
+     * This method returns if given generator tier has the same stored content as this object. It is used on reload
+     * to detect generator tiers that are changed in database.
+     *
+     * @param other Generator tier that must be compared.
+     * @return {@code true} if all stored fields are equal.
+     */
+    public boolean isSameAs(@Nullable GeneratorTierObject other)
+    {
+        if (other == null)
+        {
+            return false;
+        }
+
+        return Objects.equals(this.uniqueId, other.uniqueId) &&
+            Objects.equals(this.friendlyName, other.friendlyName) &&
+            Objects.equals(this.generatorIcon, other.generatorIcon) &&
+            Objects.equals(this.lockedIcon, other.lockedIcon) &&
+            Objects.equals(this.description, other.description) &&
+            this.generatorType == other.generatorType &&
+            this.defaultGenerator == other.defaultGenerator &&
+            this.priority == other.priority &&
+            this.requiredMinIslandLevel == other.requiredMinIslandLevel &&
+            Objects.equals(this.requiredBiomes, other.requiredBiomes) &&
+            Objects.equals(this.requiredPermissions, other.requiredPermissions) &&
+            Double.compare(this.generatorTierCost, other.generatorTierCost) == 0 &&
+            Double.compare(this.activationCost, other.activationCost) == 0 &&
+            this.deployed == other.deployed &&
+            Objects.equals(this.blockChanceMap, other.blockChanceMap) &&
+            Objects.equals(this.treasureChanceMap, other.treasureChanceMap) &&
+            Objects.equals(this.treasureItemChanceMap, other.treasureItemChanceMap) &&
+            Double.compare(this.treasureChance, other.treasureChance) == 0 &&
+            this.maxTreasureAmount == other.maxTreasureAmount &&
+            this.minHeight == other.minHeight &&
+            this.maxHeight == other.maxHeight &&
+            GeneratorTierObject.isSameHeightMap(this.materialHeightMap, other.materialHeightMap) &&
+            GeneratorTierObject.isSameHeightMap(this.blockHeightRanges, other.blockHeightRanges);
+    }
+
+
+    /**
+     * This method returns if given height maps contain the same materials with equal height ranges.
+     *
+     * @param first First height map.
+     * @param second Second height map.
+     * @return {@code true} if height maps are equal.
+     */
+    private static boolean isSameHeightMap(@Nullable Map<Material, int[]> first, @Nullable Map<Material, int[]> second)
+    {
+        if (first == null || second == null)
+        {
+            return first == second;
+        }
+
+        if (first.size() != second.size())
+        {
+            return false;
+        }
+
+        for (Map.Entry<Material, int[]> entry : first.entrySet())
+        {
+            if (!second.containsKey(entry.getKey()) || !Arrays.equals(entry.getValue(), second.get(entry.getKey())))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
 // ---------------------------------------------------------------------
 // Section: Enums
 // ---------------------------------------------------------------------
@@ -706,6 +828,16 @@ public class GeneratorTierObject implements DataObject
     @Expose
     private TreeMap<Material, int[]> materialHeightMap = new TreeMap<>();
 
+    /**
+     * Compiled tier that is used by generators. It is not stored in database.
+     */
+    private transient volatile CompiledTier compiledTier;
+
+    /**
+     * Indicates if the last commit of this draft failed. It is not stored in database.
+     */
+    private transient volatile boolean compileFailed;
+
     /**
      * Field to store block height ranges
      */
@@ -7,7 +7,6 @@
 package world.bentobox.magiccobblestonegenerator.listeners;
 
 
-import java.util.Objects;
 import java.util.Random;
 
 import org.bukkit.Bukkit;
@@ -17,14 +16,11 @@ import org.bukkit.Particle;
 import org.bukkit.Sound;
 import org.bukkit.SoundCategory;
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.jetbrains.annotations.Nullable;
 
-import world.bentobox.bentobox.api.user.User;
 import world.bentobox.bentobox.database.objects.Island;
 import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
-import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject;
 import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
 
 
@@ -60,10 +56,7 @@ public abstract class GeneratorListener implements Listener
     {
         return island.isSpawn() ||
             addon.getSettings().isOfflineGeneration() ||
-            island.getMemberSet().stream().
-                map(User::getInstance).
-                filter(Objects::nonNull).
-                anyMatch(User::isOnline);
+            this.addon.getAddonManager().hasOnlineMembers(island);
     }
 
 
@@ -81,30 +74,22 @@ public abstract class GeneratorListener implements Listener
         // Check if any island member is near block.
         if (workingRange > 0)
         {
-            GeneratorDataObject data = this.addon.getAddonManager().getGeneratorData(island);
+            // Range is cached per island.
+            Integer range = this.addon.getAddonManager().getWorkingRange(island);
 
-            if (data == null)
+            if (range == null)
             {
                 // If data object is not found, return false.
                 return false;
             }
 
-            // Use range from island object.
-            int range = data.getRange();
-
             // If range is -1 or 0, the ignore it.
             if (range == -1 || range == 0)
             {
                 return true;
             }
 
-            return block.getWorld().getNearbyEntities(block.getLocation(),
-                range,
-                range,
-                range).
-                stream().
-                filter(Player.class::isInstance).
-                anyMatch(e -> island.getMemberSet().contains(e.getUniqueId()));
+            return this.addon.getPlayerPositionIndex().isMemberInRange(island, block, range);
         }
         else
         {
@@ -159,12 +144,7 @@ public abstract class GeneratorListener implements Listener
      */
     protected @Nullable Material generateCobblestoneReplacement(@Nullable Island island, Location location)
     {
-        GeneratorTierObject generatorTier = this.addon.getAddonManager().getGeneratorTier(
-            island,
-            location,
-            GeneratorTierObject.GeneratorType.COBBLESTONE);
-
-        return this.addon.getGenerator().processBlockReplacement(generatorTier, location);
+        return this.generateReplacement(island, location, GeneratorTierObject.GeneratorType.COBBLESTONE, null);
     }
 
 
@@ -177,12 +157,7 @@ public abstract class GeneratorListener implements Listener
      */
     protected @Nullable Material generateStoneReplacement(@Nullable Island island, Location location)
     {
-        GeneratorTierObject generatorTier = this.addon.getAddonManager().getGeneratorTier(
-            island,
-            location,
-            GeneratorTierObject.GeneratorType.STONE);
-
-        return this.addon.getGenerator().processBlockReplacement(generatorTier, location);
+        return this.generateReplacement(island, location, GeneratorTierObject.GeneratorType.STONE, null);
     }
 
 
@@ -195,12 +170,43 @@ public abstract class GeneratorListener implements Listener
      */
     protected @Nullable Material generateBasaltReplacement(@Nullable Island island, Location location)
     {
-        GeneratorTierObject generatorTier = this.addon.getAddonManager().getGeneratorTier(
-            island,
-            location,
-            GeneratorTierObject.GeneratorType.BASALT);
+        return this.generateReplacement(island, location, GeneratorTierObject.GeneratorType.BASALT, null);
+    }
+
+
+    /**
+     * This method returns material of new block if generator manages to replace block of given generator type.
+     * Generator tier is taken from hotspot if it is already resolved for given position.
+     *
+     * @param island Island on which block is processed.
+     * @param location Block that need to be replaced.
+     * @param generatorType Type of generator that formed the block.
+     * @param hotspot Hotspot of given location, or null if hotspots are not used.
+     * @return Material of replaced block or null, if block was not replaced.
+     */
+    protected @Nullable Material generateReplacement(@Nullable Island island,
+        Location location,
+        GeneratorTierObject.GeneratorType generatorType,
+        @Nullable HotspotRegistry.Hotspot hotspot)
+    {
+        GeneratorTierObject generatorTier;
+
+        if (hotspot != null && hotspot.hasGeneratorTier(generatorType))
+        {
+            generatorTier = hotspot.getGeneratorTier(generatorType);
+        }
+        else
+        {
+            generatorTier = this.addon.getAddonManager().getGeneratorTier(island, location, generatorType);
+
+            // Default generator tier is used only until island data is loaded.
+            if (hotspot != null && (island == null || !this.addon.getAddonManager().isIslandDataLoading(island)))
+            {
+                hotspot.setGeneratorTier(generatorType, generatorTier);
+            }
+        }
 
-        return this.addon.getGenerator().processBlockReplacement(generatorTier, location);
+        return this.addon.getGenerator().processBlockReplacement(island, generatorTier, location);
     }
 
 
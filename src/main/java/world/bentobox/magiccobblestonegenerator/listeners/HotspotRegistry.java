@@ -0,0 +1,501 @@
+//
+// Created by BONNe
+// Copyright - 2020
+//
+
+
+package world.bentobox.magiccobblestonegenerator.listeners;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import world.bentobox.bentobox.api.events.flags.FlagSettingChangeEvent;
+import world.bentobox.bentobox.api.events.island.IslandCreatedEvent;
+import world.bentobox.bentobox.api.events.island.IslandDeleteEvent;
+import world.bentobox.bentobox.api.events.island.IslandDeletedEvent;
+import world.bentobox.bentobox.api.events.island.IslandProtectionRangeChangeEvent;
+import world.bentobox.bentobox.api.events.island.IslandRegisteredEvent;
+import world.bentobox.bentobox.api.events.island.IslandResettedEvent;
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
+import world.bentobox.magiccobblestonegenerator.utils.LongObjectHashMap;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
+import world.bentobox.magiccobblestonegenerator.utils.Utils;
+
+
+/**
+ * This class remembers generator checks for block positions where generators form blocks. Each hotspot stores island,
+ * flag state, range check result and resolved generator tiers for a short time, so repeated events at the same
+ * position can skip directly to block generation. Hotspots are not used on region threaded servers.
+ */
+public class HotspotRegistry implements Listener
+{
+    /**
+     * Constructor HotspotRegistry creates a new HotspotRegistry instance.
+     *
+     * @param addon of type StoneGeneratorAddon
+     */
+    public HotspotRegistry(StoneGeneratorAddon addon)
+    {
+        this.addon = addon;
+        this.worldHotspots = new HashMap<>();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns hotspot for given block. If hotspot is not known or is expired, then new hotspot is
+     * created with a fresh island lookup.
+     *
+     * @param block Block where generator forms a new block.
+     * @return Hotspot for given block, or null if hotspots are disabled.
+     */
+    public @Nullable Hotspot getHotspot(@NotNull Block block)
+    {
+        int maxSize = this.addon.getSettings().getHotspotSize();
+        long timeToLive = this.addon.getSettings().getHotspotTimeToLive();
+
+        if (maxSize <= 0 || timeToLive <= 0 || Schedulers.isRegionThreading())
+        {
+            return null;
+        }
+
+        World world = block.getWorld();
+        long blockKey = Utils.getBlockKey(block.getX(), block.getY(), block.getZ());
+        long now = System.currentTimeMillis();
+
+        LongObjectHashMap<Hotspot> hotspots = this.worldHotspots.get(world);
+
+        if (hotspots == null)
+        {
+            hotspots = new LongObjectHashMap<>();
+            this.worldHotspots.put(world, hotspots);
+        }
+
+        Hotspot hotspot = hotspots.get(blockKey);
+
+        if (hotspot != null && hotspot.expiresAt > now && !this.isOutdated(hotspot))
+        {
+            return hotspot;
+        }
+
+        if (hotspot == null && hotspots.size() >= maxSize)
+        {
+            // Remove expired hotspots first, and everything if registry is still full.
+            hotspots.removeIf(value -> value.expiresAt <= now || this.isOutdated(value));
+
+            if (hotspots.size() >= maxSize)
+            {
+                hotspots.clear();
+            }
+        }
+
+        Island island = this.addon.getIslandLookupCache().getIslandAt(block.getLocation()).orElse(null);
+
+        hotspot = new Hotspot(island,
+            block.getX() >> 4,
+            block.getZ() >> 4,
+            now + timeToLive,
+            this.getDataVersion(island));
+        hotspots.put(blockKey, hotspot);
+
+        return hotspot;
+    }
+
+
+    /**
+     * This method returns if island data or generator tiers are changed since hotspot was created. Each island has
+     * its own data version, so changes on one island do not expire hotspots of other islands.
+     *
+     * @param hotspot Hotspot that must be checked.
+     * @return {@code true} if hotspot is outdated.
+     */
+    private boolean isOutdated(@NotNull Hotspot hotspot)
+    {
+        return hotspot.dataVersion != this.getDataVersion(hotspot.island);
+    }
+
+
+    /**
+     * This method returns data version of given island.
+     *
+     * @param island Island which data version must be returned.
+     * @return Data version of island, or version of generator tiers if island is null.
+     */
+    private long getDataVersion(@Nullable Island island)
+    {
+        return this.addon.getAddonManager().getIslandDataVersion(island == null ? null : island.getUniqueId());
+    }
+
+
+    /**
+     * This method returns number of known hotspots for each island.
+     *
+     * @return Map that links island with number of its hotspots.
+     */
+    public Map<Island, Integer> getHotspotCounts()
+    {
+        Map<Island, Integer> counts = new HashMap<>();
+        long now = System.currentTimeMillis();
+
+        this.worldHotspots.values().forEach(hotspots -> hotspots.removeIf(hotspot -> {
+            if (hotspot.expiresAt <= now)
+            {
+                return true;
+            }
+
+            if (hotspot.island != null)
+            {
+                counts.merge(hotspot.island, 1, Integer::sum);
+            }
+
+            return false;
+        }));
+
+        return counts;
+    }
+
+
+    /**
+     * This method removes all hotspots.
+     */
+    public void invalidate()
+    {
+        this.worldHotspots.values().forEach(LongObjectHashMap::clear);
+    }
+
+
+    /**
+     * This method removes all hotspots of given island.
+     *
+     * @param island Island which hotspots must be removed.
+     */
+    public void invalidate(@Nullable Island island)
+    {
+        if (island != null)
+        {
+            this.worldHotspots.values().forEach(hotspots -> hotspots.removeIf(hotspot -> hotspot.island == island));
+        }
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Listeners
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method removes hotspots from unloaded chunk.
+     *
+     * @param event ChunkUnloadEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event)
+    {
+        LongObjectHashMap<Hotspot> hotspots = this.worldHotspots.get(event.getWorld());
+
+        if (hotspots == null || hotspots.isEmpty())
+        {
+            return;
+        }
+
+        int chunkX = event.getChunk().getX();
+        int chunkZ = event.getChunk().getZ();
+
+        hotspots.removeIf(hotspot -> hotspot.chunkX == chunkX && hotspot.chunkZ == chunkZ);
+    }
+
+
+    /**
+     * This method removes hotspots of island which generator flag is changed.
+     *
+     * @param event FlagSettingChangeEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFlagChange(FlagSettingChangeEvent event)
+    {
+        if (StoneGeneratorAddon.MAGIC_COBBLESTONE_GENERATOR.equals(event.getEditedFlag()))
+        {
+            this.invalidate(event.getIsland());
+        }
+    }
+
+
+    /**
+     * This method handles Island Created event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandCreated(IslandCreatedEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Resetted event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandResetted(IslandResettedEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Registered event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandRegistered(IslandRegisteredEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Protection Range Change event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandRangeChange(IslandProtectionRangeChangeEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Delete event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandDelete(IslandDeleteEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Deleted event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandDeleted(IslandDeletedEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method removes hotspots for unloaded world.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event)
+    {
+        this.worldHotspots.remove(event.getWorld());
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds remembered generator checks for a single block position. Flag and range checks are stored
+     * only after they are done first time.
+     */
+    public static class Hotspot
+    {
+        /**
+         * Creates hotspot.
+         *
+         * @param island Island at hotspot position.
+         * @param chunkX Chunk X coordinate.
+         * @param chunkZ Chunk Z coordinate.
+         * @param expiresAt Time when hotspot expires.
+         * @param dataVersion Data version of island.
+         */
+        private Hotspot(@Nullable Island island, int chunkX, int chunkZ, long expiresAt, long dataVersion)
+        {
+            this.island = island;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.expiresAt = expiresAt;
+            this.dataVersion = dataVersion;
+            this.generatorTiers = new GeneratorTierObject[GeneratorTierObject.GeneratorType.values().length];
+            this.resolvedTiers = new boolean[this.generatorTiers.length];
+        }
+
+
+        /**
+         * @return the island at hotspot position.
+         */
+        @Nullable
+        public Island getIsland()
+        {
+            return this.island;
+        }
+
+
+        /**
+         * @return the flag state or null if it is not checked yet.
+         */
+        @Nullable
+        public Boolean getAllowed()
+        {
+            return this.allowed;
+        }
+
+
+        /**
+         * @param allowed the flag state.
+         */
+        public void setAllowed(boolean allowed)
+        {
+            this.allowed = allowed;
+        }
+
+
+        /**
+         * @return the range check result or null if it is not checked yet.
+         */
+        @Nullable
+        public Boolean getInRange()
+        {
+            return this.inRange;
+        }
+
+
+        /**
+         * @param inRange the range check result.
+         */
+        public void setInRange(boolean inRange)
+        {
+            this.inRange = inRange;
+        }
+
+
+        /**
+         * @param generatorType Generator type.
+         * @return {@code true} if generator tier for given type is resolved.
+         */
+        public boolean hasGeneratorTier(GeneratorTierObject.GeneratorType generatorType)
+        {
+            return this.resolvedTiers[generatorType.ordinal()];
+        }
+
+
+        /**
+         * @param generatorType Generator type.
+         * @return the resolved generator tier for given type.
+         */
+        @Nullable
+        public GeneratorTierObject getGeneratorTier(GeneratorTierObject.GeneratorType generatorType)
+        {
+            return this.generatorTiers[generatorType.ordinal()];
+        }
+
+
+        /**
+         * @param generatorType Generator type.
+         * @param generatorTier the resolved generator tier for given type.
+         */
+        public void setGeneratorTier(GeneratorTierObject.GeneratorType generatorType,
+            @Nullable GeneratorTierObject generatorTier)
+        {
+            this.generatorTiers[generatorType.ordinal()] = generatorTier;
+            this.resolvedTiers[generatorType.ordinal()] = true;
+        }
+
+
+        /**
+         * Island at hotspot position.
+         */
+        @Nullable
+        private final Island island;
+
+        /**
+         * Chunk X coordinate.
+         */
+        private final int chunkX;
+
+        /**
+         * Chunk Z coordinate.
+         */
+        private final int chunkZ;
+
+        /**
+         * Time when hotspot expires.
+         */
+        private final long expiresAt;
+
+        /**
+         * Data version of island when hotspot was created.
+         */
+        private final long dataVersion;
+
+        /**
+         * Resolved generator tier for each generator type.
+         */
+        private final GeneratorTierObject[] generatorTiers;
+
+        /**
+         * Indicates if generator tier for generator type is resolved.
+         */
+        private final boolean[] resolvedTiers;
+
+        /**
+         * Flag state.
+         */
+        @Nullable
+        private Boolean allowed;
+
+        /**
+         * Range check result.
+         */
+        @Nullable
+        private Boolean inRange;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Main addon class.
+     */
+    private final StoneGeneratorAddon addon;
+
+    /**
+     * Map that links world with hotspots in it.
+     */
+    private final Map<World, LongObjectHashMap<Hotspot>> worldHotspots;
+}
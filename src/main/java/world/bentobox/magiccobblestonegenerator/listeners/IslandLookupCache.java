@@ -0,0 +1,309 @@
+//
+// Created by BONNe
+// Copyright - 2020
+//
+
+
+package world.bentobox.magiccobblestonegenerator.listeners;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import world.bentobox.bentobox.api.events.island.IslandCreatedEvent;
+import world.bentobox.bentobox.api.events.island.IslandDeleteEvent;
+import world.bentobox.bentobox.api.events.island.IslandDeletedEvent;
+import world.bentobox.bentobox.api.events.island.IslandProtectionRangeChangeEvent;
+import world.bentobox.bentobox.api.events.island.IslandRegisteredEvent;
+import world.bentobox.bentobox.api.events.island.IslandResettedEvent;
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.utils.LongObjectHashMap;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
+import world.bentobox.magiccobblestonegenerator.utils.Utils;
+
+
+/**
+ * This class caches island lookups by chunk for generator listeners. Generators are located in a few chunks per
+ * island, so most of the lookups end in a primitive long keyed map. Cache is cleared when any island is created,
+ * removed or changed. On region threaded servers cache is not used, and islands are looked up directly.
+ */
+public class IslandLookupCache implements Listener
+{
+    /**
+     * Constructor IslandLookupCache creates a new IslandLookupCache instance.
+     *
+     * @param addon of type StoneGeneratorAddon
+     */
+    public IslandLookupCache(StoneGeneratorAddon addon)
+    {
+        this.addon = addon;
+        this.worldCache = new HashMap<>();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns island at given location. It works the same as IslandsManager#getIslandAt, but result is
+     * cached for chunks that are fully inside or outside island.
+     *
+     * @param location Location that must be checked.
+     * @return Optional with island at given location.
+     */
+    public Optional<Island> getIslandAt(@NotNull Location location)
+    {
+        World world = location.getWorld();
+
+        if (world == null)
+        {
+            return Optional.empty();
+        }
+
+        if (Schedulers.isRegionThreading())
+        {
+            return this.addon.getIslands().getIslandAt(location);
+        }
+
+        LongObjectHashMap<ChunkEntry> chunkMap = this.worldCache.get(world);
+
+        if (chunkMap == null)
+        {
+            chunkMap = new LongObjectHashMap<>(EXPECTED_CHUNKS);
+            this.worldCache.put(world, chunkMap);
+        }
+
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        long chunkKey = Utils.getChunkKey(chunkX, chunkZ);
+
+        ChunkEntry entry = chunkMap.get(chunkKey);
+
+        if (entry != null)
+        {
+            // Chunks on island border must be checked each time.
+            return entry.uniform ? entry.island : this.addon.getIslands().getIslandAt(location);
+        }
+
+        Optional<Island> island = this.addon.getIslands().getIslandAt(location);
+
+        if (chunkMap.size() >= MAX_CHUNKS)
+        {
+            // Cache should not grow without limits.
+            chunkMap.clear();
+        }
+
+        chunkMap.put(chunkKey, new ChunkEntry(island, this.isUniform(world, island, chunkX, chunkZ)));
+
+        return island;
+    }
+
+
+    /**
+     * This method returns if given island lookup result is the same in the whole chunk.
+     *
+     * @param world World of the chunk.
+     * @param island Island found in chunk.
+     * @param chunkX Chunk X coordinate.
+     * @param chunkZ Chunk Z coordinate.
+     * @return {@code true} if all blocks in chunk belong to the same island or to none island.
+     */
+    private boolean isUniform(World world, Optional<Island> island, int chunkX, int chunkZ)
+    {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        int maxX = minX + 15;
+        int maxZ = minZ + 15;
+
+        if (island.isPresent())
+        {
+            // Protected area is always inside island space, so chunk fully inside it belongs to the island.
+            Island value = island.get();
+
+            return minX >= value.getMinProtectedX() && maxX < value.getMaxProtectedX() &&
+                minZ >= value.getMinProtectedZ() && maxZ < value.getMaxProtectedZ();
+        }
+
+        // Island space is not smaller than chunk, so an island that intersects chunk contains one of its corners.
+        if (this.addon.getPlugin().getIWM().getIslandDistance(world) < 8)
+        {
+            return false;
+        }
+
+        return this.addon.getIslands().getIslandAt(new Location(world, minX, 0, minZ)).isEmpty() &&
+            this.addon.getIslands().getIslandAt(new Location(world, maxX, 0, minZ)).isEmpty() &&
+            this.addon.getIslands().getIslandAt(new Location(world, minX, 0, maxZ)).isEmpty() &&
+            this.addon.getIslands().getIslandAt(new Location(world, maxX, 0, maxZ)).isEmpty();
+    }
+
+
+    /**
+     * This method clears all cached lookups.
+     */
+    public void invalidate()
+    {
+        this.worldCache.values().forEach(LongObjectHashMap::clear);
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Listeners
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method handles Island Created event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandCreated(IslandCreatedEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Resetted event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandResetted(IslandResettedEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Registered event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandRegistered(IslandRegisteredEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Protection Range Change event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandRangeChange(IslandProtectionRangeChangeEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Delete event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandDelete(IslandDeleteEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method handles Island Deleted event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIslandDeleted(IslandDeletedEvent event)
+    {
+        this.invalidate();
+    }
+
+
+    /**
+     * This method removes cache for unloaded world.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event)
+    {
+        this.worldCache.remove(event.getWorld());
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds cached lookup result for single chunk.
+     */
+    private static class ChunkEntry
+    {
+        /**
+         * Creates chunk entry.
+         *
+         * @param island Island lookup result.
+         * @param uniform Indicates if result is valid for the whole chunk.
+         */
+        private ChunkEntry(Optional<Island> island, boolean uniform)
+        {
+            this.island = island;
+            this.uniform = uniform;
+        }
+
+
+        /**
+         * Island lookup result.
+         */
+        private final Optional<Island> island;
+
+        /**
+         * Indicates if result is valid for the whole chunk.
+         */
+        private final boolean uniform;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Number of chunks that are expected in each world cache.
+     */
+    private static final int EXPECTED_CHUNKS = 256;
+
+    /**
+     * Maximal number of chunks that are cached in each world.
+     */
+    private static final int MAX_CHUNKS = 4096;
+
+    /**
+     * Main addon class.
+     */
+    private final StoneGeneratorAddon addon;
+
+    /**
+     * Map that links world with its chunk cache.
+     */
+    private final Map<World, LongObjectHashMap<ChunkEntry>> worldCache;
+}
@@ -11,13 +11,20 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import world.bentobox.bentobox.api.events.island.IslandCreatedEvent;
 import world.bentobox.bentobox.api.events.island.IslandDeleteEvent;
 import world.bentobox.bentobox.api.events.island.IslandRegisteredEvent;
 import world.bentobox.bentobox.api.events.island.IslandResettedEvent;
+import world.bentobox.bentobox.api.events.team.TeamJoinedEvent;
+import world.bentobox.bentobox.api.events.team.TeamKickEvent;
+import world.bentobox.bentobox.api.events.team.TeamLeaveEvent;
 import world.bentobox.bentobox.api.events.team.TeamSetownerEvent;
+import world.bentobox.bentobox.database.objects.Island;
 import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
+import world.bentobox.magiccobblestonegenerator.utils.Why;
 
 
 /**
@@ -42,8 +49,27 @@ public class JoinLeaveListener implements Listener
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerJoin(PlayerJoinEvent event)
     {
+        // Permissions may be changed while player was offline.
+        this.addon.getAddonManager().invalidatePermissions(event.getPlayer().getUniqueId());
         // Load player into cache
         this.addon.getAddonManager().loadUserIslands(event.getPlayer().getUniqueId());
+        this.addon.getAddonManager().updateOnlineMembers(event.getPlayer().getUniqueId(), false);
+    }
+
+
+    /**
+     * This method handles player quit event. When player quits it updates online member count for its islands and
+     * writes queued data changes of islands it owns.
+     *
+     * @param event PlayerQuitEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event)
+    {
+        this.addon.getAddonManager().updateOnlineMembers(event.getPlayer().getUniqueId(), true);
+        this.addon.getAddonManager().invalidatePermissions(event.getPlayer().getUniqueId());
+        // Write queued changes of islands that player owns.
+        this.addon.getAddonManager().flushGeneratorData(event.getPlayer().getUniqueId());
     }
 
 
@@ -56,6 +82,7 @@ public class JoinLeaveListener implements Listener
     public void onIslandCreated(IslandCreatedEvent event)
     {
         this.addon.getAddonManager().validateIslandData(event.getIsland());
+        this.addon.getAddonManager().updateOnlineMembers(event.getIsland(), null);
     }
 
 
@@ -68,6 +95,7 @@ public class JoinLeaveListener implements Listener
     public void onIslandCreated(IslandResettedEvent event)
     {
         this.addon.getAddonManager().validateIslandData(event.getIsland());
+        this.addon.getAddonManager().updateOnlineMembers(event.getIsland(), null);
     }
 
 
@@ -80,6 +108,7 @@ public class JoinLeaveListener implements Listener
     public void onIslandCreated(IslandRegisteredEvent event)
     {
         this.addon.getAddonManager().validateIslandData(event.getIsland());
+        this.addon.getAddonManager().updateOnlineMembers(event.getIsland(), null);
     }
 
 
@@ -95,6 +124,55 @@ public class JoinLeaveListener implements Listener
     }
 
 
+    /**
+     * This method handles Team Joined event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeamJoined(TeamJoinedEvent event)
+    {
+        this.updateOnlineMembers(event.getIsland());
+    }
+
+
+    /**
+     * This method handles Team Leave event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeamLeave(TeamLeaveEvent event)
+    {
+        this.updateOnlineMembers(event.getIsland());
+    }
+
+
+    /**
+     * This method handles Team Kick event.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeamKick(TeamKickEvent event)
+    {
+        this.updateOnlineMembers(event.getIsland());
+    }
+
+
+    /**
+     * This method updates online member count for given island in the next tick, as team events are called before
+     * island members are changed.
+     *
+     * @param island Island which members are changed.
+     */
+    private void updateOnlineMembers(Island island)
+    {
+        Schedulers.runGlobal(this.addon.getPlugin(),
+            () -> this.addon.getAddonManager().updateOnlineMembers(island, null));
+    }
+
+
     /**
      * This method handles island deletion. On island deletion it should remove generator data too.
      *
@@ -104,6 +182,7 @@ public class JoinLeaveListener implements Listener
     public void onIslandDelete(IslandDeleteEvent event)
     {
         this.addon.getAddonManager().wipeGeneratorData(event.getIsland().getUniqueId());
+        Why.clearTracing(event.getIsland().getUniqueId());
     }
 
 
@@ -90,7 +90,7 @@ public class MagicGeneratorListener extends GeneratorListener
             return;
         }
 
-        Optional<Island> islandOptional = this.addon.getIslands().getIslandAt(eventSourceBlock.getLocation());
+        Optional<Island> islandOptional = this.addon.getIslandLookupCache().getIslandAt(eventSourceBlock.getLocation());
 
         if (islandOptional.isEmpty())
         {
@@ -0,0 +1,486 @@
+//
+// Created by BONNe
+// Copyright - 2020
+//
+
+
+package world.bentobox.magiccobblestonegenerator.listeners;
+
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import world.bentobox.bentobox.api.user.User;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
+import world.bentobox.magiccobblestonegenerator.events.GeneratorActivationEvent;
+import world.bentobox.magiccobblestonegenerator.events.GeneratorBuyEvent;
+import world.bentobox.magiccobblestonegenerator.events.GeneratorUnlockEvent;
+import world.bentobox.magiccobblestonegenerator.utils.Pair;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
+
+
+/**
+ * This class remembers placeholder values for each player and world. Values are built again only when island
+ * generators are activated, unlocked or purchased, or when generator tiers are changed.
+ * <p>
+ * If async snapshot is enabled, then placeholders that are requested outside main thread return remembered values,
+ * and new values are built on main thread, so placeholder threads do not access island data.
+ */
+public class PlaceholderCache implements Listener
+{
+    /**
+     * Constructor PlaceholderCache creates a new PlaceholderCache instance.
+     *
+     * @param addon of type StoneGeneratorAddon
+     */
+    public PlaceholderCache(StoneGeneratorAddon addon)
+    {
+        this.addon = addon;
+        this.worldValues = new ConcurrentHashMap<>();
+        this.pendingRefreshes = ConcurrentHashMap.newKeySet();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns placeholder values for given user island in given world.
+     *
+     * @param user User which island values must be returned.
+     * @param world World where user island is located.
+     * @return Values for user island, or empty values if island data is not found.
+     */
+    public Values getValues(@Nullable User user, @NotNull World world)
+    {
+        if (user == null || user.getUniqueId() == null)
+        {
+            return Values.EMPTY;
+        }
+
+        if (Bukkit.isPrimaryThread())
+        {
+            return this.getCurrentValues(user, world, false);
+        }
+
+        if (this.addon.getSettings().isPlaceholderAsyncSnapshot())
+        {
+            return this.getSnapshot(user, world);
+        }
+
+        // Island data can be changed by main thread at the same time, so values are not remembered.
+        return this.buildValues(this.addon.getAddonManager().getGeneratorData(user, world));
+    }
+
+
+    /**
+     * This method returns remembered values if they are still valid, otherwise builds and remembers new values.
+     *
+     * @param user User which island values must be returned.
+     * @param world World where user island is located.
+     * @param rebuild Indicates if values must be built even if remembered values are valid.
+     * @return Values for user island.
+     */
+    private Values getCurrentValues(@NotNull User user, @NotNull World world, boolean rebuild)
+    {
+        GeneratorDataObject data = this.addon.getAddonManager().getGeneratorData(user, world);
+        Map<UUID, Values> valueMap = this.worldValues.computeIfAbsent(world, key -> new ConcurrentHashMap<>());
+
+        if (data == null)
+        {
+            valueMap.remove(user.getUniqueId());
+            return Values.EMPTY;
+        }
+
+        Values values = valueMap.get(user.getUniqueId());
+
+        if (rebuild || values == null || !values.isValid(data, this.addon.getAddonManager().getGeneratorTierVersion()))
+        {
+            values = this.buildValues(data);
+            valueMap.put(user.getUniqueId(), values);
+        }
+
+        return values;
+    }
+
+
+    /**
+     * This method returns remembered values without accessing island data. If values are missing or outdated, then
+     * new values are built on main thread.
+     *
+     * @param user User which island values must be returned.
+     * @param world World where user island is located.
+     * @return Remembered values, or empty values if they are not built yet.
+     */
+    private Values getSnapshot(@NotNull User user, @NotNull World world)
+    {
+        Map<UUID, Values> valueMap = this.worldValues.get(world);
+        Values values = valueMap == null ? null : valueMap.get(user.getUniqueId());
+
+        if (values == null ||
+            values.stale ||
+            values.tierVersion != this.addon.getAddonManager().getGeneratorTierVersion() ||
+            System.currentTimeMillis() - values.createdAt > SNAPSHOT_REFRESH_TIME)
+        {
+            Pair<World, UUID> key = new Pair<>(world, user.getUniqueId());
+
+            // Only one refresh is scheduled for each player.
+            if (this.pendingRefreshes.add(key))
+            {
+                Schedulers.runGlobal(this.addon.getPlugin(), () -> {
+                    this.pendingRefreshes.remove(key);
+
+                    if (user.isOnline())
+                    {
+                        this.getCurrentValues(user, world, true);
+                    }
+                });
+            }
+        }
+
+        return values == null ? Values.EMPTY : values;
+    }
+
+
+    /**
+     * This method builds placeholder values for given island data.
+     *
+     * @param data Island data.
+     * @return Values for given island data.
+     */
+    private Values buildValues(@Nullable GeneratorDataObject data)
+    {
+        if (data == null)
+        {
+            return Values.EMPTY;
+        }
+
+        return new Values(data,
+            this.addon.getAddonManager().getGeneratorTierVersion(),
+            this.joinNames(data.getActiveGeneratorList().stream()),
+            this.joinNames(data.getUnlockedTiers().stream().sorted()),
+            this.joinNames(data.getPurchasedTiers().stream().sorted()));
+    }
+
+
+    /**
+     * This method joins names of given generator tiers with ','.
+     *
+     * @param generatorIds Generator tier ids.
+     * @return Generator tier names separated with ','.
+     */
+    private String joinNames(Stream<String> generatorIds)
+    {
+        return generatorIds.map(this.addon.getAddonManager()::getGeneratorByID).
+            filter(Objects::nonNull).
+            map(GeneratorTierObject::getFriendlyName).
+            collect(Collectors.joining(","));
+    }
+
+
+    /**
+     * This method marks remembered values of given island as outdated.
+     *
+     * @param islandId Island unique id.
+     */
+    private void markStale(@Nullable String islandId)
+    {
+        if (islandId == null)
+        {
+            return;
+        }
+
+        this.worldValues.values().forEach(valueMap -> valueMap.values().forEach(values -> {
+            if (islandId.equals(values.islandId))
+            {
+                values.stale = true;
+            }
+        }));
+    }
+
+
+    /**
+     * This method marks island values as outdated when generator is activated or deactivated.
+     *
+     * @param event GeneratorActivationEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGeneratorActivation(GeneratorActivationEvent event)
+    {
+        this.markStale(event.getIslandUUID());
+    }
+
+
+    /**
+     * This method marks island values as outdated when generator is purchased.
+     *
+     * @param event GeneratorBuyEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGeneratorBuy(GeneratorBuyEvent event)
+    {
+        this.markStale(event.getIslandUUID());
+    }
+
+
+    /**
+     * This method marks island values as outdated when generator is unlocked.
+     *
+     * @param event GeneratorUnlockEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGeneratorUnlock(GeneratorUnlockEvent event)
+    {
+        this.markStale(event.getIslandUUID());
+    }
+
+
+    /**
+     * This method removes player values when player leaves the server.
+     *
+     * @param event PlayerQuitEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event)
+    {
+        UUID playerUUID = event.getPlayer().getUniqueId();
+        this.worldValues.values().forEach(valueMap -> valueMap.remove(playerUUID));
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds placeholder values for single island. Values are not changed after they are built, except
+     * the stale flag.
+     */
+    public static class Values
+    {
+        /**
+         * Empty values for players without island data.
+         */
+        private static final Values EMPTY = new Values();
+
+
+        /**
+         * Creates empty values.
+         */
+        private Values()
+        {
+            this.data = null;
+            this.islandId = null;
+            this.tierVersion = -1;
+            this.createdAt = Long.MAX_VALUE;
+            this.activeCount = 0;
+            this.maxActiveCount = 0;
+            this.unlockedCount = 0;
+            this.purchasedCount = 0;
+            this.activeNames = "";
+            this.unlockedNames = "";
+            this.purchasedNames = "";
+        }
+
+
+        /**
+         * Creates values for given island data.
+         *
+         * @param data Island data.
+         * @param tierVersion Version of generator tiers that was used for names.
+         * @param activeNames Active generator names.
+         * @param unlockedNames Unlocked generator names.
+         * @param purchasedNames Purchased generator names.
+         */
+        private Values(GeneratorDataObject data,
+            long tierVersion,
+            String activeNames,
+            String unlockedNames,
+            String purchasedNames)
+        {
+            this.data = data;
+            this.islandId = data.getUniqueId();
+            this.tierVersion = tierVersion;
+            this.createdAt = System.currentTimeMillis();
+            this.activeCount = data.getActiveGeneratorList().size();
+            this.maxActiveCount = data.getActiveGeneratorCount();
+            this.unlockedCount = data.getUnlockedTiers().size();
+            this.purchasedCount = data.getPurchasedTiers().size();
+            this.activeNames = activeNames;
+            this.unlockedNames = unlockedNames;
+            this.purchasedNames = purchasedNames;
+        }
+
+
+        /**
+         * This method returns if values still describe given island data. Changes that do not fire events, like
+         * active generator count from permissions, are noticed by comparing counts.
+         *
+         * @param data Current island data.
+         * @param tierVersion Current version of generator tiers.
+         * @return {@code true} if values can be used.
+         */
+        private boolean isValid(GeneratorDataObject data, long tierVersion)
+        {
+            return !this.stale &&
+                this.data == data &&
+                this.tierVersion == tierVersion &&
+                this.activeCount == data.getActiveGeneratorList().size() &&
+                this.maxActiveCount == data.getActiveGeneratorCount() &&
+                this.unlockedCount == data.getUnlockedTiers().size() &&
+                this.purchasedCount == data.getPurchasedTiers().size();
+        }
+
+
+        /**
+         * @return number of active generators.
+         */
+        public int getActiveCount()
+        {
+            return this.activeCount;
+        }
+
+
+        /**
+         * @return maximal number of active generators.
+         */
+        public int getMaxActiveCount()
+        {
+            return this.maxActiveCount;
+        }
+
+
+        /**
+         * @return active generator names separated with ','.
+         */
+        public String getActiveNames()
+        {
+            return this.activeNames;
+        }
+
+
+        /**
+         * @return unlocked generator names separated with ','.
+         */
+        public String getUnlockedNames()
+        {
+            return this.unlockedNames;
+        }
+
+
+        /**
+         * @return purchased generator names separated with ','.
+         */
+        public String getPurchasedNames()
+        {
+            return this.purchasedNames;
+        }
+
+
+        /**
+         * Island data that was used to build values.
+         */
+        private final GeneratorDataObject data;
+
+        /**
+         * Island unique id.
+         */
+        private final String islandId;
+
+        /**
+         * Version of generator tiers that was used to build names.
+         */
+        private final long tierVersion;
+
+        /**
+         * Time when values were built.
+         */
+        private final long createdAt;
+
+        /**
+         * Number of active generators.
+         */
+        private final int activeCount;
+
+        /**
+         * Maximal number of active generators.
+         */
+        private final int maxActiveCount;
+
+        /**
+         * Number of unlocked generators.
+         */
+        private final int unlockedCount;
+
+        /**
+         * Number of purchased generators.
+         */
+        private final int purchasedCount;
+
+        /**
+         * Active generator names.
+         */
+        private final String activeNames;
+
+        /**
+         * Unlocked generator names.
+         */
+        private final String unlockedNames;
+
+        /**
+         * Purchased generator names.
+         */
+        private final String purchasedNames;
+
+        /**
+         * Indicates that island generators were changed after values were built.
+         */
+        private volatile boolean stale;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Time in milliseconds after which snapshot values are built again, so changes that do not fire events are
+     * noticed.
+     */
+    private static final long SNAPSHOT_REFRESH_TIME = 5000L;
+
+    /**
+     * Addon instance.
+     */
+    private final StoneGeneratorAddon addon;
+
+    /**
+     * Remembered values for each world and player.
+     */
+    private final Map<World, Map<UUID, Values>> worldValues;
+
+    /**
+     * Players which values are scheduled to be built on main thread.
+     */
+    private final Set<Pair<World, UUID>> pendingRefreshes;
+}
@@ -0,0 +1,552 @@
+//
+// Created by BONNe
+// Copyright - 2020
+//
+
+
+package world.bentobox.magiccobblestonegenerator.listeners;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.bentobox.managers.RanksManager;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.utils.LongObjectHashMap;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
+import world.bentobox.magiccobblestonegenerator.utils.Utils;
+
+
+/**
+ * This class indexes online players by chunk in every generator world. It allows to check if an island member is
+ * near a generator without iterating all entities around it. Index is updated only when player crosses chunk border.
+ * On region threaded servers each player publishes its own block position from its region thread, and island members
+ * are checked against published positions, as player location cannot be read from other regions.
+ */
+public class PlayerPositionIndex implements Listener
+{
+    /**
+     * Constructor PlayerPositionIndex creates a new PlayerPositionIndex instance.
+     *
+     * @param addon of type StoneGeneratorAddon
+     */
+    public PlayerPositionIndex(StoneGeneratorAddon addon)
+    {
+        this.addon = addon;
+        this.worldGrid = new HashMap<>();
+        this.playerCells = new HashMap<>();
+        this.regionThreading = Schedulers.isRegionThreading();
+        this.publishedPositions = new ConcurrentHashMap<>();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method adds all online players into index. It is used when addon is enabled or reloaded. On region
+     * threaded servers players publish their position when they move.
+     */
+    public void indexOnlinePlayers()
+    {
+        if (!this.regionThreading)
+        {
+            Bukkit.getOnlinePlayers().forEach(player -> this.updatePlayer(player, player.getLocation()));
+        }
+    }
+
+
+    /**
+     * This method returns if any island member is inside given range around block.
+     *
+     * @param island Island which members must be checked.
+     * @param block Block around which members are searched.
+     * @param range Range around block.
+     * @return {@code true} if at least one island member is in range, {@code false} otherwise.
+     */
+    public boolean isMemberInRange(@NotNull Island island, @NotNull Block block, int range)
+    {
+        if (this.regionThreading)
+        {
+            return this.isPublishedMemberInRange(island, block, range);
+        }
+
+        LongObjectHashMap<List<Player>> grid = this.worldGrid.get(block.getWorld());
+
+        if (grid == null || grid.isEmpty())
+        {
+            return false;
+        }
+
+        int blockX = block.getX();
+        int blockY = block.getY();
+        int blockZ = block.getZ();
+
+        for (int chunkX = (blockX - range) >> 4; chunkX <= (blockX + range) >> 4; chunkX++)
+        {
+            for (int chunkZ = (blockZ - range) >> 4; chunkZ <= (blockZ + range) >> 4; chunkZ++)
+            {
+                List<Player> players = grid.get(Utils.getChunkKey(chunkX, chunkZ));
+
+                if (players == null)
+                {
+                    continue;
+                }
+
+                for (int i = 0; i < players.size(); i++)
+                {
+                    Player player = players.get(i);
+
+                    // Rank check is the same as island member set check, but does not create a new set.
+                    if (island.getRank(player.getUniqueId()) < RanksManager.MEMBER_RANK)
+                    {
+                        continue;
+                    }
+
+                    Location location = player.getLocation();
+
+                    if (Math.abs(location.getX() - blockX) <= range &&
+                        Math.abs(location.getY() - blockY) <= range &&
+                        Math.abs(location.getZ() - blockZ) <= range)
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * This method checks island members against positions that they published from their own region threads.
+     *
+     * @param island Island which members must be checked.
+     * @param block Block around which members are searched.
+     * @param range Range around block.
+     * @return {@code true} if at least one island member is in range, {@code false} otherwise.
+     */
+    private boolean isPublishedMemberInRange(@NotNull Island island, @NotNull Block block, int range)
+    {
+        for (UUID member : island.getMemberSet())
+        {
+            PlayerPosition position = this.publishedPositions.get(member);
+
+            if (position != null &&
+                position.world == block.getWorld() &&
+                Math.abs(position.x - block.getX()) <= range &&
+                Math.abs(position.y - block.getY()) <= range &&
+                Math.abs(position.z - block.getZ()) <= range)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * This method publishes player block position. It must be called from the thread that owns the player.
+     *
+     * @param player Player that must be updated.
+     * @param location New player location.
+     */
+    private void publishPosition(@NotNull Player player, @Nullable Location location)
+    {
+        if (location == null ||
+            location.getWorld() == null ||
+            !this.addon.getAddonManager().canOperateInWorld(location.getWorld()))
+        {
+            this.publishedPositions.remove(player.getUniqueId());
+            return;
+        }
+
+        this.publishedPositions.put(player.getUniqueId(), new PlayerPosition(location.getWorld(),
+            location.getBlockX(),
+            location.getBlockY(),
+            location.getBlockZ()));
+    }
+
+
+    /**
+     * This method updates player in the index, or publishes its position on region threaded servers.
+     *
+     * @param player Player that must be updated.
+     * @param location New player location.
+     */
+    private void movePlayer(@NotNull Player player, @Nullable Location location)
+    {
+        if (this.regionThreading)
+        {
+            this.publishPosition(player, location);
+        }
+        else
+        {
+            this.updatePlayer(player, location);
+        }
+    }
+
+
+    /**
+     * This method moves player to a chunk cell of given location.
+     *
+     * @param player Player that must be updated.
+     * @param location New player location.
+     */
+    private void updatePlayer(@NotNull Player player, @Nullable Location location)
+    {
+        if (location == null ||
+            location.getWorld() == null ||
+            !this.addon.getAddonManager().canOperateInWorld(location.getWorld()))
+        {
+            // Players outside generator worlds are not needed.
+            this.removePlayer(player);
+            return;
+        }
+
+        World world = location.getWorld();
+        long chunkKey = Utils.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+
+        PlayerCell cell = this.playerCells.get(player.getUniqueId());
+
+        if (cell != null && cell.world == world && cell.chunkKey == chunkKey)
+        {
+            // Player is in the same cell.
+            return;
+        }
+
+        this.removePlayer(player);
+
+        LongObjectHashMap<List<Player>> grid = this.worldGrid.computeIfAbsent(world, key -> new LongObjectHashMap<>());
+        List<Player> players = grid.get(chunkKey);
+
+        if (players == null)
+        {
+            players = new ArrayList<>(2);
+            grid.put(chunkKey, players);
+        }
+
+        players.add(player);
+        this.playerCells.put(player.getUniqueId(), new PlayerCell(world, chunkKey));
+    }
+
+
+    /**
+     * This method removes player from index.
+     *
+     * @param player Player that must be removed.
+     */
+    private void removePlayer(@NotNull Player player)
+    {
+        PlayerCell cell = this.playerCells.remove(player.getUniqueId());
+
+        if (cell == null)
+        {
+            return;
+        }
+
+        LongObjectHashMap<List<Player>> grid = this.worldGrid.get(cell.world);
+
+        if (grid == null)
+        {
+            return;
+        }
+
+        List<Player> players = grid.get(cell.chunkKey);
+
+        if (players != null)
+        {
+            players.removeIf(indexed -> indexed.getUniqueId().equals(player.getUniqueId()));
+
+            if (players.isEmpty())
+            {
+                grid.remove(cell.chunkKey);
+            }
+        }
+    }
+
+
+    /**
+     * This method returns if two locations are in different chunks or worlds.
+     *
+     * @param from First location.
+     * @param to Second location.
+     * @return {@code true} if chunk is changed, {@code false} otherwise.
+     */
+    private static boolean isChunkChanged(@NotNull Location from, @Nullable Location to)
+    {
+        return to != null &&
+            (from.getWorld() != to.getWorld() ||
+                from.getBlockX() >> 4 != to.getBlockX() >> 4 ||
+                from.getBlockZ() >> 4 != to.getBlockZ() >> 4);
+    }
+
+
+    /**
+     * This method returns if two locations are in different blocks or worlds.
+     *
+     * @param from First location.
+     * @param to Second location.
+     * @return {@code true} if block is changed, {@code false} otherwise.
+     */
+    private static boolean isBlockChanged(@NotNull Location from, @Nullable Location to)
+    {
+        return to != null &&
+            (from.getWorld() != to.getWorld() ||
+                from.getBlockX() != to.getBlockX() ||
+                from.getBlockY() != to.getBlockY() ||
+                from.getBlockZ() != to.getBlockZ());
+    }
+
+
+    /**
+     * This method returns if player must be moved between given locations. Published positions are updated on each
+     * block change, while index is updated on each chunk change.
+     *
+     * @param from First location.
+     * @param to Second location.
+     * @return {@code true} if player must be moved, {@code false} otherwise.
+     */
+    private boolean isMoved(@NotNull Location from, @Nullable Location to)
+    {
+        return this.regionThreading ?
+            PlayerPositionIndex.isBlockChanged(from, to) :
+            PlayerPositionIndex.isChunkChanged(from, to);
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Listeners
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method adds player to the index when player joins.
+     *
+     * @param event PlayerJoinEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event)
+    {
+        this.movePlayer(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+
+    /**
+     * This method removes player from the index when player quits.
+     *
+     * @param event PlayerQuitEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event)
+    {
+        if (this.regionThreading)
+        {
+            this.publishedPositions.remove(event.getPlayer().getUniqueId());
+        }
+        else
+        {
+            this.removePlayer(event.getPlayer());
+        }
+    }
+
+
+    /**
+     * This method updates player position when player moves into another chunk, or into another block on region
+     * threaded servers. Most of move events happen inside the same chunk, so they are ignored.
+     *
+     * @param event PlayerMoveEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event)
+    {
+        if (this.isMoved(event.getFrom(), event.getTo()))
+        {
+            this.movePlayer(event.getPlayer(), event.getTo());
+        }
+    }
+
+
+    /**
+     * This method updates player position when player teleports.
+     *
+     * @param event PlayerTeleportEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event)
+    {
+        if (this.isMoved(event.getFrom(), event.getTo()))
+        {
+            this.movePlayer(event.getPlayer(), event.getTo());
+        }
+    }
+
+
+    /**
+     * This method updates player position when player changes world.
+     *
+     * @param event PlayerChangedWorldEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event)
+    {
+        this.movePlayer(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+
+    /**
+     * This method updates player position when player respawns.
+     *
+     * @param event PlayerRespawnEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event)
+    {
+        this.movePlayer(event.getPlayer(), event.getRespawnLocation());
+    }
+
+
+    /**
+     * This method updates position of players that are riding vehicles, as player move event is not called for them.
+     *
+     * @param event VehicleMoveEvent instance.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event)
+    {
+        if (!this.isMoved(event.getFrom(), event.getTo()))
+        {
+            return;
+        }
+
+        for (Entity passenger : event.getVehicle().getPassengers())
+        {
+            if (passenger instanceof Player player)
+            {
+                this.movePlayer(player, event.getTo());
+            }
+        }
+    }
+
+
+    /**
+     * This method removes index for unloaded world.
+     *
+     * @param event Event that must be handled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event)
+    {
+        this.worldGrid.remove(event.getWorld());
+        this.playerCells.values().removeIf(cell -> cell.world == event.getWorld());
+        this.publishedPositions.values().removeIf(position -> position.world == event.getWorld());
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds cell where player is indexed.
+     */
+    private static class PlayerCell
+    {
+        /**
+         * Creates player cell.
+         *
+         * @param world World of the cell.
+         * @param chunkKey Packed chunk key of the cell.
+         */
+        private PlayerCell(World world, long chunkKey)
+        {
+            this.world = world;
+            this.chunkKey = chunkKey;
+        }
+
+
+        /**
+         * World of the cell.
+         */
+        private final World world;
+
+        /**
+         * Packed chunk key of the cell.
+         */
+        private final long chunkKey;
+    }
+
+
+    /**
+     * This class holds block position that player published from its region thread.
+     *
+     * @param world World of the player.
+     * @param x Block X coordinate.
+     * @param y Block Y coordinate.
+     * @param z Block Z coordinate.
+     */
+    private record PlayerPosition(World world, int x, int y, int z)
+    {
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Main addon class.
+     */
+    private final StoneGeneratorAddon addon;
+
+    /**
+     * Map that links world with players in each chunk.
+     */
+    private final Map<World, LongObjectHashMap<List<Player>>> worldGrid;
+
+    /**
+     * Map that links player with cell where it is indexed.
+     */
+    private final Map<UUID, PlayerCell> playerCells;
+
+    /**
+     * Indicates if server ticks regions in parallel.
+     */
+    private final boolean regionThreading;
+
+    /**
+     * Map that links player with its published block position. It is used only on region threaded servers.
+     */
+    private final Map<UUID, PlayerPosition> publishedPositions;
+}
@@ -7,8 +7,6 @@
 package world.bentobox.magiccobblestonegenerator.listeners;
 
 
-import java.util.Optional;
-
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
@@ -17,6 +15,7 @@ import org.bukkit.event.block.BlockFormEvent;
 
 import world.bentobox.bentobox.database.objects.Island;
 import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
 import world.bentobox.magiccobblestonegenerator.utils.Why;
 
 
@@ -59,21 +58,39 @@ public class VanillaGeneratorListener extends GeneratorListener
             return;
         }
 
-        Optional<Island> islandOptional = this.addon.getIslands().getIslandAt(eventSourceBlock.getLocation());
+        // Hotspot remembers checks for positions where generator forms blocks often.
+        HotspotRegistry.Hotspot hotspot = this.addon.getHotspotRegistry().getHotspot(eventSourceBlock);
+
+        Island island = hotspot != null ? hotspot.getIsland() :
+            this.addon.getIslandLookupCache().getIslandAt(eventSourceBlock.getLocation()).orElse(null);
 
-        if (islandOptional.isEmpty())
+        if (island == null)
         {
             // If not operating in non-island regions.
             return;
         }
 
-        Island island = islandOptional.get();
+        Boolean allowed = hotspot != null ? hotspot.getAllowed() : null;
+
+        if (allowed == null)
+        {
+            allowed = island.isAllowed(StoneGeneratorAddon.MAGIC_COBBLESTONE_GENERATOR);
+
+            if (hotspot != null)
+            {
+                hotspot.setAllowed(allowed);
+            }
+        }
 
-        if (!island.isAllowed(StoneGeneratorAddon.MAGIC_COBBLESTONE_GENERATOR))
+        if (!allowed)
         {
             // Currently addon is not working outside island protection ranges.
             // New flag is required for enabling this feature.
-            Why.report(island, eventSourceBlock.getLocation(), "MCG is disabled by MAGIC_COBBLESTONE_GENERATOR flag!");
+            if (Why.isTracing(island))
+            {
+                Why.report(island, eventSourceBlock.getLocation(), "MCG is disabled by MAGIC_COBBLESTONE_GENERATOR flag!");
+            }
+
             return;
         }
 
@@ -81,49 +98,74 @@ public class VanillaGeneratorListener extends GeneratorListener
         {
             // Offline generation is not enabled and all island members are offline.
             // TODO: probably need another option to disable generation if members are not on the island :)
-            Why.report(island, eventSourceBlock.getLocation(), "All island members are offline!");
-            return;
-        }
+            if (Why.isTracing(island))
+            {
+                Why.report(island, eventSourceBlock.getLocation(), "All island members are offline!");
+            }
 
-        if (!this.isInRangeToGenerate(island, eventSourceBlock))
-        {
-            // Check if any island member is at generator range.
-            Why.report(island, eventSourceBlock.getLocation(), "No players in range!");
             return;
         }
 
-        // All edge cases are processed. Not deal with block generation.
-        // Use new block state to detect which generator to use.
+        Boolean inRange = hotspot != null ? hotspot.getInRange() : null;
 
-        if (event.getNewState().getType() == Material.COBBLESTONE)
+        if (inRange == null)
         {
-            Material material = this.generateCobblestoneReplacement(island, eventSourceBlock.getLocation());
+            inRange = this.isInRangeToGenerate(island, eventSourceBlock);
 
-            if (material != null && material.isBlock())
+            if (hotspot != null)
             {
-                // Replace new state with a proper material.
-                event.getNewState().setType(material);
+                hotspot.setInRange(inRange);
             }
         }
-        else if (event.getNewState().getType() == Material.STONE)
-        {
-            Material material = this.generateStoneReplacement(island, eventSourceBlock.getLocation());
 
-            if (material != null && material.isBlock())
+        if (!inRange)
+        {
+            // Check if any island member is at generator range.
+            if (Why.isTracing(island))
             {
-                // Replace new state with a proper material.
-                event.getNewState().setType(material);
+                Why.report(island, eventSourceBlock.getLocation(), "No players in range!");
             }
+
+            return;
         }
-        else if (event.getNewState().getType() == Material.BASALT)
+
+        // All edge cases are processed. Not deal with block generation.
+        // Use new block state to detect which generator to use.
+        Material vanillaMaterial = event.getNewState().getType();
+
+        GeneratorTierObject.GeneratorType generatorType = switch (vanillaMaterial) {
+            case COBBLESTONE -> GeneratorTierObject.GeneratorType.COBBLESTONE;
+            case STONE -> GeneratorTierObject.GeneratorType.STONE;
+            case BASALT -> GeneratorTierObject.GeneratorType.BASALT;
+            default -> null;
+        };
+
+        if (generatorType == null)
         {
-            Material material = this.generateBasaltReplacement(island, eventSourceBlock.getLocation());
+            return;
+        }
 
-            if (material != null && material.isBlock())
+        if (!this.addon.getGenerationLimiter().tryAcquire(island, eventSourceBlock))
+        {
+            // Island or chunk is over generation limit. Keep vanilla block and try to replace it later.
+            if (Why.isTracing(island))
             {
-                // Replace new state with a proper material.
-                event.getNewState().setType(material);
+                Why.report(island, eventSourceBlock.getLocation(), "Generation limit reached!");
             }
+
+            this.addon.getGenerationLimiter().defer(island, eventSourceBlock, generatorType, vanillaMaterial);
+            return;
+        }
+
+        Material material = this.generateReplacement(island,
+            eventSourceBlock.getLocation(),
+            generatorType,
+            hotspot);
+
+        if (material != null && material.isBlock())
+        {
+            // Replace new state with a proper material.
+            event.getNewState().setType(material);
         }
     }
 }
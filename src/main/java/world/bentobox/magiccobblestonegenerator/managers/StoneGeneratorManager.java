@@ -2,11 +2,14 @@ package world.bentobox.magiccobblestonegenerator.managers;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -16,8 +19,16 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -36,6 +47,7 @@ import world.bentobox.bentobox.api.addons.GameModeAddon;
 import world.bentobox.bentobox.api.localization.TextVariables;
 import world.bentobox.bentobox.api.user.User;
 import world.bentobox.bentobox.database.Database;
+import world.bentobox.bentobox.database.objects.DataObject;
 import world.bentobox.bentobox.database.objects.Island;
 import world.bentobox.bentobox.managers.RanksManager;
 import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
@@ -46,6 +58,10 @@ import world.bentobox.magiccobblestonegenerator.events.GeneratorActivationEvent;
 import world.bentobox.magiccobblestonegenerator.events.GeneratorBuyEvent;
 import world.bentobox.magiccobblestonegenerator.events.GeneratorUnlockEvent;
 import world.bentobox.magiccobblestonegenerator.utils.Constants;
+import world.bentobox.magiccobblestonegenerator.utils.IdInterner;
+import world.bentobox.magiccobblestonegenerator.utils.IdleEvictingCache;
+import world.bentobox.magiccobblestonegenerator.utils.PermissionSnapshot;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
 import world.bentobox.magiccobblestonegenerator.utils.Utils;
 
 /**
@@ -63,13 +79,27 @@ public class StoneGeneratorManager {
 	this.operationWorlds = new HashSet<>();
 
 	this.generatorTierDatabase = new Database<>(addon, GeneratorTierObject.class);
-	this.generatorTierCache = new HashMap<>();
+	this.generatorTierCache = new ConcurrentHashMap<>();
 
 	this.generatorDataDatabase = new Database<>(addon, GeneratorDataObject.class);
-	this.generatorDataCache = new HashMap<>();
+	this.generatorDataCache = new IdleEvictingCache<>(() -> addon.getSettings().getDataCacheSize(),
+		() -> TimeUnit.MINUTES.toMillis(addon.getSettings().getDataIdleTime()), this::isIslandDataPinned,
+		this::onIslandDataEvicted);
 
 	this.generatorBundleDatabase = new Database<>(addon, GeneratorBundleObject.class);
-	this.generatorBundleCache = new HashMap<>();
+	this.generatorBundleCache = new ConcurrentHashMap<>();
+
+	this.resolvedTierCache = new ConcurrentHashMap<>();
+	this.onlineMemberCache = new ConcurrentHashMap<>();
+	this.workingRangeCache = new ConcurrentHashMap<>();
+	this.pendingDataLoads = ConcurrentHashMap.newKeySet();
+	this.dirtyGeneratorData = new LinkedHashMap<>();
+	this.evictedDataWrites = new ConcurrentHashMap<>();
+	this.islandLocks = new Object[ISLAND_LOCK_STRIPES];
+	Arrays.setAll(this.islandLocks, i -> new Object());
+	this.tierStamps = new VersionStamps();
+	this.bundleStamps = new VersionStamps();
+	this.dataStamps = new VersionStamps();
     }
 
     /**
@@ -88,14 +118,129 @@ public class StoneGeneratorManager {
     // ---------------------------------------------------------------------
 
     /**
-     * This method clears cache and reloads all generators. Unsaved changes will be
-     * lost. Includes island data.
+     * This method reloads generator tiers and bundles from database. Only objects
+     * that are changed in database are replaced and compiled again, and only
+     * islands in game modes with changed objects resolve their generator tiers
+     * again. Island data stays in memory. Unsaved changes of generator tiers and
+     * bundles will be lost.
+     *
+     * @return ReloadResult with added, changed and removed objects.
      */
-    public void reload() {
-	// on reload clear cache and load generators.
+    public ReloadResult reload() {
+	// Queued island data changes are written first, as they are already saved for callers.
+	this.flushGeneratorData();
+
+	this.addon.log("Loading generator tiers from database...");
+
+	ReloadResult.Changes tiers = this.reloadObjects(this.generatorTierDatabase.loadObjects(),
+		this.generatorTierCache, this.tierStamps, GeneratorTierObject::isSameAs, generatorTier -> {
+		    this.migrateGeneratorTier(generatorTier);
+		    this.commitLoadedTier(generatorTier);
+		});
+	ReloadResult.Changes bundles = this.reloadObjects(this.generatorBundleDatabase.loadObjects(),
+		this.generatorBundleCache, this.bundleStamps, GeneratorBundleObject::isSameAs, bundle -> {
+		});
+
+	List<String> changedIds = new ArrayList<>(tiers.getChangedIds());
+	changedIds.addAll(bundles.getChangedIds());
+
+	Set<String> gameModes = new HashSet<>();
+
+	if (!changedIds.isEmpty()) {
+	    // Object ids start with game mode name, so only these game modes are affected.
+	    Set<String> knownGameModes = this.addon.getPlugin().getAddonsManager().getGameModeAddons().stream()
+		    .map(gameMode -> gameMode.getDescription().getName().toLowerCase()).collect(Collectors.toSet());
+	    boolean unknownGameMode = false;
+
+	    for (String uniqueId : changedIds) {
+		unknownGameMode |= !this.addGameMode(uniqueId, knownGameModes, gameModes);
+	    }
+
+	    if (unknownGameMode) {
+		gameModes.addAll(knownGameModes);
+		this.invalidateResolvedTiers();
+	    } else {
+		this.invalidateGameModeTiers(gameModes);
+	    }
+
+	    this.addon.log("Changed generator tiers: " + tiers.getChangedIds() + ", changed bundles: "
+		    + bundles.getChangedIds());
+	}
+
+	this.addon.log("Generator tiers: " + tiers + ". Bundles: " + bundles + ".");
+	this.addon.log("Done");
+
+	return new ReloadResult(tiers, bundles, gameModes);
+    }
+
+    /**
+     * This method replaces cached objects with stored objects that have different
+     * content, adds new stored objects and removes cached objects that are not
+     * stored anymore. Unchanged cached objects are kept with their compiled state.
+     *
+     * @param storedObjects Objects loaded from database.
+     * @param cache         Cache of objects.
+     * @param stamps        Write stamps of cached objects.
+     * @param sameContent   Predicate that returns if two objects have the same
+     *                      content.
+     * @param prepare       Consumer that prepares new or changed object before it
+     *                      is cached.
+     * @param <T>           Type of objects.
+     * @return Changes in the cache.
+     */
+    private <T extends DataObject> ReloadResult.Changes reloadObjects(List<T> storedObjects, Map<String, T> cache,
+	    VersionStamps stamps, BiPredicate<T, T> sameContent, Consumer<T> prepare) {
+	List<String> added = new ArrayList<>();
+	List<String> changed = new ArrayList<>();
+	List<String> removed = new ArrayList<>();
+	Set<String> storedIds = new HashSet<>();
+	int unchanged = 0;
+
+	for (T storedObject : storedObjects) {
+	    String uniqueId = storedObject.getUniqueId();
+
+	    if (uniqueId == null || !storedIds.add(uniqueId)) {
+		continue;
+	    }
+
+	    T cachedObject = cache.get(uniqueId);
+
+	    if (cachedObject != null && sameContent.test(cachedObject, storedObject)) {
+		unchanged++;
+		continue;
+	    }
+
+	    prepare.accept(storedObject);
+	    cache.put(uniqueId, storedObject);
+	    // Objects loaded from database do not need to be written back.
+	    stamps.remove(uniqueId);
+	    (cachedObject == null ? added : changed).add(uniqueId);
+	}
+
+	for (String uniqueId : new ArrayList<>(cache.keySet())) {
+	    if (!storedIds.contains(uniqueId)) {
+		cache.remove(uniqueId);
+		stamps.remove(uniqueId);
+		removed.add(uniqueId);
+	    }
+	}
+
+	return new ReloadResult.Changes(added, changed, removed, unchanged);
+    }
 
-	this.generatorDataCache.clear();
-	this.load();
+    /**
+     * This method adds game mode of given object to the set.
+     *
+     * @param uniqueId       Object unique id that starts with game mode name.
+     * @param knownGameModes Lower case names of all game modes.
+     * @param gameModes      Set where game mode must be added.
+     * @return {@code true} if game mode is found.
+     */
+    private boolean addGameMode(String uniqueId, Set<String> knownGameModes, Set<String> gameModes) {
+	String lowerCaseId = uniqueId.toLowerCase();
+	Optional<String> gameMode = knownGameModes.stream().filter(lowerCaseId::startsWith).findFirst();
+	gameMode.ifPresent(gameModes::add);
+	return gameMode.isPresent();
     }
 
     /**
@@ -104,6 +249,7 @@ public class StoneGeneratorManager {
     public void load() {
 	this.generatorTierCache.clear();
 	this.generatorBundleCache.clear();
+	this.invalidateResolvedTiers();
 
 	this.addon.log("Loading generator tiers from database...");
 
@@ -120,7 +266,10 @@ public class StoneGeneratorManager {
      * @return true if successful
      */
     private boolean loadGeneratorTier(GeneratorTierObject generatorTier) {
-	return this.loadGeneratorTier(generatorTier, true, null);
+	boolean loaded = this.loadGeneratorTier(generatorTier, true, null);
+	// Objects loaded from database do not need to be written back.
+	this.tierStamps.remove(generatorTier.getUniqueId());
+	return loaded;
     }
 
     /**
@@ -136,7 +285,11 @@ public class StoneGeneratorManager {
 	    if (!overwrite) {
 		return false;
 	    } else {
+		// Tier is compiled before generators can see it.
+		this.commitLoadedTier(generatorTier);
 		this.generatorTierCache.replace(generatorTier.getUniqueId(), generatorTier);
+		this.tierStamps.markModified(generatorTier.getUniqueId());
+		this.invalidateResolvedTiers();
 		return true;
 	    }
 	}
@@ -148,11 +301,27 @@ public class StoneGeneratorManager {
 
 	// Migrate generator tier object.
 	this.migrateGeneratorTier(generatorTier);
+	this.commitLoadedTier(generatorTier);
 
 	this.generatorTierCache.put(generatorTier.getUniqueId(), generatorTier);
+	this.tierStamps.markModified(generatorTier.getUniqueId());
+	this.invalidateResolvedTiers();
 	return true;
     }
 
+    /**
+     * This method compiles loaded generator tier, so generators can use it. Tier that
+     * is not valid is reported, as generators will ignore it until it is fixed.
+     *
+     * @param generatorTier generator tier that is loaded.
+     */
+    private void commitLoadedTier(GeneratorTierObject generatorTier) {
+	if (!generatorTier.commit()) {
+	    this.addon.logWarning("Generator tier " + generatorTier.getUniqueId()
+		    + " is not valid. Generators do not use it until it is fixed.");
+	}
+    }
+
     /**
      * Loads generator bundles in cache silently. Used when loading.
      *
@@ -160,7 +329,10 @@ public class StoneGeneratorManager {
      * @return true if successful
      */
     private boolean loadGeneratorBundle(GeneratorBundleObject generatorBundle) {
-	return this.loadGeneratorBundle(generatorBundle, true, null);
+	boolean loaded = this.loadGeneratorBundle(generatorBundle, true, null);
+	// Objects loaded from database do not need to be written back.
+	this.bundleStamps.remove(generatorBundle.getUniqueId());
+	return loaded;
     }
 
     /**
@@ -177,6 +349,8 @@ public class StoneGeneratorManager {
 		return false;
 	    } else {
 		this.generatorBundleCache.replace(generatorBundle.getUniqueId(), generatorBundle);
+		this.bundleStamps.markModified(generatorBundle.getUniqueId());
+		this.invalidateResolvedTiers();
 		return true;
 	    }
 	}
@@ -187,6 +361,8 @@ public class StoneGeneratorManager {
 	}
 
 	this.generatorBundleCache.put(generatorBundle.getUniqueId(), generatorBundle);
+	this.bundleStamps.markModified(generatorBundle.getUniqueId());
+	this.invalidateResolvedTiers();
 	return true;
     }
 
@@ -208,7 +384,32 @@ public class StoneGeneratorManager {
      * @return CompletableFuture<Boolean> to indicate if it is done
      */
     public CompletableFuture<Boolean> saveGeneratorTier(GeneratorTierObject generatorTier) {
-	return this.generatorTierDatabase.saveObjectAsync(generatorTier);
+	// Tier is saved after each edit, so resolved tiers may be outdated. Edited
+	// tier is published to generators only if it is valid.
+	if (!generatorTier.commit()) {
+	    this.addon.logWarning("Generator tier " + generatorTier.getUniqueId()
+		    + " is not valid. Generators use its previous version until it is fixed.");
+	}
+
+	this.invalidateResolvedTiers();
+	this.tierStamps.markModified(generatorTier.getUniqueId());
+	return this.writeGeneratorTier(generatorTier);
+    }
+
+    /**
+     * This method writes given generatorTier object into database. Object is
+     * marked as written only if the write succeeds and object is not changed in
+     * the meantime.
+     *
+     * @param generatorTier object that must be written in database.
+     * @return CompletableFuture<Boolean> to indicate if it is done
+     */
+    private CompletableFuture<Boolean> writeGeneratorTier(GeneratorTierObject generatorTier) {
+	final String uniqueId = generatorTier.getUniqueId();
+	final long version = this.tierStamps.getVersion(uniqueId);
+
+	return this.generatorTierDatabase.saveObjectAsync(generatorTier)
+		.thenApply(success -> this.tierStamps.markWritten(uniqueId, version, success));
     }
 
     /**
@@ -218,7 +419,26 @@ public class StoneGeneratorManager {
      * @return CompletableFuture<Boolean> to indicate if it is done
      */
     public CompletableFuture<Boolean> saveGeneratorBundle(GeneratorBundleObject generatorBundle) {
-	return this.generatorBundleDatabase.saveObjectAsync(generatorBundle);
+	// Bundle is saved after each edit, so resolved tiers may be outdated.
+	this.invalidateResolvedTiers();
+	this.bundleStamps.markModified(generatorBundle.getUniqueId());
+	return this.writeGeneratorBundle(generatorBundle);
+    }
+
+    /**
+     * This method writes given generatorBundle object into database. Object is
+     * marked as written only if the write succeeds and object is not changed in
+     * the meantime.
+     *
+     * @param generatorBundle object that must be written in database.
+     * @return CompletableFuture<Boolean> to indicate if it is done
+     */
+    private CompletableFuture<Boolean> writeGeneratorBundle(GeneratorBundleObject generatorBundle) {
+	final String uniqueId = generatorBundle.getUniqueId();
+	final long version = this.bundleStamps.getVersion(uniqueId);
+
+	return this.generatorBundleDatabase.saveObjectAsync(generatorBundle)
+		.thenApply(success -> this.bundleStamps.markWritten(uniqueId, version, success));
     }
 
     /**
@@ -228,25 +448,339 @@ public class StoneGeneratorManager {
      * @return CompletableFuture<Boolean> to indicate if it is done
      */
     public CompletableFuture<Boolean> saveGeneratorData(GeneratorDataObject generatorData) {
-	return this.generatorDataDatabase.saveObjectAsync(generatorData);
+	// Island data is saved after each change, so its resolved tiers may be outdated.
+	this.invalidateResolvedTiers(generatorData.getUniqueId());
+	this.dataStamps.markModified(generatorData.getUniqueId());
+
+	if (generatorData.getUniqueId() != null && !this.generatorDataCache.containsKey(generatorData.getUniqueId())) {
+	    // Data could be removed from cache while caller held it, so changed data is cached again.
+	    this.generatorDataCache.put(generatorData.getUniqueId(), generatorData);
+	}
+
+	if (this.addon.getSettings().getDataSaveInterval() <= 0) {
+	    // Write-behind is disabled.
+	    return this.writeGeneratorData(generatorData);
+	}
+
+	// Changes are coalesced per island and written by the flush task.
+	generatorData.setDirty(true);
+
+	synchronized (this.dirtyGeneratorData) {
+	    if (this.dirtyGeneratorData.put(generatorData.getUniqueId(), generatorData) != null) {
+		this.coalescedSaveCount.increment();
+	    }
+
+	    int queueSize = this.addon.getSettings().getDataQueueSize();
+
+	    if (queueSize > 0 && this.dirtyGeneratorData.size() > queueSize) {
+		// Too many islands wait to be written, so the oldest changes are written now.
+		Iterator<GeneratorDataObject> iterator = this.dirtyGeneratorData.values().iterator();
+
+		while (this.dirtyGeneratorData.size() > queueSize && iterator.hasNext()) {
+		    GeneratorDataObject oldest = iterator.next();
+		    iterator.remove();
+		    this.writeGeneratorData(oldest);
+		}
+	    }
+	}
+
+	return CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * This method writes given generatorData object into database. Object is
+     * marked as written only if the write succeeds and object is not changed in
+     * the meantime.
+     *
+     * @param generatorData object that must be written in database.
+     * @return CompletableFuture<Boolean> to indicate if it is done
+     */
+    private CompletableFuture<Boolean> writeGeneratorData(GeneratorDataObject generatorData) {
+	final String uniqueId = generatorData.getUniqueId();
+	final long version = this.dataStamps.getVersion(uniqueId);
+
+	generatorData.setDirty(false);
+	this.dataWriteCount.increment();
+
+	CompletableFuture<Boolean> write = this.generatorDataDatabase.saveObjectAsync(generatorData)
+		.thenApply(success -> this.dataStamps.markWritten(uniqueId, version, success));
+	this.pendingDataWrites.add(write);
+	write.whenComplete((success, error) -> this.pendingDataWrites.remove(write));
+
+	return write;
+    }
+
+    /**
+     * This method writes all queued generatorData changes into database.
+     *
+     * @return CompletableFuture<Boolean> to indicate if it is done
+     */
+    public CompletableFuture<Boolean> flushGeneratorData() {
+	List<CompletableFuture<Boolean>> futures;
+
+	synchronized (this.dirtyGeneratorData) {
+	    futures = this.dirtyGeneratorData.values().stream().map(this::writeGeneratorData)
+		    .collect(Collectors.toList());
+	    this.dirtyGeneratorData.clear();
+	}
+
+	return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+		.thenApply(v -> futures.stream().allMatch(CompletableFuture::join));
+    }
+
+    /**
+     * This method writes all queued generatorData changes into database and waits
+     * until all started writes are done. It is used when addon is disabled, as
+     * changes that are not written by then would be lost.
+     *
+     * @param timeout Maximal time to wait in milliseconds.
+     * @return {@code true} if all writes succeeded in given time.
+     */
+    public boolean flushGeneratorDataAndWait(long timeout) {
+	this.flushGeneratorData();
+	List<CompletableFuture<Boolean>> writes = new ArrayList<>(this.pendingDataWrites);
+
+	try {
+	    CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get(timeout, TimeUnit.MILLISECONDS);
+	    return writes.stream().allMatch(CompletableFuture::join);
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    return false;
+	} catch (ExecutionException | TimeoutException e) {
+	    return false;
+	}
+    }
+
+    /**
+     * This method writes queued generatorData changes for islands owned by given
+     * player.
+     *
+     * @param playerUUID Owner unique id.
+     */
+    public void flushGeneratorData(@NotNull UUID playerUUID) {
+	this.operationWorlds.stream().flatMap(world -> this.addon.getIslands().getIslands(world, playerUUID).stream())
+		.filter(island -> playerUUID.equals(island.getOwner())).forEach(island -> {
+		    GeneratorDataObject generatorData = this.removeQueuedGeneratorData(island.getUniqueId());
+
+		    if (generatorData != null) {
+			this.writeGeneratorData(generatorData);
+		    }
+		});
     }
 
     /**
-     * Save generator tiers from cache into database
+     * This method returns number of islands which data changes wait to be
+     * written.
+     *
+     * @return Number of queued island data objects.
+     */
+    public int getQueuedDataCount() {
+	synchronized (this.dirtyGeneratorData) {
+	    return this.dirtyGeneratorData.size();
+	}
+    }
+
+    /**
+     * This method removes queued generatorData changes for given island.
+     *
+     * @param uniqueId Island unique id.
+     * @return Queued GeneratorDataObject or null if island changes are not queued.
+     */
+    private @Nullable GeneratorDataObject removeQueuedGeneratorData(@Nullable String uniqueId) {
+	synchronized (this.dirtyGeneratorData) {
+	    return this.dirtyGeneratorData.remove(uniqueId);
+	}
+    }
+
+    /**
+     * This method returns number of island data writes.
+     *
+     * @return Number of island data writes.
+     */
+    public long getDataWriteCount() {
+	return this.dataWriteCount.sum();
+    }
+
+    /**
+     * This method returns number of island data saves that were merged with
+     * already queued changes.
+     *
+     * @return Number of coalesced island data saves.
+     */
+    public long getCoalescedSaveCount() {
+	return this.coalescedSaveCount.sum();
+    }
+
+    /**
+     * This method removes island data that is not used for longer than idle time
+     * from cache. Changed data is written before it is removed.
+     */
+    public void evictIdleIslandData() {
+	this.generatorDataCache.evictIdle();
+    }
+
+    /**
+     * This method returns if given island data must stay in cache. Spawn islands
+     * and islands with online members are never removed from cache.
+     *
+     * @param uniqueId Island unique id.
+     * @return true if island data must not be removed from cache.
+     */
+    private boolean isIslandDataPinned(@Nullable String uniqueId) {
+	if (uniqueId == null) {
+	    return false;
+	}
+
+	Integer count = this.onlineMemberCache.get(uniqueId);
+
+	if (count != null && count > 0) {
+	    return true;
+	}
+
+	return this.addon.getIslands().getIslandById(uniqueId).map(Island::isSpawn).orElse(false);
+    }
+
+    /**
+     * This method writes changed island data that is removed from cache. Until
+     * the write is done, data is kept aside, so it is not loaded outdated from
+     * database.
+     *
+     * @param uniqueId      Island unique id.
+     * @param generatorData Data that is removed from cache.
+     */
+    private void onIslandDataEvicted(@Nullable String uniqueId, GeneratorDataObject generatorData) {
+	this.resolvedTierCache.remove(uniqueId);
+	this.workingRangeCache.remove(uniqueId);
+	this.unlockStates.remove(uniqueId);
+	this.forgetIslandDataVersion(uniqueId);
+
+	boolean queued = this.removeQueuedGeneratorData(uniqueId) != null;
+
+	if (uniqueId != null && (queued || this.dataStamps.isModified(uniqueId))) {
+	    this.evictedDataWrites.put(uniqueId, generatorData);
+	    this.writeGeneratorData(generatorData)
+		    .whenComplete((success, error) -> this.evictedDataWrites.remove(uniqueId, generatorData));
+	}
+    }
+
+    /**
+     * This method returns evicted island data that is still being written back
+     * into cache.
+     *
+     * @param uniqueId Island unique id.
+     * @return GeneratorDataObject or null if island data is not being written.
+     */
+    private @Nullable GeneratorDataObject restoreEvictedData(@Nullable String uniqueId) {
+	GeneratorDataObject data = uniqueId == null ? null : this.evictedDataWrites.remove(uniqueId);
+
+	if (data != null) {
+	    this.generatorDataCache.put(uniqueId, data);
+	}
+
+	return data;
+    }
+
+    /**
+     * This method returns number of islands which data is in cache.
+     *
+     * @return Number of cached island data objects.
+     */
+    public int getCachedDataCount() {
+	return this.generatorDataCache.size();
+    }
+
+    /**
+     * This method returns number of island data lookups that found data in cache.
+     *
+     * @return Number of island data cache hits.
+     */
+    public long getDataCacheHitCount() {
+	return this.generatorDataCache.getHitCount();
+    }
+
+    /**
+     * This method returns number of island data lookups that did not find data in
+     * cache.
+     *
+     * @return Number of island data cache misses.
+     */
+    public long getDataCacheMissCount() {
+	return this.generatorDataCache.getMissCount();
+    }
+
+    /**
+     * This method returns number of island data objects removed from cache.
+     *
+     * @return Number of island data cache evictions.
+     */
+    public long getDataCacheEvictionCount() {
+	return this.generatorDataCache.getEvictionCount();
+    }
+
+    /**
+     * Save generator tiers, bundles and island data that are changed since their
+     * last successful write from cache into database
      * 
      * @return CompletableFuture<Boolean> to indicate if it is done
      */
     public CompletableFuture<Boolean> save() {
-	List<CompletableFuture<Boolean>> futures = this.generatorTierCache.values().stream()
-		.map(this::saveGeneratorTier).collect(Collectors.toList());
-	futures.addAll(this.generatorBundleCache.values().stream().map(this::saveGeneratorBundle)
-		.collect(Collectors.toList()));
-	futures.addAll(
-		this.generatorDataCache.values().stream().map(this::saveGeneratorData).collect(Collectors.toList()));
+	return this.save(false).thenApply(SaveResult::isSuccessful);
+    }
+
+    /**
+     * Save generator tiers, bundles and island data from cache into database.
+     *
+     * @param fullSave Indicates if all objects must be written, not only changed
+     *                 ones.
+     * @return CompletableFuture<SaveResult> with number of written objects and
+     *         time spent for each category.
+     */
+    public CompletableFuture<SaveResult> save(boolean fullSave) {
+	long start = System.nanoTime();
+	List<CompletableFuture<Boolean>> tierFutures = this.generatorTierCache.values().stream()
+		.filter(tier -> fullSave || this.tierStamps.isModified(tier.getUniqueId()))
+		.map(this::writeGeneratorTier).collect(Collectors.toList());
+	CompletableFuture<SaveResult.Category> tiers = this.saveCategory(tierFutures, start);
+
+	start = System.nanoTime();
+	List<CompletableFuture<Boolean>> bundleFutures = this.generatorBundleCache.values().stream()
+		.filter(bundle -> fullSave || this.bundleStamps.isModified(bundle.getUniqueId()))
+		.map(this::writeGeneratorBundle).collect(Collectors.toList());
+	CompletableFuture<SaveResult.Category> bundles = this.saveCategory(bundleFutures, start);
+
+	start = System.nanoTime();
+	List<GeneratorDataObject> changedData;
+
+	// Queue is cleared together with collecting changed data, so saves queued
+	// after that are kept for the next flush.
+	synchronized (this.dirtyGeneratorData) {
+	    changedData = this.generatorDataCache.values().stream()
+		    .filter(data -> fullSave || this.dataStamps.isModified(data.getUniqueId()))
+		    .collect(Collectors.toList());
+	    this.dirtyGeneratorData.clear();
+	}
+
+	List<CompletableFuture<Boolean>> dataFutures = changedData.stream().map(this::writeGeneratorData)
+		.collect(Collectors.toList());
+	CompletableFuture<SaveResult.Category> data = this.saveCategory(dataFutures, start);
+
+	return CompletableFuture.allOf(tiers, bundles, data)
+		.thenApply(v -> new SaveResult(tiers.join(), bundles.join(), data.join()));
+    }
 
-	return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v ->
-	// Return true if all futures completed successfully
-	futures.stream().allMatch(CompletableFuture::join));
+    /**
+     * This method collects results of writes for single object category.
+     *
+     * @param futures Writes of objects in category.
+     * @param start   Time when writes were started.
+     * @return CompletableFuture<SaveResult.Category> that completes when all
+     *         writes are done.
+     */
+    private CompletableFuture<SaveResult.Category> saveCategory(List<CompletableFuture<Boolean>> futures,
+	    long start) {
+	return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+		.thenApply(v -> new SaveResult.Category(futures.size(),
+			(int) futures.stream().filter(future -> !Boolean.TRUE.equals(future.join())).count(), System.nanoTime() - start));
     }
 
     /**
@@ -265,6 +799,7 @@ public class StoneGeneratorManager {
 	keySet.forEach(uniqueId -> {
 	    if (uniqueId.startsWith(objectKey)) {
 		this.generatorTierCache.remove(uniqueId);
+		this.tierStamps.remove(uniqueId);
 		this.generatorTierDatabase.deleteID(uniqueId);
 	    }
 	});
@@ -278,10 +813,12 @@ public class StoneGeneratorManager {
 	keySet.forEach(uniqueId -> {
 	    if (uniqueId.startsWith(objectKey)) {
 		this.generatorBundleCache.remove(uniqueId);
+		this.bundleStamps.remove(uniqueId);
 		this.generatorBundleDatabase.deleteID(uniqueId);
 	    }
 	});
 
+	this.invalidateResolvedTiers();
 	this.addon.log("All bundles for " + objectKey + " are removed!");
     }
 
@@ -301,6 +838,11 @@ public class StoneGeneratorManager {
 	keySet.forEach(uniqueId -> {
 	    if (uniqueId.startsWith(objectKey)) {
 		this.generatorDataCache.remove(uniqueId);
+		this.removeQueuedGeneratorData(uniqueId);
+		this.evictedDataWrites.remove(uniqueId);
+		this.dataStamps.remove(uniqueId);
+		this.invalidateResolvedTiers(uniqueId);
+		this.forgetIslandDataVersion(uniqueId);
 		this.generatorDataDatabase.deleteID(uniqueId);
 	    }
 	});
@@ -335,9 +877,10 @@ public class StoneGeneratorManager {
      * @param generatorTier generator tier that must be removed.
      */
     public void wipeGeneratorTier(GeneratorTierObject generatorTier) {
-	if (this.generatorTierCache.containsKey(generatorTier.getUniqueId())) {
-	    this.generatorTierCache.remove(generatorTier.getUniqueId());
+	if (this.generatorTierCache.remove(generatorTier.getUniqueId()) != null) {
+	    this.tierStamps.remove(generatorTier.getUniqueId());
 	    this.generatorTierDatabase.deleteID(generatorTier.getUniqueId());
+	    this.invalidateResolvedTiers();
 
 	    // remove generator tier from all bundles.
 	    this.generatorBundleCache.values().forEach(bundle -> {
@@ -356,7 +899,7 @@ public class StoneGeneratorManager {
      * @return GeneratorTierObject with given Id, or null.
      */
     public GeneratorTierObject getGeneratorByID(String generatorId) {
-	return this.generatorTierCache.get(generatorId);
+	return generatorId == null ? null : this.generatorTierCache.get(generatorId);
     }
 
     /**
@@ -379,22 +922,74 @@ public class StoneGeneratorManager {
 	    return this.findDefaultGeneratorTier(location.getWorld(), generatorType, biome);
 	}
 
-	this.addIslandData(island);
-	GeneratorDataObject data = this.generatorDataCache.get(island.getUniqueId());
+	// Resolved tiers are cached per island, generator type and biome. Cache is
+	// cleared when island data, generator tiers or bundles are changed.
+	Map<GeneratorTierObject.GeneratorType, Map<Biome, Optional<GeneratorTierObject>>> islandTiers = this.resolvedTierCache
+		.get(island.getUniqueId());
+	Map<Biome, Optional<GeneratorTierObject>> resolvedTiers = islandTiers == null ? null
+		: islandTiers.get(generatorType);
+	Optional<GeneratorTierObject> resolvedTier = resolvedTiers == null ? null : resolvedTiers.get(biome);
+
+	if (resolvedTier == null) {
+	    // Island data may be loaded or changed while tier is resolved, so result is
+	    // stored only if island data version is not changed in the meantime.
+	    final String islandId = island.getUniqueId();
+	    final long version = this.getIslandDataVersion(islandId);
+
+	    resolvedTier = Optional
+		    .ofNullable(this.resolveGeneratorTier(island, location.getWorld(), generatorType, biome));
+
+	    synchronized (this.getIslandLock(islandId)) {
+		if (this.getIslandDataVersion(islandId) == version) {
+		    this.resolvedTierCache.computeIfAbsent(islandId, id -> new ConcurrentHashMap<>())
+			    .computeIfAbsent(generatorType, type -> new ConcurrentHashMap<>()).put(biome, resolvedTier);
+		}
+	    }
+	}
+
+	if (this.isIslandDataLoading(island)) {
+	    // Generation falls back to default generator tier until island data is loaded.
+	    this.servedBeforeLoadCount.increment();
+	}
 
-	// TODO: It is necessary to reset user cache when import new generators are don.
-	// I changed implementation for faster work, so it gets challenges on island
-	// data loading,
-	// but it cache it inside island data. So when someone overwrites generators in
-	// database,
-	// but player data are not resetted, then all their generators are locally
-	// different then
-	// used in database.
+	return resolvedTier.orElse(null);
+    }
+
+    /**
+     * This method returns if island data is being loaded asynchronously, so
+     * generations on this island use default generator tier.
+     *
+     * @param island Island which data must be checked.
+     * @return {@code true} if island data is being loaded.
+     */
+    public boolean isIslandDataLoading(@NotNull Island island) {
+	return this.pendingDataLoads.contains(island.getUniqueId());
+    }
+
+    /**
+     * This method finds active generator tier for given island, generator type and
+     * biome. If island does not have any matching active generator, then default
+     * generator tier is returned.
+     *
+     * @param island        Island on which generation is happening.
+     * @param world         World where generation is happening.
+     * @param generatorType Generator type.
+     * @param biome         Biome of the block.
+     * @return GeneratorTierObject that operates in given island or null.
+     */
+    private @Nullable GeneratorTierObject resolveGeneratorTier(@NotNull Island island, World world,
+	    GeneratorTierObject.GeneratorType generatorType, Biome biome) {
+	GeneratorDataObject data = this.requestIslandData(island);
+
+	if (data == null) {
+	    // Island data is not loaded yet, use default generator tier.
+	    return this.findDefaultGeneratorTier(world, generatorType, biome);
+	}
 
 	// Find generator from active generator list.
 	Optional<GeneratorTierObject> optionalGenerator = data.getActiveGeneratorList().stream().
 	// Map generator id with proper generator object.
-		map(this.addon.getAddonManager()::getGeneratorByID).
+		map(this::getGeneratorByID).
 		// Remove generators that are apparently removed from database.
 		filter(Objects::nonNull).
 		// Filter out generators that are not deployed.
@@ -428,57 +1023,188 @@ public class StoneGeneratorManager {
 		    }
 		});
 
-	return optionalGenerator.orElse(this.findDefaultGeneratorTier(location.getWorld(), generatorType, biome));
+	return optionalGenerator.orElseGet(() -> this.findDefaultGeneratorTier(world, generatorType, biome));
     }
 
     /**
-     * This method iterates through all world generators from given type and tries
-     * to find if someone is set to be default. It finds first one.
+     * This method clears resolved generator tiers and working range for given
+     * island, and changes its data version. It must be called when island data is
+     * changed. Both happen under island lock, so resolved tiers that are stored
+     * under the same lock cannot outlive the version they were resolved for.
      *
-     * @param world         of type World
-     * @param generatorType of type GeneratorType
-     * @param biome         of the generator location.
-     * @return GeneratorTierObject generator tier object
+     * @param islandId Island unique id which resolved tiers must be cleared.
      */
-    private @Nullable GeneratorTierObject findDefaultGeneratorTier(World world,
-	    GeneratorTierObject.GeneratorType generatorType, Biome biome) {
+    private void invalidateResolvedTiers(@Nullable String islandId) {
+	if (islandId != null) {
+	    synchronized (this.getIslandLock(islandId)) {
+		this.resolvedTierCache.remove(islandId);
+		this.workingRangeCache.remove(islandId);
+		this.unlockStates.remove(islandId);
+		this.islandDataVersions.put(islandId, this.dataVersion.incrementAndGet());
+	    }
+	}
+    }
+
+    /**
+     * This method clears resolved generator tiers for all islands and generator
+     * tier views for all game modes. It must be called when generator tiers or
+     * bundles are changed.
+     */
+    private void invalidateResolvedTiers() {
+	this.resolvedTierCache.clear();
+	this.unlockStates.clear();
+
+	synchronized (this.gameModeTiers) {
+	    this.gameModeTierVersion++;
+	    this.gameModeTiers.clear();
+	}
+
+	// Tier names and properties are part of each island data snapshot.
+	this.tierDataVersion = this.dataVersion.incrementAndGet();
+    }
+
+    /**
+     * This method clears resolved generator tiers of islands and generator tier
+     * views only for given game modes. It must be called when generator tiers or
+     * bundles of these game modes are changed.
+     *
+     * @param gameModes Lower case names of game modes which objects are changed.
+     */
+    private void invalidateGameModeTiers(Set<String> gameModes) {
+	// Island unique ids start with game mode name.
+	Predicate<String> affected = islandId -> gameModes.stream().anyMatch(islandId.toLowerCase()::startsWith);
+
+	this.resolvedTierCache.keySet().removeIf(affected);
+	this.unlockStates.keySet().removeIf(affected);
+
+	synchronized (this.gameModeTiers) {
+	    this.gameModeTierVersion++;
+	    this.gameModeTiers.keySet().removeAll(gameModes);
+	}
+
+	// Tier names and properties are part of each island data snapshot.
+	this.tierDataVersion = this.dataVersion.incrementAndGet();
+    }
+
+    /**
+     * This method returns generator tier views for game mode that operates in given
+     * world. Views are built on first request after generator tiers or bundles are
+     * changed.
+     *
+     * @param world World which game mode views must be returned.
+     * @return GameModeTiers for given world. Views are empty if world is not a game
+     *         mode world.
+     */
+    private GameModeTiers getGameModeTiers(World world) {
 	String gameMode = this.addon.getPlugin().getIWM().getAddon(world)
 		.map(gameModeAddon -> gameModeAddon.getDescription().getName()).orElse("");
 
 	if (gameMode.isEmpty()) {
 	    // If not a gamemode world then return.
-	    return null;
+	    return GameModeTiers.EMPTY;
 	}
 
-	// Find default generator from cache.
-	// Filter all default generators
-	// Filter generators with necessary type.
-	// Filter generators that starts with name.
-	// Get a generator that has largest priority and has required biome
-	// Return return the generator tier with max value or null
-	return this.generatorTierCache.values().stream().filter(GeneratorTierObject::isDefaultGenerator)
-		.filter(generator -> generator.getGeneratorType().includes(generatorType))
-		.filter(generator -> generator.getUniqueId().startsWith(gameMode.toLowerCase()))
-		.filter(generator -> generator.getRequiredBiomes().isEmpty()
-			|| generator.getRequiredBiomes().contains(biome))
-		.max((o1, o2) -> {
-		    // If required biomes is empty, the it works in all biomes.
-		    boolean o1HasBiome = o1.getRequiredBiomes().isEmpty() || o1.getRequiredBiomes().contains(biome);
-		    boolean o2HasBiome = o2.getRequiredBiomes().isEmpty() || o2.getRequiredBiomes().contains(biome);
+	final String prefix = gameMode.toLowerCase();
+	GameModeTiers tiers = this.gameModeTiers.get(prefix);
 
-		    if (o1HasBiome != o2HasBiome) {
-			return Boolean.compare(o1HasBiome, o2HasBiome);
-		    } else if (o1.getPriority() != o2.getPriority()) {
-			// Larger priority must be in the end.
-			return Integer.compare(o1.getPriority(), o2.getPriority());
-		    } else if (o1.getGeneratorType() != o2.getGeneratorType()) {
-			// Compare by type. Generators which are more specified should be first.
-			return o1.getGeneratorType().compareTo(o2.getGeneratorType());
-		    } else {
-			// Compare by unique id.
-			return o1.getUniqueId().compareTo(o2.getUniqueId());
-		    }
-		}).orElse(null);
+	if (tiers == null) {
+	    long version;
+
+	    synchronized (this.gameModeTiers) {
+		version = this.gameModeTierVersion;
+	    }
+
+	    tiers = new GameModeTiers(
+		    this.generatorTierCache.values().stream()
+			    .filter(generator -> generator.getUniqueId().startsWith(prefix)).collect(Collectors.toList()),
+		    this.generatorBundleCache.values().stream()
+			    .filter(bundle -> bundle.getUniqueId().startsWith(prefix)).collect(Collectors.toList()),
+		    this.tierIds);
+
+	    synchronized (this.gameModeTiers) {
+		// Views built while tiers were changed are outdated and must not be stored.
+		if (version == this.gameModeTierVersion) {
+		    this.gameModeTiers.put(prefix, tiers);
+		}
+	    }
+	}
+
+	return tiers;
+    }
+
+    /**
+     * This method returns the latest data version. Data versions start from the
+     * server start time, so versions from previous server runs are older than
+     * versions from current run.
+     *
+     * @return The latest data version.
+     */
+    public long getDataVersion() {
+	return this.dataVersion.get();
+    }
+
+    /**
+     * This method returns data version of given island. Version is changed each
+     * time when island data or any generator tier or bundle is changed.
+     *
+     * @param islandId Island unique id.
+     * @return Data version of given island.
+     */
+    public long getIslandDataVersion(@Nullable String islandId) {
+	if (islandId == null) {
+	    return this.tierDataVersion;
+	}
+
+	Long version = this.islandDataVersions.get(islandId);
+
+	if (version == null) {
+	    // Island which version is forgotten may be changed up to forgotten version.
+	    return Math.max(this.tierDataVersion, this.forgottenDataVersion.get());
+	}
+
+	// Known version is newer than any forgotten version of the same island.
+	return Math.max(version, this.tierDataVersion);
+    }
+
+    /**
+     * This method removes data version of given island, so versions are kept only
+     * for cached islands. Island may be changed up to its removed version, so
+     * islands without known version are reported as changed up to the largest
+     * removed version.
+     *
+     * @param islandId Island unique id which version must be removed.
+     */
+    private void forgetIslandDataVersion(@Nullable String islandId) {
+	Long version = islandId == null ? null : this.islandDataVersions.remove(islandId);
+
+	if (version != null) {
+	    this.forgottenDataVersion.accumulateAndGet(version, Math::max);
+	}
+    }
+
+    /**
+     * This method returns version of generator tiers and bundles. Version is
+     * changed each time when any generator tier or bundle is changed, so objects
+     * that store tier names or properties can detect that they are outdated.
+     *
+     * @return Version of generator tiers and bundles.
+     */
+    public long getGeneratorTierVersion() {
+	return this.gameModeTierVersion;
+    }
+
+    /**
+     * This method finds default generator tier for given generator type and biome.
+     * Default tiers are precomputed for each game mode, so this is a table lookup.
+     *
+     * @param world         of type World
+     * @param generatorType of type GeneratorType
+     * @param biome         of the generator location.
+     * @return GeneratorTierObject generator tier object
+     */
+    private @Nullable GeneratorTierObject findDefaultGeneratorTier(World world,
+	    GeneratorTierObject.GeneratorType generatorType, Biome biome) {
+	return this.getGameModeTiers(world).getDefaultTier(generatorType, biome);
     }
 
     /**
@@ -488,27 +1214,8 @@ public class StoneGeneratorManager {
      * @return List of generator tier objects for given world.
      */
     public List<GeneratorTierObject> getAllGeneratorTiers(World world) {
-	String gameMode = this.addon.getPlugin().getIWM().getAddon(world)
-		.map(gameModeAddon -> gameModeAddon.getDescription().getName()).orElse("");
-
-	if (gameMode.isEmpty()) {
-	    // If not a gamemode world then return.
-	    return Collections.emptyList();
-	}
-
-	// Find default generator from cache.
-	return this.generatorTierCache.values().stream().
-	// Filter generators that starts with name.
-		filter(generator -> generator.getUniqueId().startsWith(gameMode.toLowerCase())).
-		// Sort in order: default generators are first, followed by lowest priority,
-		// generator type and then by generator name.
-		sorted(Comparator.comparing(GeneratorTierObject::isDefaultGenerator).reversed()
-			.thenComparing(GeneratorTierObject::getPriority)
-			.thenComparing(GeneratorTierObject::getGeneratorType)
-			.thenComparing(GeneratorTierObject::getFriendlyName))
-		.
-		// Return as list collection.
-		collect(Collectors.toList());
+	// Callers may change returned list, so a copy of sorted view is returned.
+	return new ArrayList<>(this.getGameModeTiers(world).sortedTiers);
     }
 
     /**
@@ -530,34 +1237,51 @@ public class StoneGeneratorManager {
      * @return List of generator tier objects for given world.
      */
     public List<GeneratorTierObject> getIslandGeneratorTiers(World world, @Nullable GeneratorDataObject islandData) {
-	// Optimization could be done by generating bundles for each situation, but
-	// currently I do not
-	// think it should be an actual problem here.
-	Stream<GeneratorTierObject> generatorTiers = this.getAllGeneratorTiers(world).stream()
-		.filter(GeneratorTierObject::isDeployed);
-
-	if (islandData != null) {
-	    // Owner bundle has larger priority then island bundle.
-	    if (islandData.getOwnerBundle() != null
-		    && this.generatorBundleCache.containsKey(islandData.getOwnerBundle())) {
-		GeneratorBundleObject bundle = this.generatorBundleCache.get(islandData.getOwnerBundle());
-
-		return generatorTiers
-			.filter(generatorTier -> bundle.getGeneratorTiers().contains(generatorTier.getUniqueId()))
-			.collect(Collectors.toList());
-	    } else if (islandData.getIslandBundle() != null
-		    && this.generatorBundleCache.containsKey(islandData.getIslandBundle())) {
-		GeneratorBundleObject bundle = this.generatorBundleCache.get(islandData.getIslandBundle());
-
-		return generatorTiers
-			.filter(generatorTier -> bundle.getGeneratorTiers().contains(generatorTier.getUniqueId()))
-			.collect(Collectors.toList());
-	    } else {
-		return generatorTiers.collect(Collectors.toList());
-	    }
-	} else {
-	    return generatorTiers.collect(Collectors.toList());
+	GameModeTiers tiers = this.getGameModeTiers(world);
+	return tiers.selectDeployed(this.getIslandBundleTiers(tiers, islandData));
+    }
+
+    /**
+     * This method returns generator tiers of island bundle as a bit set of interned
+     * tier ids.
+     *
+     * @param tiers      Generator tier views for island game mode.
+     * @param islandData IslandData which bundle must be returned.
+     * @return Bit set of bundle generator tiers, or null if island does not have a
+     *         bundle.
+     */
+    private @Nullable BitSet getIslandBundleTiers(GameModeTiers tiers, @Nullable GeneratorDataObject islandData) {
+	if (islandData == null) {
+	    return null;
+	}
+
+	// Owner bundle has larger priority then island bundle.
+	BitSet bundleTiers = this.getBundleTiers(tiers, islandData.getOwnerBundle());
+	return bundleTiers != null ? bundleTiers : this.getBundleTiers(tiers, islandData.getIslandBundle());
+    }
+
+    /**
+     * This method returns generator tiers of given bundle as a bit set of interned
+     * tier ids.
+     *
+     * @param tiers    Generator tier views for game mode.
+     * @param bundleId Bundle unique id.
+     * @return Bit set of bundle generator tiers, or null if bundle does not exist.
+     */
+    private @Nullable BitSet getBundleTiers(GameModeTiers tiers, @Nullable String bundleId) {
+	if (bundleId == null) {
+	    return null;
+	}
+
+	BitSet bundleTiers = tiers.bundleTiers.get(bundleId);
+
+	if (bundleTiers == null) {
+	    // Bundle from other game mode is not precomputed.
+	    GeneratorBundleObject bundle = this.getBundleById(bundleId);
+	    bundleTiers = bundle == null ? null : this.tierIds.toBits(bundle.getGeneratorTiers());
 	}
+
+	return bundleTiers;
     }
 
     /**
@@ -567,22 +1291,9 @@ public class StoneGeneratorManager {
      * @return List with default generators.
      */
     public List<GeneratorTierObject> findDefaultGeneratorList(World world) {
-	String gameMode = this.addon.getPlugin().getIWM().getAddon(world)
-		.map(gameModeAddon -> gameModeAddon.getDescription().getName()).orElse("");
-
-	if (gameMode.isEmpty()) {
-	    // If not a gamemode world then return.
-	    return Collections.emptyList();
-	}
-
-	// Find default generator from cache.
-	return this.generatorTierCache.values().stream().
-	// Filter generators that starts with name.
-		filter(generator -> generator.getUniqueId().startsWith(gameMode.toLowerCase())).
-		// Filter deployed and default generators.
-		filter(GeneratorTierObject::isDefaultGenerator).filter(GeneratorTierObject::isDeployed).
-		// Return as list collection.
-		collect(Collectors.toList());
+	// Filter deployed default generators.
+	return this.getGameModeTiers(world).defaultTiers.stream().filter(GeneratorTierObject::isDeployed)
+		.collect(Collectors.toList());
     }
 
     // ---------------------------------------------------------------------
@@ -596,21 +1307,8 @@ public class StoneGeneratorManager {
      * @return List of generator bundle objects for given world.
      */
     public List<GeneratorBundleObject> getAllGeneratorBundles(World world) {
-	String gameMode = this.addon.getPlugin().getIWM().getAddon(world)
-		.map(gameModeAddon -> gameModeAddon.getDescription().getName()).orElse("");
-
-	if (gameMode.isEmpty()) {
-	    // If not a gamemode world then return.
-	    return Collections.emptyList();
-	}
-
-	// Find default generator from cache.
-	return this.generatorBundleCache.values().stream().
-	// Filter generators that starts with name.
-		filter(generator -> generator.getUniqueId().startsWith(gameMode.toLowerCase())).
-		// Sort in order: default generators are first, followed by lowest priority,
-		// Return as list collection.
-		collect(Collectors.toList());
+	// Callers may change returned list, so a copy of view is returned.
+	return new ArrayList<>(this.getGameModeTiers(world).bundles);
     }
 
     /**
@@ -620,7 +1318,7 @@ public class StoneGeneratorManager {
      * @return the bundle by id
      */
     public GeneratorBundleObject getBundleById(String bundleId) {
-	return this.generatorBundleCache.get(bundleId);
+	return bundleId == null ? null : this.generatorBundleCache.get(bundleId);
     }
 
     /**
@@ -629,9 +1327,10 @@ public class StoneGeneratorManager {
      * @param bundleObject bundle tier that must be removed.
      */
     public void wipeBundle(GeneratorBundleObject bundleObject) {
-	if (this.generatorBundleCache.containsKey(bundleObject.getUniqueId())) {
-	    this.generatorBundleCache.remove(bundleObject.getUniqueId());
+	if (this.generatorBundleCache.remove(bundleObject.getUniqueId()) != null) {
+	    this.bundleStamps.remove(bundleObject.getUniqueId());
 	    this.generatorBundleDatabase.deleteID(bundleObject.getUniqueId());
+	    this.invalidateResolvedTiers();
 	}
     }
 
@@ -666,46 +1365,162 @@ public class StoneGeneratorManager {
     private void addIslandData(@NotNull Island island) {
 	final String uniqueID = island.getUniqueId();
 
-	if (this.generatorDataCache.containsKey(uniqueID)) {
-	    return;
+	synchronized (this.getIslandLock(uniqueID)) {
+	    if (this.generatorDataCache.containsKey(uniqueID) || this.restoreEvictedData(uniqueID) != null) {
+		return;
+	    }
+
+	    // The island is not in the cache
+	    // Check if the island exists in the database
+
+	    if (this.generatorDataDatabase.objectExists(uniqueID)) {
+		// Load player from database
+		GeneratorDataObject data = this.generatorDataDatabase.loadObject(uniqueID);
+		// Store in cache
+
+		if (data != null) {
+		    this.generatorDataCache.put(uniqueID, data);
+		} else {
+		    this.addon.logError("Could not load NULL generator data object.");
+		}
+	    } else {
+		// Create the island data and add to cache
+		this.generatorDataCache.put(uniqueID, this.createIslandData(island));
+	    }
+	}
+    }
+
+    /**
+     * This method returns lock for given island. Islands share a fixed number of
+     * locks, so changes of cached data for the same island never run at the same
+     * time, while different islands rarely wait for each other.
+     *
+     * @param islandId Island unique id.
+     * @return Lock object for given island.
+     */
+    private Object getIslandLock(@Nullable String islandId) {
+	return this.islandLocks[Math.floorMod(Objects.hashCode(islandId), this.islandLocks.length)];
+    }
+
+    /**
+     * This method creates and saves new generator data for given island.
+     *
+     * @param island Island which data must be created.
+     * @return New GeneratorDataObject for given island.
+     */
+    private GeneratorDataObject createIslandData(@NotNull Island island) {
+	GeneratorDataObject pd = new GeneratorDataObject();
+	pd.setUniqueId(island.getUniqueId());
+
+	// Update island data
+	pd.setIslandWorkingRange(this.addon.getSettings().getDefaultWorkingRange());
+	pd.setIslandActiveGeneratorCount(this.addon.getSettings().getDefaultActiveGeneratorCount());
+	pd.setIslandBundle(null);
+
+	// Update owner data.
+	if (!island.isSpawn()) {
+	    this.updateOwnerBundle(island, pd);
+	    this.updateOwnerGeneratorCount(island, pd);
+	    this.updateOwnerWorkingRange(island, pd);
+	}
+
+	// Save data.
+	this.saveGeneratorData(pd);
+
+	return pd;
+    }
+
+    /**
+     * This method returns cached island data or starts loading it
+     * asynchronously. Generation must not wait for the database, so null is
+     * returned until data is loaded. Multiple requests for the same island share
+     * a single load.
+     *
+     * @param island Island which data must be returned.
+     * @return GeneratorDataObject or null if it is not loaded yet.
+     */
+    private @Nullable GeneratorDataObject requestIslandData(@NotNull Island island) {
+	final String uniqueID = island.getUniqueId();
+	GeneratorDataObject data = this.generatorDataCache.get(uniqueID);
+
+	if (data == null) {
+	    data = this.restoreEvictedData(uniqueID);
+	}
+
+	if (data != null) {
+	    return data;
 	}
 
-	// The island is not in the cache
-	// Check if the island exists in the database
+	if (this.pendingDataLoads.add(uniqueID)) {
+	    this.asyncLoadCount.increment();
+
+	    Schedulers.runAsync(this.addon.getPlugin(), () -> {
+		try {
+		    boolean exists = this.generatorDataDatabase.objectExists(uniqueID);
+		    GeneratorDataObject loadedData = exists ? this.generatorDataDatabase.loadObject(uniqueID) : null;
+
+		    // Data is published on the main thread, or on global region on region threaded servers.
+		    Schedulers.runGlobal(this.addon.getPlugin(),
+			    () -> this.publishIslandData(island, exists, loadedData));
+		} catch (Exception e) {
+		    this.addon.logError("Could not load generator data for island " + uniqueID + ": " + e.getMessage());
+		    Schedulers.runGlobal(this.addon.getPlugin(), () -> this.pendingDataLoads.remove(uniqueID));
+		}
+	    });
+	}
 
-	if (this.generatorDataDatabase.objectExists(uniqueID)) {
-	    // Load player from database
-	    GeneratorDataObject data = this.generatorDataDatabase.loadObject(uniqueID);
-	    // Store in cache
+	return null;
+    }
 
-	    if (data != null) {
+    /**
+     * This method stores asynchronously loaded island data in cache. If island
+     * does not have data in database, then new data is created.
+     *
+     * @param island Island which data is loaded.
+     * @param exists Indicates if data exists in database.
+     * @param data   Loaded data.
+     */
+    private void publishIslandData(@NotNull Island island, boolean exists, @Nullable GeneratorDataObject data) {
+	final String uniqueID = island.getUniqueId();
+	this.pendingDataLoads.remove(uniqueID);
+
+	synchronized (this.getIslandLock(uniqueID)) {
+	    if (this.generatorDataCache.containsKey(uniqueID) || this.restoreEvictedData(uniqueID) != null) {
+		// Data was loaded synchronously or evicted data is still being written in the meantime.
+		return;
+	    }
+
+	    if (!exists) {
+		this.generatorDataCache.put(uniqueID, this.createIslandData(island));
+	    } else if (data != null) {
 		this.generatorDataCache.put(uniqueID, data);
 	    } else {
 		this.addon.logError("Could not load NULL generator data object.");
+		return;
 	    }
-	} else {
-	    // Create the island data
-	    GeneratorDataObject pd = new GeneratorDataObject();
-	    pd.setUniqueId(uniqueID);
-
-	    // Update island data
-	    pd.setIslandWorkingRange(this.addon.getSettings().getDefaultWorkingRange());
-	    pd.setIslandActiveGeneratorCount(this.addon.getSettings().getDefaultActiveGeneratorCount());
-	    pd.setIslandBundle(null);
-
-	    // Update owner data.
-	    if (!island.isSpawn()) {
-		this.updateOwnerBundle(island, pd);
-		this.updateOwnerGeneratorCount(island, pd);
-		this.updateOwnerWorkingRange(island, pd);
-	    }
+	}
 
-	    // Save data.
-	    this.saveGeneratorData(pd);
+	// Tiers that were resolved without data must be resolved again.
+	this.invalidateResolvedTiers(uniqueID);
+    }
 
-	    // Add to cache
-	    this.generatorDataCache.put(uniqueID, pd);
-	}
+    /**
+     * This method returns number of generations that used default generator tier
+     * because island data was not loaded yet.
+     *
+     * @return Number of generations served before island data was loaded.
+     */
+    public long getServedBeforeLoadCount() {
+	return this.servedBeforeLoadCount.sum();
+    }
+
+    /**
+     * This method returns number of started asynchronous island data loads.
+     *
+     * @return Number of asynchronous island data loads.
+     */
+    public long getAsyncLoadCount() {
+	return this.asyncLoadCount.sum();
     }
 
     /**
@@ -736,15 +1551,15 @@ public class StoneGeneratorManager {
 	this.checkGeneratorUnlockStatus(island, null, null);
 
 	// Remove Generators From Active Generator List:
-	dataObject.getActiveGeneratorList().removeIf(generator -> {
+	final BitSet unlockedTiers = dataObject.getUnlockedTierBits(this.tierIds);
+	final BitSet unlockableTiers = this.getGameModeTiers(island.getWorld()).unlockableTiers;
+
+	boolean changed = dataObject.removeActiveGenerators(generator -> {
+	    int tierId = this.tierIds.indexOf(generator);
 	    // if generator is not unlocked (by admin?) then remove from active list.
-	    return !dataObject.getUnlockedTiers().contains(generator) ||
 	    // if generator does not exist anymore, most likely after reimporting.
-		    this.getGeneratorByID(generator) == null ||
-	    // if generator is default then it should not be here
-		    this.getGeneratorByID(generator).isDefaultGenerator() ||
-	    // if generator is undeployed, remove from active list too.
-		    !this.getGeneratorByID(generator).isDeployed();
+	    // if generator is default or undeployed, then it should not be here.
+	    return tierId < 0 || !unlockedTiers.get(tierId) || !unlockableTiers.get(tierId);
 	});
 
 	if (dataObject.getActiveGeneratorCount() > 0
@@ -752,17 +1567,52 @@ public class StoneGeneratorManager {
 	    // There are more active generators then allowed.
 	    // Start to remove from first element.
 
-	    Iterator<String> activeGenerators = new ArrayList<>(dataObject.getActiveGeneratorList()).iterator();
+	    Iterator<String> activeGenerators = dataObject.getActiveGeneratorList().iterator();
 
 	    while (dataObject.getActiveGeneratorList().size() > dataObject.getActiveGeneratorCount()
 		    && activeGenerators.hasNext()) {
-		dataObject.getActiveGeneratorList().remove(activeGenerators.next());
+		changed |= dataObject.removeActiveGenerator(activeGenerators.next());
 	    }
 	}
 
+	if (changed) {
+	    // Active generator list is changed, so resolved tiers must be recalculated.
+	    this.invalidateResolvedTiers(island.getUniqueId());
+	}
+
 	return dataObject;
     }
 
+    /**
+     * This method returns remembered permissions of given player. Permissions are
+     * read again when they are older than refresh interval.
+     *
+     * @param player Online player which permissions must be returned.
+     * @return PermissionSnapshot of given player.
+     */
+    private PermissionSnapshot getPermissionSnapshot(@NotNull User player) {
+	long maxAge = TimeUnit.SECONDS.toMillis(this.addon.getSettings().getPermissionRefreshInterval());
+	PermissionSnapshot snapshot = this.permissionSnapshots.get(player.getUniqueId());
+
+	if (snapshot == null || maxAge <= 0 || snapshot.isOlderThan(maxAge)) {
+	    snapshot = PermissionSnapshot.of(player);
+	    this.permissionSnapshots.put(player.getUniqueId(), snapshot);
+	}
+
+	return snapshot;
+    }
+
+    /**
+     * This method forgets remembered permissions of given player, so they are read
+     * again on the next check. It must be called when player joins or leaves the
+     * server.
+     *
+     * @param playerUUID Player unique id.
+     */
+    public void invalidatePermissions(@NotNull UUID playerUUID) {
+	this.permissionSnapshots.remove(playerUUID);
+    }
+
     /**
      * This method updates owner working range for island.
      *
@@ -779,9 +1629,14 @@ public class StoneGeneratorManager {
 	    }
 
 	    // Update max island generation range.
-	    int permissionRange = Utils.getPermissionValue(owner,
+	    int permissionRange = this.getPermissionSnapshot(owner).getValue(
 		    Utils.getPermissionString(island.getWorld(), "[gamemode].stone-generator.max-range"), 0);
-	    dataObject.setOwnerWorkingRange(permissionRange);
+
+	    if (dataObject.getOwnerWorkingRange() != permissionRange) {
+		dataObject.setOwnerWorkingRange(permissionRange);
+		// Working range is part of island data version.
+		this.invalidateResolvedTiers(dataObject.getUniqueId());
+	    }
 	}
     }
 
@@ -801,9 +1656,14 @@ public class StoneGeneratorManager {
 	    }
 
 	    // Update max active generator count.
-	    int permissionSize = Utils.getPermissionValue(owner,
+	    int permissionSize = this.getPermissionSnapshot(owner).getValue(
 		    Utils.getPermissionString(island.getWorld(), "[gamemode].stone-generator.active-generators"), 0);
-	    dataObject.setOwnerActiveGeneratorCount(permissionSize);
+
+	    if (dataObject.getOwnerActiveGeneratorCount() != permissionSize) {
+		dataObject.setOwnerActiveGeneratorCount(permissionSize);
+		// Active generator count is part of island data version.
+		this.invalidateResolvedTiers(dataObject.getUniqueId());
+	    }
 	}
     }
 
@@ -823,14 +1683,23 @@ public class StoneGeneratorManager {
 	    }
 
 	    // Update max island generation range.
-	    String permissionBundle = Utils.getPermissionValue(owner,
+	    String permissionBundle = this.getPermissionSnapshot(owner).getValue(
 		    Utils.getPermissionString(island.getWorld(), "[gamemode].stone-generator.bundle"), null);
-	    dataObject.setOwnerBundle(permissionBundle);
+
+	    if (!Objects.equals(dataObject.getOwnerBundle(), permissionBundle)) {
+		dataObject.setOwnerBundle(permissionBundle);
+		// Bundle is part of island data version.
+		this.invalidateResolvedTiers(dataObject.getUniqueId());
+	    }
 	}
     }
 
     /**
-     * This method checks for all generators, if they are unlocked.
+     * This method checks for all generators, if they are unlocked. Level of each
+     * check is remembered, so the next check with larger level examines only
+     * generators which required level is between both levels, together with
+     * generators that require permissions. Everything is checked again when island
+     * data, its bundle or generator tiers are changed, or when level decreases.
      *
      * @param island Island which is targeted for unlocking check.
      * @param user   User who triggered check.
@@ -856,17 +1725,60 @@ public class StoneGeneratorManager {
 	// If level is null, check value from addon.
 	final long islandLevel = level == null ? this.getIslandLevel(island) : level;
 	final User owner = island.isSpawn() ? null : User.getInstance(island.getOwner());
-	this.getIslandGeneratorTiers(island.getWorld(), dataObject).stream().
-	// Filter out default generators. They are always unlocked and active.
-		filter(generator -> !generator.isDefaultGenerator()).
-		// Filter out unlocked generators. Not necessary to check them again
-		filter(generator -> !dataObject.getUnlockedTiers().contains(generator.getUniqueId())).
-		// Filter out generators with larger minimal island level then current island
-		// level.
+
+	// Island generators that can be unlocked. Default generators are always
+	// unlocked and active, and unlocked generators are not necessary to check again.
+	GameModeTiers tiers = this.getGameModeTiers(island.getWorld());
+	BitSet lockedTiers = (BitSet) tiers.unlockableTiers.clone();
+	BitSet bundleTiers = this.getIslandBundleTiers(tiers, dataObject);
+
+	if (bundleTiers != null) {
+	    lockedTiers.and(bundleTiers);
+	}
+
+	lockedTiers.andNot(dataObject.getUnlockedTierBits(this.tierIds));
+
+	// Generators up to previously checked level are already examined, except
+	// permission gated generators, as permissions can change at any time.
+	UnlockState state = this.unlockStates.get(island.getUniqueId());
+	long checkedLevel = state != null && state.tiers == tiers && state.bundleTiers == bundleTiers
+		&& state.level <= islandLevel ? state.level : Long.MIN_VALUE;
+
+	if (checkedLevel != Long.MIN_VALUE) {
+	    BitSet candidateTiers = tiers.getTiersInLevelRange(checkedLevel, islandLevel);
+	    candidateTiers.or(tiers.permissionTiers);
+	    lockedTiers.and(candidateTiers);
+	}
+
+	if (!lockedTiers.isEmpty()) {
+	    this.unlockGenerators(island, dataObject, user, owner, tiers.selectDeployed(lockedTiers), islandLevel);
+	}
+
+	// Unlocking saves island data, which clears remembered state, so it is stored
+	// after generators are unlocked.
+	this.unlockStates.put(island.getUniqueId(), new UnlockState(tiers, bundleTiers, islandLevel));
+    }
+
+    /**
+     * This method unlocks given generators if island meets their level and
+     * permission requirements.
+     *
+     * @param island      Island which generators are unlocked.
+     * @param dataObject  Island data object.
+     * @param user        User who triggered check.
+     * @param owner       Island owner, or null for spawn island.
+     * @param generators  Generators that are not unlocked yet.
+     * @param islandLevel Island level.
+     */
+    private void unlockGenerators(Island island, GeneratorDataObject dataObject, @Nullable User user,
+	    @Nullable User owner, List<GeneratorTierObject> generators, long islandLevel) {
+	generators.stream().
+	// Filter out generators with larger minimal island level then current island
+	// level.
 		filter(generator -> generator.getRequiredMinIslandLevel() <= islandLevel).
 		// Filter out generators with missing permissions
 		filter(generator -> generator.getRequiredPermissions().isEmpty() || owner != null && owner.isOnline()
-			&& Utils.matchAllPermissions(owner, generator.getRequiredPermissions()))
+			&& this.getPermissionSnapshot(owner).hasAllPermissions(generator.getRequiredPermissions()))
 		.
 		// Now process each generator.
 		forEach(generator -> this.unlockGenerator(dataObject, user, island, generator));
@@ -887,6 +1799,37 @@ public class StoneGeneratorManager {
 	return this.generatorDataCache.get(island.getUniqueId());
     }
 
+    /**
+     * This method returns generator working range for given island. Range is
+     * cached until island data is changed. Generation must not wait for the
+     * database, so default working range is returned until island data is loaded.
+     *
+     * @param island Island which working range must be returned.
+     * @return Working range of island generators or null if island is not given.
+     */
+    public @Nullable Integer getWorkingRange(@Nullable Island island) {
+	if (island == null) {
+	    return null;
+	}
+
+	Integer range = this.workingRangeCache.get(island.getUniqueId());
+
+	if (range == null) {
+	    GeneratorDataObject data = this.requestIslandData(island);
+
+	    if (data == null) {
+		// Island data is not loaded yet. Default range is not cached, so island
+		// range is used as soon as data is loaded.
+		return this.addon.getSettings().getDefaultWorkingRange();
+	    }
+
+	    range = data.getRange();
+	    this.workingRangeCache.put(island.getUniqueId(), range);
+	}
+
+	return range;
+    }
+
     /**
      * This method allows to get generator data for given user.
      *
@@ -933,7 +1876,8 @@ public class StoneGeneratorManager {
 
 	if (!event.isCancelled()) {
 	    // Add to unlocked generator set.
-	    dataObject.getUnlockedTiers().add(generator.getUniqueId());
+	    dataObject.addUnlockedTier(generator.getUniqueId());
+	    this.invalidateResolvedTiers(island.getUniqueId());
 	    // save data.
 	    this.saveGeneratorData(dataObject);
 
@@ -980,7 +1924,8 @@ public class StoneGeneratorManager {
 	if (!event.isCancelled()) {
 	    Utils.sendMessage(user, user.getTranslation(Constants.MESSAGES + "generator-deactivated",
 		    Constants.GENERATOR, generatorTier.getFriendlyName()));
-	    generatorData.getActiveGeneratorList().remove(generatorTier.getUniqueId());
+	    generatorData.removeActiveGenerator(generatorTier.getUniqueId());
+	    this.invalidateResolvedTiers(generatorData.getUniqueId());
 
 	    // Save object.
 	    this.saveGeneratorData(generatorData);
@@ -1093,7 +2038,8 @@ public class StoneGeneratorManager {
 		if (!event.isCancelled()) {
 		    Utils.sendMessage(user, user.getTranslation(Constants.MESSAGES + "generator-activated",
 			    Constants.GENERATOR, generatorTier.getFriendlyName()));
-		    generatorData.getActiveGeneratorList().add(generatorTier.getUniqueId());
+		    generatorData.addActiveGenerator(generatorTier.getUniqueId());
+		    this.invalidateResolvedTiers(generatorData.getUniqueId());
 
 		    // check and send message that generator is disabled
 		    if (!island.isAllowed(StoneGeneratorAddon.MAGIC_COBBLESTONE_GENERATOR)) {
@@ -1238,7 +2184,7 @@ public class StoneGeneratorManager {
 
 		Utils.sendMessage(user, user.getTranslation(Constants.MESSAGES + "generator-purchased",
 			Constants.GENERATOR, generatorTier.getFriendlyName()));
-		generatorData.getPurchasedTiers().add(generatorTier.getUniqueId());
+		generatorData.addPurchasedTier(generatorTier.getUniqueId());
 
 		// Save object.
 		this.saveGeneratorData(generatorData);
@@ -1293,7 +2239,19 @@ public class StoneGeneratorManager {
      * @param uniqueId Object that must be removed.
      */
     public void wipeGeneratorData(String uniqueId) {
-	this.generatorDataCache.remove(uniqueId);
+	synchronized (this.getIslandLock(uniqueId)) {
+	    this.generatorDataCache.remove(uniqueId);
+	    this.evictedDataWrites.remove(uniqueId);
+	}
+
+	this.removeQueuedGeneratorData(uniqueId);
+	this.dataStamps.remove(uniqueId);
+	this.invalidateResolvedTiers(uniqueId);
+	this.forgetIslandDataVersion(uniqueId);
+
+	if (uniqueId != null) {
+	    this.onlineMemberCache.remove(uniqueId);
+	}
 	this.generatorDataDatabase.deleteID(uniqueId);
     }
 
@@ -1335,15 +2293,58 @@ public class StoneGeneratorManager {
 
 	Optional<Island> optionalIsland = this.addon.getIslands().getIslandAt(location);
 
-	if (optionalIsland.isPresent()) {
-	    for (UUID member : optionalIsland.get().getMemberSet()) {
-		if (User.getInstance(member).isOnline()) {
-		    return true;
-		}
+	return optionalIsland.isPresent() && this.hasOnlineMembers(optionalIsland.get());
+    }
+
+    /**
+     * This method returns true if at least one member of given island is online.
+     * Number of online members is cached and updated from join, quit and team
+     * events, so members are iterated only when island is checked first time.
+     *
+     * @param island Island that must be checked.
+     * @return true if at least one member is online.
+     */
+    public boolean hasOnlineMembers(@NotNull Island island) {
+	Integer count = this.onlineMemberCache.get(island.getUniqueId());
+
+	if (count == null) {
+	    count = this.updateOnlineMembers(island, null);
+	}
+
+	return count > 0;
+    }
+
+    /**
+     * This method recounts online members of given island.
+     *
+     * @param island        Island which members must be counted.
+     * @param leavingPlayer Player who is leaving the server and must not be
+     *                      counted, as it is still online during quit event.
+     * @return Number of online members.
+     */
+    public int updateOnlineMembers(@NotNull Island island, @Nullable UUID leavingPlayer) {
+	int count = 0;
+
+	for (UUID member : island.getMemberSet()) {
+	    if (!member.equals(leavingPlayer) && User.getInstance(member).isOnline()) {
+		count++;
 	    }
 	}
 
-	return false;
+	this.onlineMemberCache.put(island.getUniqueId(), count);
+	return count;
+    }
+
+    /**
+     * This method recounts online members of every island where given player is
+     * a member.
+     *
+     * @param playerUUID Player who joined or left the server.
+     * @param quit       true if player is leaving the server.
+     */
+    public void updateOnlineMembers(@NotNull UUID playerUUID, boolean quit) {
+	this.operationWorlds.stream().flatMap(world -> this.addon.getIslands().getIslands(world, playerUUID).stream())
+		.distinct().forEach(island -> this.updateOnlineMembers(island, quit ? playerUUID : null));
     }
 
     /**
@@ -1376,10 +2377,649 @@ public class StoneGeneratorManager {
 	return this.addon.getLevelAddon().getIslandLevel(user.getWorld(), user.getUniqueId());
     }
 
+    // ---------------------------------------------------------------------
+    // Section: Classes
+    // ---------------------------------------------------------------------
+
+    /**
+     * This class holds result of saving generator tiers, bundles and island data.
+     */
+    public static class SaveResult {
+	/**
+	 * Creates save result.
+	 *
+	 * @param tiers   Result of generator tier writes.
+	 * @param bundles Result of generator bundle writes.
+	 * @param data    Result of island data writes.
+	 */
+	private SaveResult(Category tiers, Category bundles, Category data) {
+	    this.tiers = tiers;
+	    this.bundles = bundles;
+	    this.data = data;
+	}
+
+	/**
+	 * @return result of generator tier writes.
+	 */
+	public Category getTiers() {
+	    return this.tiers;
+	}
+
+	/**
+	 * @return result of generator bundle writes.
+	 */
+	public Category getBundles() {
+	    return this.bundles;
+	}
+
+	/**
+	 * @return result of island data writes.
+	 */
+	public Category getData() {
+	    return this.data;
+	}
+
+	/**
+	 * @return {@code true} if all writes succeeded.
+	 */
+	public boolean isSuccessful() {
+	    return this.tiers.getFailed() == 0 && this.bundles.getFailed() == 0 && this.data.getFailed() == 0;
+	}
+
+	/**
+	 * Result of generator tier writes.
+	 */
+	private final Category tiers;
+
+	/**
+	 * Result of generator bundle writes.
+	 */
+	private final Category bundles;
+
+	/**
+	 * Result of island data writes.
+	 */
+	private final Category data;
+
+	/**
+	 * This class holds result of writes for single object category.
+	 */
+	public static class Category {
+	    /**
+	     * Creates category result.
+	     *
+	     * @param written Number of written objects.
+	     * @param failed  Number of objects that failed to be written.
+	     * @param time    Time in nanoseconds until all writes were done.
+	     */
+	    private Category(int written, int failed, long time) {
+		this.written = written;
+		this.failed = failed;
+		this.time = time;
+	    }
+
+	    /**
+	     * @return number of written objects.
+	     */
+	    public int getWritten() {
+		return this.written;
+	    }
+
+	    /**
+	     * @return number of objects that failed to be written.
+	     */
+	    public int getFailed() {
+		return this.failed;
+	    }
+
+	    /**
+	     * @return time in milliseconds until all writes were done.
+	     */
+	    public long getTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.time);
+	    }
+
+	    /**
+	     * Number of written objects.
+	     */
+	    private final int written;
+
+	    /**
+	     * Number of objects that failed to be written.
+	     */
+	    private final int failed;
+
+	    /**
+	     * Time in nanoseconds until all writes were done.
+	     */
+	    private final long time;
+	}
+    }
+
+    /**
+     * This class holds result of reloading generator tiers and bundles.
+     */
+    public static class ReloadResult {
+	/**
+	 * Creates reload result.
+	 *
+	 * @param tiers     Changes of generator tiers.
+	 * @param bundles   Changes of generator bundles.
+	 * @param gameModes Lower case names of affected game modes.
+	 */
+	private ReloadResult(Changes tiers, Changes bundles, Set<String> gameModes) {
+	    this.tiers = tiers;
+	    this.bundles = bundles;
+	    this.gameModes = Set.copyOf(gameModes);
+	}
+
+	/**
+	 * @return changes of generator tiers.
+	 */
+	public Changes getTiers() {
+	    return this.tiers;
+	}
+
+	/**
+	 * @return changes of generator bundles.
+	 */
+	public Changes getBundles() {
+	    return this.bundles;
+	}
+
+	/**
+	 * @return lower case names of game modes which islands resolve generator tiers
+	 *         again.
+	 */
+	public Set<String> getGameModes() {
+	    return this.gameModes;
+	}
+
+	/**
+	 * @return {@code true} if any generator tier or bundle is changed.
+	 */
+	public boolean isChanged() {
+	    return !this.tiers.getChangedIds().isEmpty() || !this.bundles.getChangedIds().isEmpty();
+	}
+
+	/**
+	 * Changes of generator tiers.
+	 */
+	private final Changes tiers;
+
+	/**
+	 * Changes of generator bundles.
+	 */
+	private final Changes bundles;
+
+	/**
+	 * Lower case names of affected game modes.
+	 */
+	private final Set<String> gameModes;
+
+	/**
+	 * This class holds changes for single object category.
+	 */
+	public static class Changes {
+	    /**
+	     * Creates category changes.
+	     *
+	     * @param added     Ids of added objects.
+	     * @param changed   Ids of changed objects.
+	     * @param removed   Ids of removed objects.
+	     * @param unchanged Number of unchanged objects.
+	     */
+	    private Changes(List<String> added, List<String> changed, List<String> removed, int unchanged) {
+		this.added = List.copyOf(added);
+		this.changed = List.copyOf(changed);
+		this.removed = List.copyOf(removed);
+		this.unchanged = unchanged;
+	    }
+
+	    /**
+	     * @return ids of added objects.
+	     */
+	    public List<String> getAdded() {
+		return this.added;
+	    }
+
+	    /**
+	     * @return ids of changed objects.
+	     */
+	    public List<String> getChanged() {
+		return this.changed;
+	    }
+
+	    /**
+	     * @return ids of removed objects.
+	     */
+	    public List<String> getRemoved() {
+		return this.removed;
+	    }
+
+	    /**
+	     * @return number of unchanged objects.
+	     */
+	    public int getUnchanged() {
+		return this.unchanged;
+	    }
+
+	    /**
+	     * @return ids of added, changed and removed objects.
+	     */
+	    public List<String> getChangedIds() {
+		List<String> ids = new ArrayList<>(this.added);
+		ids.addAll(this.changed);
+		ids.addAll(this.removed);
+		return ids;
+	    }
+
+	    @Override
+	    public String toString() {
+		return this.added.size() + " added, " + this.changed.size() + " changed, " + this.removed.size()
+			+ " removed, " + this.unchanged + " unchanged";
+	    }
+
+	    /**
+	     * Ids of added objects.
+	     */
+	    private final List<String> added;
+
+	    /**
+	     * Ids of changed objects.
+	     */
+	    private final List<String> changed;
+
+	    /**
+	     * Ids of removed objects.
+	     */
+	    private final List<String> removed;
+
+	    /**
+	     * Number of unchanged objects.
+	     */
+	    private final int unchanged;
+	}
+    }
+
+    /**
+     * This class stores precomputed generator tier and bundle views for single game
+     * mode. Views are immutable and are replaced when generator tiers or bundles
+     * are changed, so they can be read from any thread.
+     */
+    private static class GameModeTiers {
+	/**
+	 * Views for worlds that are not game mode worlds.
+	 */
+	private static final GameModeTiers EMPTY = new GameModeTiers(Collections.emptyList(),
+		Collections.emptyList(), new IdInterner());
+
+	/**
+	 * Builds views from game mode generator tiers and bundles.
+	 *
+	 * @param generatorTiers Generator tiers of game mode.
+	 * @param bundles        Generator bundles of game mode.
+	 * @param tierIds        Interner of generator tier ids.
+	 */
+	private GameModeTiers(List<GeneratorTierObject> generatorTiers, List<GeneratorBundleObject> bundles,
+		IdInterner tierIds) {
+	    // Sort in order: default generators are first, followed by lowest priority,
+	    // generator type and then by generator name.
+	    this.sortedTiers = generatorTiers.stream()
+		    .sorted(Comparator.comparing(GeneratorTierObject::isDefaultGenerator).reversed()
+			    .thenComparing(GeneratorTierObject::getPriority)
+			    .thenComparing(GeneratorTierObject::getGeneratorType)
+			    .thenComparing(GeneratorTierObject::getFriendlyName))
+		    .collect(Collectors.toUnmodifiableList());
+	    this.defaultTiers = this.sortedTiers.stream().filter(GeneratorTierObject::isDefaultGenerator)
+		    .collect(Collectors.toUnmodifiableList());
+	    this.deployedTiers = this.sortedTiers.stream().filter(GeneratorTierObject::isDeployed)
+		    .collect(Collectors.toUnmodifiableList());
+	    this.bundles = List.copyOf(bundles);
+
+	    // Interned ids of deployed tiers, in the same order as deployed tiers.
+	    this.deployedTierIds = new int[this.deployedTiers.size()];
+	    this.unlockableTiers = new BitSet();
+
+	    for (int i = 0; i < this.deployedTierIds.length; i++) {
+		GeneratorTierObject generator = this.deployedTiers.get(i);
+		this.deployedTierIds[i] = tierIds.intern(generator.getUniqueId());
+
+		if (!generator.isDefaultGenerator()) {
+		    this.unlockableTiers.set(this.deployedTierIds[i]);
+		}
+	    }
+
+	    // Unlockable tiers sorted by required island level.
+	    List<GeneratorTierObject> levelTiers = this.deployedTiers.stream()
+		    .filter(generator -> !generator.isDefaultGenerator())
+		    .sorted(Comparator.comparingLong(GeneratorTierObject::getRequiredMinIslandLevel))
+		    .collect(Collectors.toList());
+	    this.unlockLevels = new long[levelTiers.size()];
+	    this.unlockLevelTierIds = new int[levelTiers.size()];
+	    this.permissionTiers = new BitSet();
+
+	    for (int i = 0; i < this.unlockLevels.length; i++) {
+		GeneratorTierObject generator = levelTiers.get(i);
+		this.unlockLevels[i] = generator.getRequiredMinIslandLevel();
+		this.unlockLevelTierIds[i] = tierIds.intern(generator.getUniqueId());
+
+		if (!generator.getRequiredPermissions().isEmpty()) {
+		    this.permissionTiers.set(this.unlockLevelTierIds[i]);
+		}
+	    }
+
+	    Map<String, BitSet> bundleTiers = new HashMap<>();
+	    this.bundles.forEach(
+		    bundle -> bundleTiers.put(bundle.getUniqueId(), tierIds.toBits(bundle.getGeneratorTiers())));
+	    this.bundleTiers = Map.copyOf(bundleTiers);
+
+	    // Default tier table. Biomes that are not required by any default tier use
+	    // the same row, as only tiers without required biomes work there.
+	    GeneratorTierObject.GeneratorType[] types = GeneratorTierObject.GeneratorType.values();
+	    this.anyBiomeDefaults = new GeneratorTierObject[types.length];
+	    Map<Biome, GeneratorTierObject[]> biomeDefaults = new HashMap<>();
+
+	    this.defaultTiers.forEach(generator -> generator.getRequiredBiomes()
+		    .forEach(biome -> biomeDefaults.computeIfAbsent(biome, key -> new GeneratorTierObject[types.length])));
+
+	    for (GeneratorTierObject generator : this.defaultTiers) {
+		if (generator.getGeneratorType() == null) {
+		    continue;
+		}
+
+		for (GeneratorTierObject.GeneratorType type : types) {
+		    if (!generator.getGeneratorType().includes(type)) {
+			continue;
+		    }
+
+		    final int index = type.ordinal();
+
+		    if (generator.getRequiredBiomes().isEmpty()) {
+			// Generator works in all biomes.
+			this.anyBiomeDefaults[index] = pickDefault(this.anyBiomeDefaults[index], generator);
+			biomeDefaults.values().forEach(row -> row[index] = pickDefault(row[index], generator));
+		    } else {
+			generator.getRequiredBiomes().forEach(biome -> {
+			    GeneratorTierObject[] row = biomeDefaults.get(biome);
+			    row[index] = pickDefault(row[index], generator);
+			});
+		    }
+		}
+	    }
+
+	    this.biomeDefaults = Map.copyOf(biomeDefaults);
+	}
+
+	/**
+	 * This method returns unlockable generator tiers which required island level
+	 * is larger than lower level and not larger than upper level.
+	 *
+	 * @param fromLevel Lower level, exclusive.
+	 * @param toLevel   Upper level, inclusive.
+	 * @return New bit set of interned tier ids.
+	 */
+	private BitSet getTiersInLevelRange(long fromLevel, long toLevel) {
+	    // Find first tier with larger level than lower level.
+	    int low = 0;
+	    int high = this.unlockLevels.length;
+
+	    while (low < high) {
+		int middle = (low + high) >>> 1;
+
+		if (this.unlockLevels[middle] <= fromLevel) {
+		    low = middle + 1;
+		} else {
+		    high = middle;
+		}
+	    }
+
+	    BitSet generatorTiers = new BitSet();
+
+	    for (int i = low; i < this.unlockLevels.length && this.unlockLevels[i] <= toLevel; i++) {
+		generatorTiers.set(this.unlockLevelTierIds[i]);
+	    }
+
+	    return generatorTiers;
+	}
+
+	/**
+	 * This method returns deployed generator tiers which interned ids are in given
+	 * bit set, in display order.
+	 *
+	 * @param filter Bit set of interned tier ids, or null to return all deployed
+	 *               tiers.
+	 * @return List of deployed generator tiers.
+	 */
+	private List<GeneratorTierObject> selectDeployed(@Nullable BitSet filter) {
+	    List<GeneratorTierObject> generatorTiers = new ArrayList<>(filter == null ? this.deployedTierIds.length
+		    : Math.min(filter.cardinality(), this.deployedTierIds.length));
+
+	    for (int i = 0; i < this.deployedTierIds.length; i++) {
+		if (filter == null || filter.get(this.deployedTierIds[i])) {
+		    generatorTiers.add(this.deployedTiers.get(i));
+		}
+	    }
+
+	    return generatorTiers;
+	}
+
+	/**
+	 * This method returns default generator tier for given generator type and
+	 * biome.
+	 *
+	 * @param generatorType Generator type.
+	 * @param biome         Biome of the block.
+	 * @return Default GeneratorTierObject or null if no default tier works there.
+	 */
+	private @Nullable GeneratorTierObject getDefaultTier(GeneratorTierObject.GeneratorType generatorType,
+		@Nullable Biome biome) {
+	    GeneratorTierObject[] row = biome == null ? null : this.biomeDefaults.get(biome);
+	    return (row == null ? this.anyBiomeDefaults : row)[generatorType.ordinal()];
+	}
+
+	/**
+	 * This method returns default generator tier that wins: the one with largest
+	 * priority, then more general generator type and then larger unique id.
+	 *
+	 * @param current   Current winner, can be null.
+	 * @param candidate Candidate generator tier.
+	 * @return Generator tier that wins.
+	 */
+	private static GeneratorTierObject pickDefault(@Nullable GeneratorTierObject current,
+		GeneratorTierObject candidate) {
+	    if (current == null) {
+		return candidate;
+	    } else if (current.getPriority() != candidate.getPriority()) {
+		return candidate.getPriority() > current.getPriority() ? candidate : current;
+	    } else if (current.getGeneratorType() != candidate.getGeneratorType()) {
+		return candidate.getGeneratorType().compareTo(current.getGeneratorType()) > 0 ? candidate : current;
+	    } else {
+		return candidate.getUniqueId().compareTo(current.getUniqueId()) > 0 ? candidate : current;
+	    }
+	}
+
+	/**
+	 * All generator tiers in display order.
+	 */
+	private final List<GeneratorTierObject> sortedTiers;
+
+	/**
+	 * Default generator tiers in display order.
+	 */
+	private final List<GeneratorTierObject> defaultTiers;
+
+	/**
+	 * Deployed generator tiers in display order.
+	 */
+	private final List<GeneratorTierObject> deployedTiers;
+
+	/**
+	 * All generator bundles.
+	 */
+	private final List<GeneratorBundleObject> bundles;
+
+	/**
+	 * Interned ids of deployed generator tiers, in the same order as deployed
+	 * tiers.
+	 */
+	private final int[] deployedTierIds;
+
+	/**
+	 * Interned ids of deployed generator tiers that are not default, so they can
+	 * be unlocked and activated.
+	 */
+	private final BitSet unlockableTiers;
+
+	/**
+	 * Interned ids of generator tiers for each bundle.
+	 */
+	private final Map<String, BitSet> bundleTiers;
+
+	/**
+	 * Required island level of unlockable generator tiers, in ascending order.
+	 */
+	private final long[] unlockLevels;
+
+	/**
+	 * Interned ids of unlockable generator tiers, in the same order as required
+	 * island levels.
+	 */
+	private final int[] unlockLevelTierIds;
+
+	/**
+	 * Interned ids of unlockable generator tiers that require permissions.
+	 */
+	private final BitSet permissionTiers;
+
+	/**
+	 * Default generator tier for each generator type in biomes that are not
+	 * required by any default tier. Indexed by generator type ordinal.
+	 */
+	private final GeneratorTierObject[] anyBiomeDefaults;
+
+	/**
+	 * Default generator tier for each generator type in biomes that are required
+	 * by some default tier. Arrays are indexed by generator type ordinal.
+	 */
+	private final Map<Biome, GeneratorTierObject[]> biomeDefaults;
+    }
+
+    /**
+     * This class stores state of the last generator unlock check for island.
+     */
+    private static class UnlockState {
+	/**
+	 * Creates unlock check state.
+	 *
+	 * @param tiers       Generator tier views that were checked.
+	 * @param bundleTiers Bundle generator tiers that were checked, or null.
+	 * @param level       Island level that was checked.
+	 */
+	private UnlockState(GameModeTiers tiers, @Nullable BitSet bundleTiers, long level) {
+	    this.tiers = tiers;
+	    this.bundleTiers = bundleTiers;
+	    this.level = level;
+	}
+
+	/**
+	 * Generator tier views that were checked.
+	 */
+	private final GameModeTiers tiers;
+
+	/**
+	 * Bundle generator tiers that were checked, or null.
+	 */
+	private final @Nullable BitSet bundleTiers;
+
+	/**
+	 * Island level that was checked.
+	 */
+	private final long level;
+    }
+
+    /**
+     * This class stores version stamps of changed objects. Each change gets a new
+     * version, and object stays changed until write of its latest version
+     * succeeds. Writes are completed on database threads, so access is
+     * synchronized.
+     */
+    private static class VersionStamps {
+	/**
+	 * This method marks object as changed.
+	 *
+	 * @param uniqueId Object unique id.
+	 */
+	private synchronized void markModified(String uniqueId) {
+	    this.versions.put(uniqueId, ++this.counter);
+	}
+
+	/**
+	 * This method returns current version of object.
+	 *
+	 * @param uniqueId Object unique id.
+	 * @return Version of object, or 0 if object is not changed.
+	 */
+	private synchronized long getVersion(String uniqueId) {
+	    return this.versions.getOrDefault(uniqueId, 0L);
+	}
+
+	/**
+	 * This method returns if object is changed since its last successful write.
+	 *
+	 * @param uniqueId Object unique id.
+	 * @return {@code true} if object is changed.
+	 */
+	private synchronized boolean isModified(String uniqueId) {
+	    return this.versions.containsKey(uniqueId);
+	}
+
+	/**
+	 * This method marks object as written, if it is not changed after given
+	 * version.
+	 *
+	 * @param uniqueId Object unique id.
+	 * @param version  Version of object that was written.
+	 * @param success  Result of the write.
+	 * @return Result of the write.
+	 */
+	private synchronized Boolean markWritten(String uniqueId, long version, Boolean success) {
+	    if (Boolean.TRUE.equals(success) && this.versions.getOrDefault(uniqueId, 0L) <= version) {
+		this.versions.remove(uniqueId);
+	    }
+
+	    return success;
+	}
+
+	/**
+	 * This method removes object from stamps.
+	 *
+	 * @param uniqueId Object unique id.
+	 */
+	private synchronized void remove(String uniqueId) {
+	    this.versions.remove(uniqueId);
+	}
+
+	/**
+	 * Version of each changed object.
+	 */
+	private final Map<String, Long> versions = new HashMap<>();
+
+	/**
+	 * Last assigned version.
+	 */
+	private long counter;
+    }
+
     // ---------------------------------------------------------------------
     // Section: Variables
     // ---------------------------------------------------------------------
 
+    /**
+     * Number of locks that guard changes of cached island data.
+     */
+    private static final int ISLAND_LOCK_STRIPES = 64;
+
     /**
      * This variable holds Generator addon.
      */
@@ -1391,7 +3031,8 @@ public class StoneGeneratorManager {
     private final Set<World> operationWorlds;
 
     /**
-     * Variable stores map that links String to loaded generator tier object.
+     * Variable stores map that links String to loaded generator tier object. It
+     * can be read from any thread.
      */
     private final Map<String, GeneratorTierObject> generatorTierCache;
 
@@ -1401,9 +3042,10 @@ public class StoneGeneratorManager {
     private final Database<GeneratorTierObject> generatorTierDatabase;
 
     /**
-     * Variable stores map that links String to loaded generator data object.
+     * Variable stores cache that links String to loaded generator data object. It
+     * can be read from any thread.
      */
-    private final Map<String, GeneratorDataObject> generatorDataCache;
+    private final IdleEvictingCache<GeneratorDataObject> generatorDataCache;
 
     /**
      * Variable stores database of generator data objects.
@@ -1412,11 +3054,142 @@ public class StoneGeneratorManager {
 
     /**
      * Variable stores map that links String to loaded generator bundle object.
+     * It can be read from any thread.
      */
     private final Map<String, GeneratorBundleObject> generatorBundleCache;
 
+    /**
+     * Variable stores locks that guard changes of cached island data. Each island
+     * uses one of them.
+     */
+    private final Object[] islandLocks;
+
     /**
      * Variable stores database of generator bundle objects.
      */
     private final Database<GeneratorBundleObject> generatorBundleDatabase;
+
+    /**
+     * Variable stores resolved generator tiers for each island, generator type and
+     * biome. Empty optional means that no generator tier operates there.
+     */
+    private final Map<String, Map<GeneratorTierObject.GeneratorType, Map<Biome, Optional<GeneratorTierObject>>>> resolvedTierCache;
+
+    /**
+     * Variable stores number of online members for each island.
+     */
+    private final Map<String, Integer> onlineMemberCache;
+
+    /**
+     * Variable stores generator working range for each island.
+     */
+    private final Map<String, Integer> workingRangeCache;
+
+    /**
+     * Variable stores generator tier views for each game mode. Game modes are
+     * stored by lower case name.
+     */
+    private final Map<String, GameModeTiers> gameModeTiers = new ConcurrentHashMap<>();
+
+    /**
+     * Variable stores remembered permissions of online players.
+     */
+    private final Map<UUID, PermissionSnapshot> permissionSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Variable stores state of the last generator unlock check for each island.
+     */
+    private final Map<String, UnlockState> unlockStates = new ConcurrentHashMap<>();
+
+    /**
+     * Variable stores interned generator tier ids, which allows to store sets of
+     * generator tiers as bit sets.
+     */
+    private final IdInterner tierIds = new IdInterner();
+
+    /**
+     * Variable stores version of game mode views. It is changed only while
+     * gameModeTiers map is locked.
+     */
+    private volatile long gameModeTierVersion;
+
+    /**
+     * Variable stores the latest data version. It starts from the server start
+     * time.
+     */
+    private final AtomicLong dataVersion = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Variable stores data version of generator tiers and bundles.
+     */
+    private volatile long tierDataVersion = this.dataVersion.get();
+
+    /**
+     * Variable stores data version of each changed island while its data is
+     * cached.
+     */
+    private final Map<String, Long> islandDataVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Variable stores the largest data version that is removed from island data
+     * versions.
+     */
+    private final AtomicLong forgottenDataVersion = new AtomicLong();
+
+    /**
+     * Variable stores islands which data is being loaded asynchronously.
+     */
+    private final Set<String> pendingDataLoads;
+
+    /**
+     * Variable stores number of generations served before island data was loaded.
+     */
+    private final LongAdder servedBeforeLoadCount = new LongAdder();
+
+    /**
+     * Variable stores number of asynchronous island data loads.
+     */
+    private final LongAdder asyncLoadCount = new LongAdder();
+
+    /**
+     * Variable stores island data objects which changes wait to be written, in
+     * order they were changed.
+     */
+    private final Map<String, GeneratorDataObject> dirtyGeneratorData;
+
+    /**
+     * Variable stores island data objects removed from cache which writes are not
+     * done yet.
+     */
+    private final Map<String, GeneratorDataObject> evictedDataWrites;
+
+    /**
+     * Variable stores island data writes that are not done yet.
+     */
+    private final Set<CompletableFuture<Boolean>> pendingDataWrites = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Variable stores number of island data writes.
+     */
+    private final LongAdder dataWriteCount = new LongAdder();
+
+    /**
+     * Variable stores number of island data saves merged with queued changes.
+     */
+    private final LongAdder coalescedSaveCount = new LongAdder();
+
+    /**
+     * Variable stores version stamps of changed generator tiers.
+     */
+    private final VersionStamps tierStamps;
+
+    /**
+     * Variable stores version stamps of changed generator bundles.
+     */
+    private final VersionStamps bundleStamps;
+
+    /**
+     * Variable stores version stamps of changed island data.
+     */
+    private final VersionStamps dataStamps;
 }
@@ -275,7 +275,7 @@ public class IslandEditPanel extends CommonPagedPanel<GeneratorTierObject>
                     if (!generatorTier.isDefaultGenerator())
                     {
                         // Direct access to data.
-                        this.generatorData.getUnlockedTiers().remove(generatorTier.getUniqueId());
+                        this.generatorData.removeUnlockedTier(generatorTier.getUniqueId());
                     }
                 }
                 else
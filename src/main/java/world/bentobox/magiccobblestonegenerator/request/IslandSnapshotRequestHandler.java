@@ -0,0 +1,321 @@
+//
+// Created by BONNe
+// Copyright - 2021
+//
+
+
+package world.bentobox.magiccobblestonegenerator.request;
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import world.bentobox.bentobox.api.addons.request.AddonRequestHandler;
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
+import world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager;
+import world.bentobox.magiccobblestonegenerator.utils.IdleEvictingCache;
+
+
+/**
+ * This request handler returns generator data for many players or islands in a single request. Returned data is
+ * immutable and versioned, so callers can request only islands that are changed since their previous request.
+ * Snapshots are built once for each island data version and shared between requests.
+ */
+public class IslandSnapshotRequestHandler extends AddonRequestHandler
+{
+    /**
+     * Default constructor.
+     */
+    public IslandSnapshotRequestHandler(StoneGeneratorAddon addon)
+    {
+        super("island-generator-snapshots");
+        this.addon = addon;
+        this.snapshots = new IdleEvictingCache<>(() -> this.addon.getSettings().getDataCacheSize(),
+            () -> 0L,
+            islandId -> false,
+            (islandId, snapshot) -> {});
+    }
+
+
+    /**
+     * This method handles addon request.
+     */
+    @Override
+    public Object handle(Map<String, Object> metaData)
+    {
+        /*
+            What we need in the map:
+            0. "players" -> Collection<UUID> and "world-name" -> String, or
+            1. "islands" -> Collection<String> of island unique ids, or both.
+            2. "since" -> Number (optional) version from previous request.
+            What we will return:
+            - null if invalid input
+            - Map<String, Object> with:
+              - "version" -> Long that must be passed as "since" in next request.
+              - "players" -> Map<UUID, String> island unique id for each requested player that has an island.
+              - "islands" -> Map<String, Map<String, Object>> generator data for each island that is changed
+                since given version. Islands without generator data are not returned.
+         */
+
+        if (metaData == null || metaData.isEmpty())
+        {
+            return null;
+        }
+
+        Object players = metaData.get(PLAYERS);
+        Object islands = metaData.get(ISLANDS);
+        Object since = metaData.get(SINCE);
+
+        // Check for missing data.
+        if (!(players instanceof Collection) && !(islands instanceof Collection) ||
+            since != null && !(since instanceof Number))
+        {
+            return null;
+        }
+
+        World world = null;
+
+        if (players instanceof Collection)
+        {
+            Object worldName = metaData.get(WORLD_NAME);
+            world = worldName instanceof String ? Bukkit.getWorld((String) worldName) : null;
+
+            // Check for missing world.
+            if (world == null)
+            {
+                return null;
+            }
+        }
+
+        long sinceVersion = since == null ? Long.MIN_VALUE : ((Number) since).longValue();
+
+        // Version is read before island data, so changes made while request is handled are returned again.
+        long version = this.addon.getAddonManager().getDataVersion();
+
+        Map<UUID, String> playerIslands = new HashMap<>();
+        Map<String, Map<String, Object>> islandSnapshots = new HashMap<>();
+
+        if (world != null)
+        {
+            for (Object player : (Collection<?>) players)
+            {
+                if (player instanceof UUID)
+                {
+                    Island island = this.addon.getIslands().getIsland(world, (UUID) player);
+
+                    if (island != null)
+                    {
+                        playerIslands.put((UUID) player, island.getUniqueId());
+                        this.collectSnapshot(island, sinceVersion, islandSnapshots);
+                    }
+                }
+            }
+        }
+
+        if (islands instanceof Collection)
+        {
+            for (Object islandId : (Collection<?>) islands)
+            {
+                if (islandId instanceof String)
+                {
+                    this.addon.getIslands().getIslandById((String) islandId).
+                        ifPresent(island -> this.collectSnapshot(island, sinceVersion, islandSnapshots));
+                }
+            }
+        }
+
+        return Map.of(VERSION, version,
+            PLAYERS, Map.copyOf(playerIslands),
+            ISLANDS, Map.copyOf(islandSnapshots));
+    }
+
+
+    /**
+     * This method adds snapshot of given island to the result, if island data is changed since given version.
+     *
+     * @param island Island which snapshot must be added.
+     * @param sinceVersion Version from previous request.
+     * @param result Map where snapshot must be added.
+     */
+    private void collectSnapshot(Island island, long sinceVersion, Map<String, Map<String, Object>> result)
+    {
+        String islandId = island.getUniqueId();
+
+        if (islandId == null || result.containsKey(islandId))
+        {
+            // Island is already added for other team member.
+            return;
+        }
+
+        StoneGeneratorManager addonManager = this.addon.getAddonManager();
+        long islandVersion = addonManager.getIslandDataVersion(islandId);
+
+        if (islandVersion <= sinceVersion)
+        {
+            return;
+        }
+
+        Snapshot snapshot = this.snapshots.get(islandId);
+
+        if (snapshot == null || snapshot.version != islandVersion)
+        {
+            GeneratorDataObject data = addonManager.getGeneratorData(island);
+
+            if (data == null)
+            {
+                return;
+            }
+
+            snapshot = new Snapshot(islandVersion, this.createSnapshot(data, islandVersion));
+            this.snapshots.put(islandId, snapshot);
+        }
+
+        result.put(islandId, snapshot.data);
+    }
+
+
+    /**
+     * This method creates immutable snapshot of given island data.
+     *
+     * @param data Island data.
+     * @param islandVersion Data version of island.
+     * @return Map with island generator data.
+     */
+    private Map<String, Object> createSnapshot(GeneratorDataObject data, long islandVersion)
+    {
+        StoneGeneratorManager addonManager = this.addon.getAddonManager();
+
+        List<String> activeGenerators;
+        Set<String> unlockedGenerators;
+        Set<String> purchasedGenerators;
+
+        // Island data sets are changed while data object is locked.
+        synchronized (data)
+        {
+            activeGenerators = data.getActiveGeneratorList().stream().
+                filter(Objects::nonNull).
+                sorted().
+                collect(Collectors.toUnmodifiableList());
+            unlockedGenerators = data.getUnlockedTiers().stream().
+                filter(Objects::nonNull).
+                collect(Collectors.toUnmodifiableSet());
+            purchasedGenerators = data.getPurchasedTiers().stream().
+                filter(Objects::nonNull).
+                collect(Collectors.toUnmodifiableSet());
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+
+        snapshot.put("uniqueId", data.getUniqueId());
+        snapshot.put("version", islandVersion);
+
+        snapshot.put("activeGenerators", activeGenerators);
+        snapshot.put("activeGeneratorNames", activeGenerators.stream().
+            map(addonManager::getGeneratorByID).
+            filter(Objects::nonNull).
+            map(GeneratorTierObject::getFriendlyName).
+            collect(Collectors.toUnmodifiableList()));
+        snapshot.put("unlockedGenerators", unlockedGenerators);
+        snapshot.put("purchasedGenerators", purchasedGenerators);
+
+        String bundle = data.getBundle();
+
+        if (bundle != null)
+        {
+            snapshot.put("bundle", bundle);
+        }
+
+        snapshot.put("maxActiveGenerators", data.getActiveGeneratorCount());
+        snapshot.put("workingRange", data.getRange());
+
+        return Map.copyOf(snapshot);
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds island snapshot with its data version.
+     */
+    private static class Snapshot
+    {
+        /**
+         * Creates island snapshot.
+         *
+         * @param version Data version of island.
+         * @param data Immutable island generator data.
+         */
+        private Snapshot(long version, Map<String, Object> data)
+        {
+            this.version = version;
+            this.data = data;
+        }
+
+
+        /**
+         * Data version of island.
+         */
+        private final long version;
+
+        /**
+         * Immutable island generator data.
+         */
+        private final Map<String, Object> data;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Instance of Addon
+     */
+    private final StoneGeneratorAddon addon;
+
+    /**
+     * Snapshots of island data.
+     */
+    private final IdleEvictingCache<Snapshot> snapshots;
+
+    /**
+     * World name constant.
+     */
+    private static final String WORLD_NAME = "world-name";
+
+    /**
+     * Players constant.
+     */
+    private static final String PLAYERS = "players";
+
+    /**
+     * Islands constant.
+     */
+    private static final String ISLANDS = "islands";
+
+    /**
+     * Since version constant.
+     */
+    private static final String SINCE = "since";
+
+    /**
+     * Version constant.
+     */
+    private static final String VERSION = "version";
+}
@@ -0,0 +1,636 @@
+package world.bentobox.magiccobblestonegenerator.tasks;
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.config.Settings;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
+import world.bentobox.magiccobblestonegenerator.utils.LongObjectHashMap;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
+import world.bentobox.magiccobblestonegenerator.utils.Utils;
+
+
+/**
+ * This class limits how many magic blocks each island and each chunk can generate per second. Limits work as token
+ * buckets, so short bursts are allowed while a constant flow is capped. Blocks over the limit stay vanilla, and can be
+ * queued to be replaced with magic blocks in later ticks.
+ * <p>
+ * Limiter can be used from several region threads, so its state is changed only while holding its lock. Queued blocks
+ * are replaced by the region that owns them.
+ */
+public class GenerationLimiter
+{
+    /**
+     * Default constructor.
+     *
+     * @param addon Magic Cobblestone Generator addon.
+     */
+    public GenerationLimiter(StoneGeneratorAddon addon)
+    {
+        this.addon = addon;
+        this.islandBuckets = new HashMap<>();
+        this.chunkBuckets = new HashMap<>();
+        this.deferredBlocks = new ArrayDeque<>();
+        this.throttledIslands = new HashMap<>();
+    }
+
+
+    /**
+     * This method returns if island can generate a magic block at given block. If it can, then one generation is
+     * taken from island and chunk budget.
+     *
+     * @param island Island on which block is generated.
+     * @param block Block that is generated.
+     * @return {@code true} if island and chunk are within limits, {@code false} otherwise.
+     */
+    public synchronized boolean tryAcquire(@NotNull Island island, @NotNull Block block)
+    {
+        if (this.acquire(island, block.getWorld(), block.getX(), block.getZ()))
+        {
+            return true;
+        }
+
+        this.getThrottledIsland(island).throttledCount++;
+        return false;
+    }
+
+
+    /**
+     * This method queues block to be replaced with a magic block in later ticks. Block is replaced only if it still
+     * has the same material when island and chunk have enough budget.
+     *
+     * @param island Island on which block is generated.
+     * @param block Block that is generated.
+     * @param generatorType Type of generator that formed the block.
+     * @param material Material that vanilla generator places in the block.
+     * @return {@code true} if block is queued, {@code false} if queue is full or disabled.
+     */
+    public synchronized boolean defer(@NotNull Island island,
+        @NotNull Block block,
+        GeneratorTierObject.GeneratorType generatorType,
+        Material material)
+    {
+        int queueSize = this.addon.getSettings().getLimitQueueSize();
+
+        if (queueSize <= 0)
+        {
+            return false;
+        }
+
+        ThrottledIsland throttledIsland = this.getThrottledIsland(island);
+
+        if (this.deferredBlocks.size() >= queueSize)
+        {
+            throttledIsland.droppedCount++;
+            return false;
+        }
+
+        this.enqueue(new DeferredBlock(island,
+            block.getWorld(),
+            block.getX(),
+            block.getY(),
+            block.getZ(),
+            generatorType,
+            material));
+        throttledIsland.deferredCount++;
+
+        return true;
+    }
+
+
+    /**
+     * This method adds block to the queue and starts the task that processes queue.
+     *
+     * @param deferred Block that must be queued.
+     */
+    private synchronized void enqueue(DeferredBlock deferred)
+    {
+        this.deferredBlocks.add(deferred);
+
+        if (this.drainTask == null)
+        {
+            this.drainTask = Schedulers.runTimer(this.addon.getPlugin(), this::drain, 1L, 1L);
+        }
+    }
+
+
+    /**
+     * This method returns islands that were throttled recently.
+     *
+     * @return List of recently throttled islands.
+     */
+    public synchronized List<ThrottledIsland> getThrottledIslands()
+    {
+        long now = System.currentTimeMillis();
+
+        this.throttledIslands.values().removeIf(throttled -> now - throttled.lastThrottled > THROTTLE_WINDOW);
+
+        return new ArrayList<>(this.throttledIslands.values());
+    }
+
+
+    /**
+     * @return number of blocks that wait in the queue.
+     */
+    public synchronized int getQueuedCount()
+    {
+        return this.deferredBlocks.size();
+    }
+
+
+    /**
+     * @return number of queued blocks that were replaced with magic blocks.
+     */
+    public long getPlacedCount()
+    {
+        return this.placedCount.sum();
+    }
+
+
+    /**
+     * This method replaces queued blocks with magic blocks while islands and chunks have enough budget.
+     */
+    private synchronized void drain()
+    {
+        Settings settings = this.addon.getSettings();
+
+        int perTick = Math.max(1, settings.getLimitQueuePerTick());
+        int size = this.deferredBlocks.size();
+        int processed = 0;
+
+        // Each queued block is checked at most once per tick.
+        for (int i = 0; i < size && processed < perTick; i++)
+        {
+            DeferredBlock deferred = this.deferredBlocks.poll();
+
+            if (deferred == null)
+            {
+                break;
+            }
+
+            if (Schedulers.isRegionThreading())
+            {
+                // Blocks can be accessed only by the region that owns them.
+                processed++;
+                Schedulers.runAt(this.addon.getPlugin(),
+                    new Location(deferred.world, deferred.x, deferred.y, deferred.z),
+                    () -> this.replaceBlock(deferred, settings));
+            }
+            else if (this.replaceBlock(deferred, settings))
+            {
+                processed++;
+            }
+        }
+
+        if (this.deferredBlocks.isEmpty())
+        {
+            this.drainTask.cancel();
+            this.drainTask = null;
+        }
+    }
+
+
+    /**
+     * This method replaces queued block with a magic block, if block is not changed and island and chunk have enough
+     * budget. Otherwise, block is queued again.
+     *
+     * @param deferred Queued block.
+     * @param settings Addon settings.
+     * @return {@code true} if block is replaced, {@code false} otherwise.
+     */
+    private boolean replaceBlock(DeferredBlock deferred, Settings settings)
+    {
+        if (!deferred.world.isChunkLoaded(deferred.x >> 4, deferred.z >> 4))
+        {
+            // Chunk is unloaded, so block is left vanilla.
+            return false;
+        }
+
+        Block block = deferred.world.getBlockAt(deferred.x, deferred.y, deferred.z);
+
+        if (block.getType() != deferred.material)
+        {
+            // Block is mined or changed in the meantime.
+            return false;
+        }
+
+        synchronized (this)
+        {
+            if (!this.acquire(deferred.island, deferred.world, deferred.x, deferred.z))
+            {
+                // Still over the limit, try again later.
+                this.enqueue(deferred);
+                return false;
+            }
+        }
+
+        Location location = block.getLocation();
+
+        GeneratorTierObject generatorTier = this.addon.getAddonManager().getGeneratorTier(
+            deferred.island,
+            location,
+            deferred.generatorType);
+
+        Material material = this.addon.getGenerator().processBlockReplacement(deferred.island,
+            generatorTier,
+            location);
+
+        if (material == null || !material.isBlock())
+        {
+            return true;
+        }
+
+        block.setType(material, settings.isUsePhysics());
+        this.placedCount.increment();
+
+        return true;
+    }
+
+
+    /**
+     * This method takes one generation from island and chunk budget, if both have it.
+     *
+     * @param island Island on which block is generated.
+     * @param world World of the block.
+     * @param x Block X coordinate.
+     * @param z Block Z coordinate.
+     * @return {@code true} if island and chunk are within limits, {@code false} otherwise.
+     */
+    private boolean acquire(Island island, World world, int x, int z)
+    {
+        Settings settings = this.addon.getSettings();
+
+        int islandRate = settings.getLimitIslandRate();
+        int chunkRate = settings.getLimitChunkRate();
+
+        if (islandRate <= 0 && chunkRate <= 0)
+        {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+
+        TokenBucket islandBucket = null;
+
+        if (islandRate > 0)
+        {
+            int capacity = Math.max(1, settings.getLimitIslandBurst());
+
+            if (this.islandBuckets.size() >= MAX_BUCKETS)
+            {
+                // Full buckets are the same as missing ones.
+                this.islandBuckets.values().removeIf(bucket -> bucket.isFull(now, islandRate, capacity));
+            }
+
+            islandBucket = this.islandBuckets.computeIfAbsent(island.getUniqueId(), id -> new TokenBucket(capacity, now));
+
+            if (!islandBucket.hasToken(now, islandRate, capacity))
+            {
+                return false;
+            }
+        }
+
+        TokenBucket chunkBucket = null;
+
+        if (chunkRate > 0)
+        {
+            int capacity = Math.max(1, settings.getLimitChunkBurst());
+
+            LongObjectHashMap<TokenBucket> worldBuckets =
+                this.chunkBuckets.computeIfAbsent(world, key -> new LongObjectHashMap<>());
+
+            if (worldBuckets.size() >= MAX_BUCKETS)
+            {
+                // Full buckets are the same as missing ones.
+                worldBuckets.removeIf(bucket -> bucket.isFull(now, chunkRate, capacity));
+            }
+
+            long chunkKey = Utils.getChunkKey(x >> 4, z >> 4);
+            chunkBucket = worldBuckets.get(chunkKey);
+
+            if (chunkBucket == null)
+            {
+                chunkBucket = new TokenBucket(capacity, now);
+                worldBuckets.put(chunkKey, chunkBucket);
+            }
+
+            if (!chunkBucket.hasToken(now, chunkRate, capacity))
+            {
+                return false;
+            }
+        }
+
+        // Tokens are taken only when both buckets have them.
+        if (islandBucket != null)
+        {
+            islandBucket.tokens--;
+        }
+
+        if (chunkBucket != null)
+        {
+            chunkBucket.tokens--;
+        }
+
+        return true;
+    }
+
+
+    /**
+     * This method returns throttle statistics for given island and marks it as throttled now.
+     *
+     * @param island Island that is throttled.
+     * @return ThrottledIsland object for given island.
+     */
+    private ThrottledIsland getThrottledIsland(Island island)
+    {
+        ThrottledIsland throttledIsland =
+            this.throttledIslands.computeIfAbsent(island.getUniqueId(), id -> new ThrottledIsland(island));
+        throttledIsland.lastThrottled = System.currentTimeMillis();
+
+        return throttledIsland;
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Classes
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds token bucket for a single island or chunk.
+     */
+    private static class TokenBucket
+    {
+        /**
+         * Creates full token bucket.
+         *
+         * @param capacity Number of tokens in full bucket.
+         * @param now Current time.
+         */
+        private TokenBucket(int capacity, long now)
+        {
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+
+        /**
+         * This method refills bucket and returns if it has at least one token.
+         *
+         * @param now Current time.
+         * @param rate Tokens per second.
+         * @param capacity Number of tokens in full bucket.
+         * @return {@code true} if bucket has a token.
+         */
+        private boolean hasToken(long now, int rate, int capacity)
+        {
+            if (now > this.lastRefill)
+            {
+                this.tokens = Math.min(capacity, this.tokens + (now - this.lastRefill) * rate / 1000.0);
+                this.lastRefill = now;
+            }
+
+            return this.tokens >= 1;
+        }
+
+
+        /**
+         * This method returns if bucket would be full at given time.
+         *
+         * @param now Current time.
+         * @param rate Tokens per second.
+         * @param capacity Number of tokens in full bucket.
+         * @return {@code true} if bucket is full.
+         */
+        private boolean isFull(long now, int rate, int capacity)
+        {
+            return this.tokens + (now - this.lastRefill) * rate / 1000.0 >= capacity;
+        }
+
+
+        /**
+         * Number of tokens in the bucket.
+         */
+        private double tokens;
+
+        /**
+         * Time when bucket was refilled last time.
+         */
+        private long lastRefill;
+    }
+
+
+    /**
+     * This class holds block that waits to be replaced with a magic block.
+     */
+    private static class DeferredBlock
+    {
+        /**
+         * Creates deferred block.
+         *
+         * @param island Island on which block is generated.
+         * @param world World of the block.
+         * @param x Block X coordinate.
+         * @param y Block Y coordinate.
+         * @param z Block Z coordinate.
+         * @param generatorType Type of generator that formed the block.
+         * @param material Material that vanilla generator places in the block.
+         */
+        private DeferredBlock(Island island,
+            World world,
+            int x,
+            int y,
+            int z,
+            GeneratorTierObject.GeneratorType generatorType,
+            Material material)
+        {
+            this.island = island;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.generatorType = generatorType;
+            this.material = material;
+        }
+
+
+        /**
+         * Island on which block is generated.
+         */
+        private final Island island;
+
+        /**
+         * World of the block.
+         */
+        private final World world;
+
+        /**
+         * Block X coordinate.
+         */
+        private final int x;
+
+        /**
+         * Block Y coordinate.
+         */
+        private final int y;
+
+        /**
+         * Block Z coordinate.
+         */
+        private final int z;
+
+        /**
+         * Type of generator that formed the block.
+         */
+        private final GeneratorTierObject.GeneratorType generatorType;
+
+        /**
+         * Material that vanilla generator places in the block.
+         */
+        private final Material material;
+    }
+
+
+    /**
+     * This class holds throttle statistics for a single island.
+     */
+    public static class ThrottledIsland
+    {
+        /**
+         * Creates throttle statistics.
+         *
+         * @param island Island that is throttled.
+         */
+        private ThrottledIsland(Island island)
+        {
+            this.island = island;
+        }
+
+
+        /**
+         * @return the throttled island.
+         */
+        public Island getIsland()
+        {
+            return this.island;
+        }
+
+
+        /**
+         * @return number of blocks that were over the limit.
+         */
+        public long getThrottledCount()
+        {
+            return this.throttledCount;
+        }
+
+
+        /**
+         * @return number of blocks that were queued.
+         */
+        public long getDeferredCount()
+        {
+            return this.deferredCount;
+        }
+
+
+        /**
+         * @return number of blocks that were not queued because queue was full.
+         */
+        public long getDroppedCount()
+        {
+            return this.droppedCount;
+        }
+
+
+        /**
+         * Island that is throttled.
+         */
+        private final Island island;
+
+        /**
+         * Number of blocks that were over the limit.
+         */
+        private long throttledCount;
+
+        /**
+         * Number of blocks that were queued.
+         */
+        private long deferredCount;
+
+        /**
+         * Number of blocks that were not queued.
+         */
+        private long droppedCount;
+
+        /**
+         * Time when island was throttled last time.
+         */
+        private long lastThrottled;
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Variables
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * Time in milliseconds for which throttled island is shown in statistics.
+     */
+    private static final long THROTTLE_WINDOW = 60_000;
+
+    /**
+     * Number of buckets after which full buckets are removed.
+     */
+    private static final int MAX_BUCKETS = 4096;
+
+    /**
+     * This variable holds stone generator addon object.
+     */
+    private final StoneGeneratorAddon addon;
+
+    /**
+     * Token buckets for each island.
+     */
+    private final Map<String, TokenBucket> islandBuckets;
+
+    /**
+     * Token buckets for each chunk, by world and packed chunk key.
+     */
+    private final Map<World, LongObjectHashMap<TokenBucket>> chunkBuckets;
+
+    /**
+     * Blocks that wait to be replaced with magic blocks.
+     */
+    private final Deque<DeferredBlock> deferredBlocks;
+
+    /**
+     * Throttle statistics for each island.
+     */
+    private final Map<String, ThrottledIsland> throttledIslands;
+
+    /**
+     * Task that processes queued blocks.
+     */
+    private Schedulers.Task drainTask;
+
+    /**
+     * Number of queued blocks that were replaced.
+     */
+    private final LongAdder placedCount = new LongAdder();
+}
@@ -2,15 +2,19 @@ package world.bentobox.magiccobblestonegenerator.tasks;
 
 
 import java.util.Random;
-import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
+import world.bentobox.bentobox.database.objects.Island;
 import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
 import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
+import world.bentobox.magiccobblestonegenerator.utils.AliasSampler;
+import world.bentobox.magiccobblestonegenerator.utils.CompiledTier;
+import world.bentobox.magiccobblestonegenerator.utils.Schedulers;
 import world.bentobox.magiccobblestonegenerator.utils.Why;
 
 
@@ -33,98 +37,115 @@ public class MagicGenerator
     /**
      * This method tries to replace block from chance map and returns if it was successful.
      *
+     * @param island Island on which block is processed. Used only for debug reports.
      * @param generatorTier Object that contains all possible chances.
      * @param location Location of the block that need to be replaced.
      * @return the replaced material or null.
      */
-    public @Nullable Material processBlockReplacement(@Nullable GeneratorTierObject generatorTier, Location location)
+    public @Nullable Material processBlockReplacement(@Nullable Island island,
+        @Nullable GeneratorTierObject generatorTier,
+        Location location)
     {
+        // Debug reports capture local values, so they are created only when island is traced.
+        boolean tracing = Why.isTracing(island);
+
         if (generatorTier == null)
         {
-            Why.report(location, "Missing Generator Tier");
+            Why.report(island, location, "Missing Generator Tier");
             // Check if generator exists.
             return null;
         }
 
+        // Generators use committed version of the tier, so edits are not visible until they are saved.
+        CompiledTier compiledTier = generatorTier.getCompiledTier();
+
+        if (compiledTier == null)
+        {
+            if (tracing)
+            {
+                Why.report(island, location, generatorTier.getUniqueId(), () ->
+                    "Invalid Generator Tier " + generatorTier.getUniqueId());
+            }
+
+            return null;
+        }
+
         // Check if the block is within the generator's global height range
         int blockY = location.getBlockY();
-        if (blockY < generatorTier.getMinHeight() || blockY > generatorTier.getMaxHeight())
+        if (blockY < compiledTier.getMinHeight() || blockY > compiledTier.getMaxHeight())
         {
-            Why.report(location, "Block outside global height range: " + blockY + 
-                " (min: " + generatorTier.getMinHeight() + ", max: " + generatorTier.getMaxHeight() + ")");
+            if (tracing)
+            {
+                Why.report(island, location, generatorTier.getUniqueId(), () ->
+                    "Block outside global height range: " + blockY +
+                        " (min: " + compiledTier.getMinHeight() + ", max: " + compiledTier.getMaxHeight() + ")");
+            }
+
             return null;
         }
 
-        TreeMap<Double, Material> chanceMap = generatorTier.getBlockChanceMap();
+        // Sampler contains only materials that can be generated at this height.
+        AliasSampler<Material> blockSampler = compiledTier.getBlockSampler(blockY);
 
-        if (chanceMap.isEmpty())
+        if (blockSampler == null || blockSampler.isEmpty())
         {
-            Why.report(location, "Missing Block Chances in " + generatorTier.getUniqueId());
+            if (tracing)
+            {
+                Why.report(island, location, generatorTier.getUniqueId(), () ->
+                    "Missing Block Chances at height " + blockY + " in " + generatorTier.getUniqueId());
+            }
 
             // Check if any block has a chance to spawn
             return null;
         }
 
-        Material newMaterial = this.getMaterialFromMap(chanceMap);
+        // Generation can run on several region threads, so each thread uses its own random.
+        Random random = ThreadLocalRandom.current();
+
+        Material newMaterial = blockSampler.sample(random);
 
         if (newMaterial == null)
         {
-            Why.report(location, "Cannot parse material from ChanceMap in " + generatorTier.getUniqueId());
+            if (tracing)
+            {
+                Why.report(island, location, generatorTier.getUniqueId(), () ->
+                    "Cannot parse material from ChanceMap in " + generatorTier.getUniqueId());
+            }
 
             // Check if a material was found
             return null;
         }
 
-        // Check if this material has specific height restrictions
-        int[] materialHeightRange = generatorTier.getMaterialHeightRange(newMaterial);
-        if (materialHeightRange != null)
+        if (tracing)
         {
-            int materialMinHeight = materialHeightRange[0];
-            int materialMaxHeight = materialHeightRange[1];
-            
-            if (blockY < materialMinHeight || blockY > materialMaxHeight)
-            {
-                Why.report(location, "Material " + newMaterial + " outside its specific height range: " + blockY + 
-                    " (min: " + materialMinHeight + ", max: " + materialMaxHeight + ")");
-                
-                // Try to find another material that can be generated at this height
-                Material alternativeMaterial = findMaterialForHeight(generatorTier, blockY);
-                if (alternativeMaterial != null)
-                {
-                    Why.report(location, "Using alternative material " + alternativeMaterial + " for height " + blockY);
-                    newMaterial = alternativeMaterial;
-                }
-                else
-                {
-                    // If no suitable material found, don't replace the block
-                    return null;
-                }
-            }
+            Why.report(island, location, generatorTier.getUniqueId(), () ->
+                "Replace with " + newMaterial + " by " + generatorTier.getUniqueId());
         }
 
-        Why.report(location, "Replace with " + newMaterial + " by " + generatorTier.getUniqueId());
-
-        if (generatorTier.getMaxTreasureAmount() > 0 &&
-            generatorTier.getTreasureChance() > 0 &&
-            !generatorTier.getTreasureItemChanceMap().isEmpty())
+        if (compiledTier.hasTreasures())
         {
             // Random check on getting treasure.
-            if (this.random.nextDouble() <= generatorTier.getTreasureChance())
+            if (random.nextDouble() <= compiledTier.getTreasureChance())
             {
-                // Use the same variables for treasures.
-                TreeMap<Double, ItemStack> treasureMap = generatorTier.getTreasureItemChanceMap();
-                ItemStack itemStack = this.getMaterialFromMap(treasureMap);
+                // Use the same sampling for treasures.
+                ItemStack itemStack = compiledTier.getTreasureSampler().sample(random);
 
                 // Double check, in general it should always be a material.
                 if (itemStack != null)
                 {
                     ItemStack drop = itemStack.clone();
-                    drop.setAmount(this.random.nextInt(generatorTier.getMaxTreasureAmount() + 1) + 1);
-
-                    Why.report(location, "Dropping treasure " + drop + " by " + generatorTier.getUniqueId());
-
-                    // drop item naturally in the location of the block
-                    location.getWorld().dropItemNaturally(location, drop);
+                    drop.setAmount(random.nextInt(compiledTier.getMaxTreasureAmount() + 1) + 1);
+
+                    if (tracing)
+                    {
+                        Why.report(island, location, generatorTier.getUniqueId(), () ->
+                            "Dropping treasure " + drop + " by " + generatorTier.getUniqueId());
+                    }
+
+                    // drop item naturally in the location of the block, on the thread that owns it.
+                    Schedulers.runAt(this.addon.getPlugin(),
+                        location,
+                        () -> location.getWorld().dropItemNaturally(location, drop));
                 }
             }
         }
@@ -132,63 +153,6 @@ public class MagicGenerator
         return newMaterial;
     }
 
-    /**
-     * Finds a material from the generator's block chance map that can be generated at the specified height.
-     *
-     * @param generatorTier The generator tier object containing the material configurations
-     * @param blockY The Y coordinate to check against
-     * @return A material that can be generated at the specified height, or null if none found
-     */
-    private Material findMaterialForHeight(GeneratorTierObject generatorTier, int blockY)
-    {
-        TreeMap<Double, Material> chanceMap = generatorTier.getBlockChanceMap();
-        
-        for (Material material : chanceMap.values())
-        {
-            int[] heightRange = generatorTier.getMaterialHeightRange(material);
-            
-            // If this material has no specific height range, it can be generated anywhere within the generator's global range
-            if (heightRange == null)
-            {
-                return material;
-            }
-            
-            // Check if the block Y is within this material's height range
-            if (blockY >= heightRange[0] && blockY <= heightRange[1])
-            {
-                return material;
-            }
-        }
-        
-        return null;
-    }
-
-
-    /**
-     * This method returns a random material from given tree map.
-     *
-     * @param chanceMap Map that contains all objects with their chance to drop.
-     * @return <T> from map or null.
-     */
-    private <T> T getMaterialFromMap(TreeMap<Double, T> chanceMap)
-    {
-        if (chanceMap.isEmpty())
-        {
-            return null;
-        }
-
-        if (chanceMap.size() == 1)
-        {
-            // no needs to calculate. It is our material.
-            return chanceMap.get(chanceMap.firstKey());
-        }
-        else
-        {
-            double rand = this.random.nextDouble() * chanceMap.lastKey();
-            return chanceMap.ceilingEntry(rand).getValue();
-        }
-    }
-
 
     // ---------------------------------------------------------------------
     // Section: Variables
@@ -198,9 +162,4 @@ public class MagicGenerator
      * This variable holds stone generator addon object.
      */
     private final StoneGeneratorAddon addon;
-
-    /**
-     * Random for generator
-     */
-    private final Random random = new Random(System.currentTimeMillis());
 }
@@ -0,0 +1,238 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Immutable weighted sampler that uses Vose alias method. It allows to draw random object in constant time without
+ * boxing, so it is used for generating blocks and treasures.
+ *
+ * @param <T> Type of objects that are sampled.
+ */
+public class AliasSampler<T>
+{
+    /**
+     * Creates sampler from given values and their weights. Values with zero or negative weight are ignored.
+     *
+     * @param values Array of values.
+     * @param weights Array of weights for each value.
+     */
+    private AliasSampler(Object[] values, double[] weights)
+    {
+        int count = 0;
+        double totalWeight = 0.0;
+
+        for (double weight : weights)
+        {
+            if (weight > 0.0)
+            {
+                count++;
+                totalWeight += weight;
+            }
+        }
+
+        this.values = new Object[count];
+        this.probability = new double[count];
+        this.alias = new int[count];
+
+        if (count == 0)
+        {
+            return;
+        }
+
+        // Scaled probabilities, where average value is 1.
+        double[] scaled = new double[count];
+        int index = 0;
+
+        for (int i = 0; i < weights.length; i++)
+        {
+            if (weights[i] > 0.0)
+            {
+                this.values[index] = values[i];
+                scaled[index] = weights[i] * count / totalWeight;
+                index++;
+            }
+        }
+
+        // Work lists are stored as primitive stacks.
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallSize = 0;
+        int largeSize = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            if (scaled[i] < 1.0)
+            {
+                small[smallSize++] = i;
+            }
+            else
+            {
+                large[largeSize++] = i;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0)
+        {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+
+            this.probability[less] = scaled[less];
+            this.alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+
+            if (scaled[more] < 1.0)
+            {
+                small[smallSize++] = more;
+            }
+            else
+            {
+                large[largeSize++] = more;
+            }
+        }
+
+        // Remaining columns are full. Small ones can remain only because of rounding errors.
+        while (largeSize > 0)
+        {
+            int more = large[--largeSize];
+            this.probability[more] = 1.0;
+            this.alias[more] = more;
+        }
+
+        while (smallSize > 0)
+        {
+            int less = small[--smallSize];
+            this.probability[less] = 1.0;
+            this.alias[less] = less;
+        }
+    }
+
+
+    /**
+     * This method creates sampler from given chance map. Chance map keys are cumulative values, so weight of each
+     * object is difference between its key and previous key.
+     *
+     * @param chanceMap Map that contains all objects with their chance to drop.
+     * @param <T> Type of objects in chance map.
+     * @return AliasSampler for given chance map.
+     */
+    public static <T> AliasSampler<T> fromChanceMap(@Nullable TreeMap<Double, T> chanceMap)
+    {
+        if (chanceMap == null || chanceMap.isEmpty())
+        {
+            return new AliasSampler<>(new Object[0], new double[0]);
+        }
+
+        Object[] values = new Object[chanceMap.size()];
+        double[] weights = new double[chanceMap.size()];
+
+        int index = 0;
+        double previousKey = 0.0;
+
+        for (Map.Entry<Double, T> entry : chanceMap.entrySet())
+        {
+            values[index] = entry.getValue();
+            weights[index] = entry.getKey() - previousKey;
+            previousKey = Math.max(previousKey, entry.getKey());
+            index++;
+        }
+
+        return new AliasSampler<>(values, weights);
+    }
+
+
+    /**
+     * This method creates sampler from given values and their weights. Weights do not need to be normalised.
+     *
+     * @param values List of values.
+     * @param weights Weight for each value in the same order as values.
+     * @param <T> Type of values.
+     * @return AliasSampler for given values.
+     */
+    public static <T> AliasSampler<T> fromWeights(@NotNull List<T> values, double[] weights)
+    {
+        return new AliasSampler<>(values.toArray(), weights);
+    }
+
+
+    /**
+     * This method returns if sampler does not contain any value.
+     *
+     * @return {@code true} if sampler is empty, {@code false} otherwise.
+     */
+    public boolean isEmpty()
+    {
+        return this.values.length == 0;
+    }
+
+
+    /**
+     * This method returns number of values in sampler.
+     *
+     * @return Number of values.
+     */
+    public int size()
+    {
+        return this.values.length;
+    }
+
+
+    /**
+     * This method returns a random value from sampler. It uses only one random number for each draw.
+     *
+     * @param random Random that must be used.
+     * @return Random value or null, if sampler is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T sample(@NotNull Random random)
+    {
+        int length = this.values.length;
+
+        if (length == 0)
+        {
+            return null;
+        }
+
+        if (length == 1)
+        {
+            // no needs to calculate. It is our value.
+            return (T) this.values[0];
+        }
+
+        double roll = random.nextDouble() * length;
+        int column = Math.min((int) roll, length - 1);
+
+        return (T) (roll - column < this.probability[column] ?
+            this.values[column] :
+            this.values[this.alias[column]]);
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Variables
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * Values that can be sampled.
+     */
+    private final Object[] values;
+
+    /**
+     * Probability of choosing value from column instead of its alias.
+     */
+    private final double[] probability;
+
+    /**
+     * Alias index for each column.
+     */
+    private final int[] alias;
+}
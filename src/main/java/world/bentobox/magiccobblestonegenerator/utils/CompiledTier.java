@@ -0,0 +1,285 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
+
+
+/**
+ * Immutable compiled snapshot of generator tier that is used by generators. Generator tier object is an editable
+ * draft, while compiled tier is created only when the draft is committed and it is valid, so generators never see
+ * half edited chance maps or height ranges.
+ * <p>
+ * Each compiled tier has a unique version, so objects that are built from compiled tier can detect that it is
+ * replaced.
+ */
+public final class CompiledTier
+{
+    /**
+     * Creates compiled tier.
+     *
+     * @param uniqueId Generator tier unique id.
+     * @param version Version of compiled tier.
+     * @param minHeight Minimal height where generator works.
+     * @param maxHeight Maximal height where generator works.
+     * @param blockSampler Compiled block sampler.
+     * @param treasureSampler Compiled treasure sampler.
+     * @param treasureChance Chance to drop treasure.
+     * @param maxTreasureAmount Maximal amount of dropped treasure.
+     */
+    private CompiledTier(String uniqueId,
+        long version,
+        int minHeight,
+        int maxHeight,
+        HeightBandSampler<Material> blockSampler,
+        AliasSampler<ItemStack> treasureSampler,
+        double treasureChance,
+        int maxTreasureAmount)
+    {
+        this.uniqueId = uniqueId;
+        this.version = version;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.blockSampler = blockSampler;
+        this.treasureSampler = treasureSampler;
+        this.treasureChance = treasureChance;
+        this.maxTreasureAmount = maxTreasureAmount;
+    }
+
+
+    /**
+     * This method validates given generator tier draft and compiles it. Treasure items are copied, so later changes
+     * in the draft do not change compiled tier.
+     *
+     * @param draft Generator tier that must be compiled.
+     * @return Compiled tier, or null if draft is not valid.
+     */
+    public static @Nullable CompiledTier compile(@NotNull GeneratorTierObject draft)
+    {
+        if (!CompiledTier.isValid(draft))
+        {
+            return null;
+        }
+
+        TreeMap<Double, ItemStack> treasureMap = new TreeMap<>();
+
+        if (draft.getTreasureItemChanceMap() != null)
+        {
+            draft.getTreasureItemChanceMap().forEach((chance, item) -> treasureMap.put(chance, item.clone()));
+        }
+
+        return new CompiledTier(draft.getUniqueId(),
+            VERSION.incrementAndGet(),
+            draft.getMinHeight(),
+            draft.getMaxHeight(),
+            HeightBandSampler.compile(draft.getBlockChanceMap(),
+                draft.getMaterialHeightMap(),
+                draft.getMinHeight(),
+                draft.getMaxHeight()),
+            AliasSampler.fromChanceMap(treasureMap),
+            draft.getTreasureChance(),
+            draft.getMaxTreasureAmount());
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns if given generator tier draft can be compiled. Draft is not valid if its height range is
+     * empty, or if chance maps contain missing values or chances that are not finite non-negative numbers. Malformed
+     * material height ranges do not invalidate the draft, as only that material is not generated.
+     *
+     * @param draft Generator tier that must be checked.
+     * @return {@code true} if draft is valid.
+     */
+    public static boolean isValid(@NotNull GeneratorTierObject draft)
+    {
+        if (draft.getMinHeight() > draft.getMaxHeight() ||
+            draft.getMaxTreasureAmount() < 0 ||
+            !Double.isFinite(draft.getTreasureChance()))
+        {
+            return false;
+        }
+
+        if (!CompiledTier.isValidChanceMap(draft.getBlockChanceMap()) ||
+            !CompiledTier.isValidChanceMap(draft.getTreasureItemChanceMap()))
+        {
+            return false;
+        }
+
+        return true;
+    }
+
+
+    /**
+     * This method returns if all chances in given chance map are finite non-negative numbers with values.
+     *
+     * @param chanceMap Chance map that must be checked.
+     * @return {@code true} if chance map is valid.
+     */
+    private static boolean isValidChanceMap(@Nullable TreeMap<Double, ?> chanceMap)
+    {
+        if (chanceMap == null)
+        {
+            return true;
+        }
+
+        for (Map.Entry<Double, ?> entry : chanceMap.entrySet())
+        {
+            if (entry.getValue() == null || !Double.isFinite(entry.getKey()) || entry.getKey() < 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * This method returns block sampler for given height.
+     *
+     * @param blockY Height of the block.
+     * @return AliasSampler for given height or null, if height is outside generator height range.
+     */
+    public @Nullable AliasSampler<Material> getBlockSampler(int blockY)
+    {
+        return this.blockSampler.getSampler(blockY);
+    }
+
+
+    /**
+     * This method returns if compiled tier can drop treasures.
+     *
+     * @return {@code true} if treasures can be dropped.
+     */
+    public boolean hasTreasures()
+    {
+        return this.maxTreasureAmount > 0 && this.treasureChance > 0 && !this.treasureSampler.isEmpty();
+    }
+
+
+    /**
+     * @return generator tier unique id.
+     */
+    public String getUniqueId()
+    {
+        return this.uniqueId;
+    }
+
+
+    /**
+     * @return version of compiled tier.
+     */
+    public long getVersion()
+    {
+        return this.version;
+    }
+
+
+    /**
+     * @return minimal height where generator works.
+     */
+    public int getMinHeight()
+    {
+        return this.minHeight;
+    }
+
+
+    /**
+     * @return maximal height where generator works.
+     */
+    public int getMaxHeight()
+    {
+        return this.maxHeight;
+    }
+
+
+    /**
+     * @return compiled treasure sampler.
+     */
+    public AliasSampler<ItemStack> getTreasureSampler()
+    {
+        return this.treasureSampler;
+    }
+
+
+    /**
+     * @return chance to drop treasure.
+     */
+    public double getTreasureChance()
+    {
+        return this.treasureChance;
+    }
+
+
+    /**
+     * @return maximal amount of dropped treasure.
+     */
+    public int getMaxTreasureAmount()
+    {
+        return this.maxTreasureAmount;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Last assigned version of compiled tiers.
+     */
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    /**
+     * Generator tier unique id.
+     */
+    private final String uniqueId;
+
+    /**
+     * Version of compiled tier.
+     */
+    private final long version;
+
+    /**
+     * Minimal height where generator works.
+     */
+    private final int minHeight;
+
+    /**
+     * Maximal height where generator works.
+     */
+    private final int maxHeight;
+
+    /**
+     * Compiled block sampler.
+     */
+    private final HeightBandSampler<Material> blockSampler;
+
+    /**
+     * Compiled treasure sampler.
+     */
+    private final AliasSampler<ItemStack> treasureSampler;
+
+    /**
+     * Chance to drop treasure.
+     */
+    private final double treasureChance;
+
+    /**
+     * Maximal amount of dropped treasure.
+     */
+    private final int maxTreasureAmount;
+}
@@ -283,4 +283,24 @@ public class Constants
      * Reference string to description parameter in translations.
      */
     public static final String DESCRIPTION = "[description]";
+
+    /**
+     * Reference string to time parameter in translations.
+     */
+    public static final String TIME = "[time]";
+
+    /**
+     * Reference string to location parameter in translations.
+     */
+    public static final String LOCATION = "[location]";
+
+    /**
+     * Reference string to message parameter in translations.
+     */
+    public static final String MESSAGE = "[message]";
+
+    /**
+     * Reference string to failed parameter in translations.
+     */
+    public static final String FAILED = "[failed]";
 }
@@ -0,0 +1,207 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Immutable sampler that splits generator height range into bands. Each band contains the same set of objects that
+ * can be generated inside it, so each band has its own renormalised AliasSampler.
+ *
+ * @param <T> Type of objects that are sampled.
+ */
+public class HeightBandSampler<T>
+{
+    /**
+     * Creates height band sampler.
+     *
+     * @param minHeight Minimal height of the first band.
+     * @param maxHeight Maximal height of the last band.
+     * @param bandStarts Sorted array of band start heights.
+     * @param samplers Sampler for each band.
+     */
+    private HeightBandSampler(int minHeight, int maxHeight, int[] bandStarts, List<AliasSampler<T>> samplers)
+    {
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.bandStarts = bandStarts;
+        this.samplers = samplers;
+    }
+
+
+    /**
+     * This method compiles given chance map into height bands. Objects without height range can be generated at any
+     * height between min and max height. Objects with malformed or inverted height range are not generated at all.
+     *
+     * @param chanceMap Map that contains all objects with their cumulative chance.
+     * @param heightMap Map that contains height range [min, max] for objects.
+     * @param minHeight Minimal height where generation happens.
+     * @param maxHeight Maximal height where generation happens.
+     * @param <T> Type of objects in chance map.
+     * @return HeightBandSampler for given chance map.
+     */
+    public static <T> HeightBandSampler<T> compile(@Nullable TreeMap<Double, T> chanceMap,
+        @Nullable Map<T, int[]> heightMap,
+        int minHeight,
+        int maxHeight)
+    {
+        if (chanceMap == null || chanceMap.isEmpty() || minHeight > maxHeight)
+        {
+            return new HeightBandSampler<>(minHeight, maxHeight, new int[0], new ArrayList<>());
+        }
+
+        // Collect values, their weights and height ranges.
+        List<T> values = new ArrayList<>(chanceMap.size());
+        List<int[]> ranges = new ArrayList<>(chanceMap.size());
+        double[] weights = new double[chanceMap.size()];
+
+        double previousKey = 0.0;
+
+        for (Map.Entry<Double, T> entry : chanceMap.entrySet())
+        {
+            int[] range = heightMap == null ? null : heightMap.get(entry.getValue());
+
+            if (range != null && (range.length < 2 || range[0] > range[1]))
+            {
+                // Object cannot be generated at any height.
+                weights[values.size()] = 0.0;
+                range = null;
+            }
+            else
+            {
+                weights[values.size()] = entry.getKey() - previousKey;
+            }
+
+            previousKey = Math.max(previousKey, entry.getKey());
+
+            values.add(entry.getValue());
+            ranges.add(range);
+        }
+
+        // Each range edge inside generator range starts a new band.
+        TreeSet<Integer> edges = new TreeSet<>();
+        edges.add(minHeight);
+
+        for (int[] range : ranges)
+        {
+            if (range != null)
+            {
+                if (range[0] > minHeight && range[0] <= maxHeight)
+                {
+                    edges.add(range[0]);
+                }
+
+                long end = range[1] + 1L;
+
+                if (end > minHeight && end <= maxHeight)
+                {
+                    edges.add((int) end);
+                }
+            }
+        }
+
+        Integer[] edgeArray = edges.toArray(new Integer[0]);
+
+        List<Integer> bandStarts = new ArrayList<>(edgeArray.length);
+        List<AliasSampler<T>> samplers = new ArrayList<>(edgeArray.length);
+        double[] previousBandWeights = null;
+
+        for (int index = 0; index < edgeArray.length; index++)
+        {
+            int bandMin = edgeArray[index];
+            int bandMax = index + 1 < edgeArray.length ? edgeArray[index + 1] - 1 : maxHeight;
+
+            double[] bandWeights = new double[weights.length];
+
+            for (int i = 0; i < weights.length; i++)
+            {
+                int[] range = ranges.get(i);
+
+                // Bands are split on every range edge, so band is either fully inside or outside the range.
+                if (range == null || range[0] <= bandMin && bandMax <= range[1])
+                {
+                    bandWeights[i] = weights[i];
+                }
+            }
+
+            if (previousBandWeights != null && Arrays.equals(previousBandWeights, bandWeights))
+            {
+                // Merge with previous band, as it generates the same objects.
+                continue;
+            }
+
+            bandStarts.add(bandMin);
+            samplers.add(AliasSampler.fromWeights(values, bandWeights));
+            previousBandWeights = bandWeights;
+        }
+
+        return new HeightBandSampler<>(minHeight,
+            maxHeight,
+            bandStarts.stream().mapToInt(Integer::intValue).toArray(),
+            samplers);
+    }
+
+
+    /**
+     * This method returns sampler that operates at given height.
+     *
+     * @param height Height of the block.
+     * @return AliasSampler for given height or null, if height is outside generator range.
+     */
+    public @Nullable AliasSampler<T> getSampler(int height)
+    {
+        if (height < this.minHeight || height > this.maxHeight || this.bandStarts.length == 0)
+        {
+            return null;
+        }
+
+        int index = Arrays.binarySearch(this.bandStarts, height);
+
+        // Negative index means insertion point, so band is the one before it.
+        return this.samplers.get(index >= 0 ? index : -index - 2);
+    }
+
+
+    /**
+     * This method returns number of height bands.
+     *
+     * @return Number of bands.
+     */
+    public int getBandCount()
+    {
+        return this.bandStarts.length;
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Variables
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * Minimal height where sampler operates.
+     */
+    private final int minHeight;
+
+    /**
+     * Maximal height where sampler operates.
+     */
+    private final int maxHeight;
+
+    /**
+     * Sorted start heights of each band.
+     */
+    private final int[] bandStarts;
+
+    /**
+     * Sampler for each band.
+     */
+    private final List<AliasSampler<T>> samplers;
+}
@@ -0,0 +1,135 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * This class assigns dense integer ids to string ids, so sets of string ids can be stored as bit sets. Ids are never
+ * released, so an integer id stays valid for the whole server run.
+ * <p>
+ * Interner can be used from any thread. Lookups do not lock, while new ids are assigned by a single thread at a time.
+ */
+public class IdInterner
+{
+    /**
+     * Creates a new empty interner.
+     */
+    public IdInterner()
+    {
+        this.indexes = new ConcurrentHashMap<>();
+        this.values = new ArrayList<>();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns integer id for given string id. New id is assigned if string id is not known yet.
+     *
+     * @param value String id.
+     * @return Integer id of given string id.
+     */
+    public int intern(String value)
+    {
+        Integer index = this.indexes.get(value);
+
+        if (index != null)
+        {
+            return index;
+        }
+
+        synchronized (this.values)
+        {
+            return this.indexes.computeIfAbsent(value, key -> {
+                this.values.add(key);
+                return this.values.size() - 1;
+            });
+        }
+    }
+
+
+    /**
+     * This method returns integer id for given string id without assigning a new one.
+     *
+     * @param value String id.
+     * @return Integer id of given string id, or -1 if it is not known.
+     */
+    public int indexOf(@Nullable String value)
+    {
+        Integer index = value == null ? null : this.indexes.get(value);
+        return index == null ? -1 : index;
+    }
+
+
+    /**
+     * This method returns string id for given integer id.
+     *
+     * @param index Integer id.
+     * @return String id, or null if integer id is not assigned.
+     */
+    public @Nullable String get(int index)
+    {
+        synchronized (this.values)
+        {
+            return index >= 0 && index < this.values.size() ? this.values.get(index) : null;
+        }
+    }
+
+
+    /**
+     * This method returns bit set that contains integer ids of given string ids. String ids that are not known yet
+     * are interned, so the bit set stays valid when they become known later.
+     *
+     * @param values String ids.
+     * @return Bit set with integer ids.
+     */
+    public BitSet toBits(Collection<String> values)
+    {
+        BitSet bits = new BitSet();
+
+        values.forEach(value -> {
+            if (value != null)
+            {
+                bits.set(this.intern(value));
+            }
+        });
+
+        return bits;
+    }
+
+
+    /**
+     * @return number of assigned ids.
+     */
+    public int size()
+    {
+        return this.indexes.size();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Integer id for each string id.
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * String id for each integer id. It is guarded by itself.
+     */
+    private final List<String> values;
+}
@@ -0,0 +1,418 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * This class is a string keyed cache that is limited by size and evicts entries that are not accessed for a while.
+ * When cache is over its size limit, least recently used entry from a small sample of entries is evicted, so eviction
+ * does not need to sort the whole cache. Pinned entries are never evicted. Evicted entries are passed to eviction
+ * listener, which can write them back to database.
+ * <p>
+ * Cache can be used from any thread. Lookups do not lock, while evictions are done by a single thread at a time.
+ * Null keys are never cached.
+ *
+ * @param <V> Type of cached values.
+ */
+public class IdleEvictingCache<V>
+{
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize Supplier of maximal number of entries. 0 or less means no limit.
+     * @param idleTime Supplier of time in milliseconds after which not accessed entries are evicted. 0 or less means
+     * entries are not evicted by idle time.
+     * @param pinned Predicate that returns if entry with given key must not be evicted.
+     * @param evictionListener Listener that is called for each evicted entry.
+     */
+    public IdleEvictingCache(IntSupplier maximumSize,
+        LongSupplier idleTime,
+        Predicate<String> pinned,
+        BiConsumer<String, V> evictionListener)
+    {
+        this.maximumSize = maximumSize;
+        this.idleTime = idleTime;
+        this.pinned = pinned;
+        this.evictionListener = evictionListener;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns value for given key and marks it as accessed.
+     *
+     * @param key Key of the value.
+     * @return Value for given key, or null if it is not cached.
+     */
+    public @Nullable V get(@Nullable String key)
+    {
+        Entry<V> entry = key == null ? null : this.entries.get(key);
+
+        if (entry == null)
+        {
+            this.missCount.increment();
+            return null;
+        }
+
+        this.hitCount.increment();
+        entry.lastAccess = System.currentTimeMillis();
+
+        return entry.value;
+    }
+
+
+    /**
+     * This method returns if given key is cached. It does not mark entry as accessed.
+     *
+     * @param key Key of the value.
+     * @return {@code true} if key is cached.
+     */
+    public boolean containsKey(@Nullable String key)
+    {
+        return key != null && this.entries.containsKey(key);
+    }
+
+
+    /**
+     * This method stores value for given key. If cache is over its size limit, then sampled least recently used
+     * entries that are not pinned are evicted. Some extra entries are evicted together, so the next puts do not need to evict
+     * again.
+     *
+     * @param key Key of the value.
+     * @param value Value that must be stored.
+     * @return Previous value for given key, or null.
+     */
+    public @Nullable V put(@Nullable String key, V value)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+
+        Entry<V> previous = this.entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+
+        int limit = this.maximumSize.getAsInt();
+
+        if (limit > 0 && this.entries.size() > limit)
+        {
+            this.evictOverLimit(limit, key);
+        }
+
+        return previous == null ? null : previous.value;
+    }
+
+
+    /**
+     * This method removes value for given key. Removed entry is not passed to eviction listener.
+     *
+     * @param key Key of the value.
+     * @return Removed value, or null.
+     */
+    public @Nullable V remove(@Nullable String key)
+    {
+        Entry<V> entry = key == null ? null : this.entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+
+    /**
+     * This method evicts entries that are not accessed for longer than idle time.
+     */
+    public void evictIdle()
+    {
+        long idle = this.idleTime.getAsLong();
+
+        if (idle <= 0)
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Entry<V>>> evicted = new ArrayList<>();
+
+        synchronized (this.evictionLock)
+        {
+            this.entries.entrySet().forEach(entry -> {
+                if (now - entry.getValue().lastAccess > idle &&
+                    !this.pinned.test(entry.getKey()) &&
+                    this.entries.remove(entry.getKey(), entry.getValue()))
+                {
+                    evicted.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            });
+        }
+
+        this.notifyEvicted(evicted);
+    }
+
+
+    /**
+     * This method evicts entries that are not pinned until cache is below its size limit. Each evicted entry is the
+     * least recently used one from the next few entries, and only that entry is checked if it is pinned.
+     *
+     * @param limit Maximal number of entries.
+     * @param skipKey Key that must not be evicted.
+     */
+    private void evictOverLimit(int limit, String skipKey)
+    {
+        List<Map.Entry<String, Entry<V>>> evicted = new ArrayList<>();
+
+        synchronized (this.evictionLock)
+        {
+            if (this.entries.size() <= limit)
+            {
+                // Other thread already evicted entries.
+                return;
+            }
+
+            int target = limit - limit / 16;
+
+            // Each entry is sampled at most twice, so pinned entries cannot block eviction forever.
+            int remainingSamples = this.entries.size() * 2;
+
+            while (this.entries.size() > target && remainingSamples > 0)
+            {
+                Map.Entry<String, Entry<V>> candidate = null;
+
+                for (int i = 0; i < SAMPLE_SIZE && remainingSamples > 0; i++, remainingSamples--)
+                {
+                    Map.Entry<String, Entry<V>> sample = this.nextSample();
+
+                    if (sample != null &&
+                        !sample.getKey().equals(skipKey) &&
+                        (candidate == null || sample.getValue().lastAccess < candidate.getValue().lastAccess))
+                    {
+                        candidate = sample;
+                    }
+                }
+
+                if (candidate != null &&
+                    !this.pinned.test(candidate.getKey()) &&
+                    this.entries.remove(candidate.getKey(), candidate.getValue()))
+                {
+                    evicted.add(candidate);
+                }
+            }
+        }
+
+        this.notifyEvicted(evicted);
+    }
+
+
+    /**
+     * This method returns the next entry for eviction sampling. Sampling continues where previous eviction stopped,
+     * so all entries are sampled in turns. It must be called while eviction lock is held.
+     *
+     * @return Next cached entry, or null if cache is empty.
+     */
+    private @Nullable Map.Entry<String, Entry<V>> nextSample()
+    {
+        if (this.sampleCursor == null || !this.sampleCursor.hasNext())
+        {
+            this.sampleCursor = this.entries.entrySet().iterator();
+
+            if (!this.sampleCursor.hasNext())
+            {
+                return null;
+            }
+        }
+
+        return this.sampleCursor.next();
+    }
+
+
+    /**
+     * This method counts evicted entries and passes them to eviction listener. Listener is called outside eviction
+     * lock, so it can access the cache.
+     *
+     * @param evicted Evicted entries.
+     */
+    private void notifyEvicted(List<Map.Entry<String, Entry<V>>> evicted)
+    {
+        this.evictionCount.add(evicted.size());
+        evicted.forEach(entry -> this.evictionListener.accept(entry.getKey(), entry.getValue().value));
+    }
+
+
+    /**
+     * @return copy of cached values.
+     */
+    public Collection<V> values()
+    {
+        List<V> values = new ArrayList<>(this.entries.size());
+        this.entries.values().forEach(entry -> values.add(entry.value));
+        return values;
+    }
+
+
+    /**
+     * @return unmodifiable view of cached keys.
+     */
+    public Set<String> keySet()
+    {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+
+    /**
+     * This method removes all entries without calling eviction listener.
+     */
+    public void clear()
+    {
+        this.entries.clear();
+    }
+
+
+    /**
+     * @return number of cached entries.
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+
+    /**
+     * @return number of lookups that found a value.
+     */
+    public long getHitCount()
+    {
+        return this.hitCount.sum();
+    }
+
+
+    /**
+     * @return number of lookups that did not find a value.
+     */
+    public long getMissCount()
+    {
+        return this.missCount.sum();
+    }
+
+
+    /**
+     * @return number of evicted entries.
+     */
+    public long getEvictionCount()
+    {
+        return this.evictionCount.sum();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds cached value with its last access time.
+     *
+     * @param <V> Type of cached value.
+     */
+    private static class Entry<V>
+    {
+        /**
+         * Creates cache entry.
+         *
+         * @param value Cached value.
+         * @param lastAccess Time when value was accessed.
+         */
+        private Entry(V value, long lastAccess)
+        {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+
+
+        /**
+         * Cached value.
+         */
+        private final V value;
+
+        /**
+         * Time when value was accessed last time.
+         */
+        private volatile long lastAccess;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Number of entries that are compared for each eviction.
+     */
+    private static final int SAMPLE_SIZE = 5;
+
+    /**
+     * Cached entries.
+     */
+    private final Map<String, Entry<V>> entries;
+
+    /**
+     * Lock that allows only one thread to evict entries.
+     */
+    private final Object evictionLock = new Object();
+
+    /**
+     * Iterator over cached entries where eviction sampling continues. It is used only while eviction lock is held.
+     */
+    private Iterator<Map.Entry<String, Entry<V>>> sampleCursor;
+
+    /**
+     * Supplier of maximal number of entries.
+     */
+    private final IntSupplier maximumSize;
+
+    /**
+     * Supplier of idle time in milliseconds.
+     */
+    private final LongSupplier idleTime;
+
+    /**
+     * Predicate that returns if entry must not be evicted.
+     */
+    private final Predicate<String> pinned;
+
+    /**
+     * Listener for evicted entries.
+     */
+    private final BiConsumer<String, V> evictionListener;
+
+    /**
+     * Number of lookups that found a value.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Number of lookups that did not find a value.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Number of evicted entries.
+     */
+    private final LongAdder evictionCount = new LongAdder();
+}
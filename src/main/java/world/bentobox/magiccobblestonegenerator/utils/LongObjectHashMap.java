@@ -0,0 +1,316 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * Small open addressing hash map with primitive long keys. It is used for chunk and block position keyed caches, so
+ * lookups do not box keys. This map is not thread-safe.
+ *
+ * @param <V> Type of values.
+ */
+public class LongObjectHashMap<V>
+{
+    /**
+     * Creates empty map with default capacity.
+     */
+    public LongObjectHashMap()
+    {
+        this(16);
+    }
+
+
+    /**
+     * Creates empty map that can hold given number of entries without resizing.
+     *
+     * @param expectedSize Expected number of entries.
+     */
+    public LongObjectHashMap(int expectedSize)
+    {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+
+    /**
+     * This method returns value for given key.
+     *
+     * @param key Key of the value.
+     * @return Value or null, if map does not contain given key.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long key)
+    {
+        int mask = this.keys.length - 1;
+        int index = LongObjectHashMap.hash(key) & mask;
+
+        while (this.values[index] != null)
+        {
+            if (this.keys[index] == key)
+            {
+                return (V) this.values[index];
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+
+    /**
+     * This method returns if map contains given key.
+     *
+     * @param key Key that must be checked.
+     * @return {@code true} if map contains key, {@code false} otherwise.
+     */
+    public boolean containsKey(long key)
+    {
+        return this.get(key) != null;
+    }
+
+
+    /**
+     * This method puts given value in the map.
+     *
+     * @param key Key of the value.
+     * @param value Value, cannot be null.
+     * @return Previous value or null.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(long key, V value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("LongObjectHashMap does not support null values");
+        }
+
+        int mask = this.keys.length - 1;
+        int index = LongObjectHashMap.hash(key) & mask;
+
+        while (this.values[index] != null)
+        {
+            if (this.keys[index] == key)
+            {
+                V previous = (V) this.values[index];
+                this.values[index] = value;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+
+        if (++this.size > this.keys.length * LOAD_FACTOR)
+        {
+            this.resize(this.keys.length << 1);
+        }
+
+        return null;
+    }
+
+
+    /**
+     * This method removes value with given key from the map.
+     *
+     * @param key Key of the value.
+     * @return Removed value or null.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(long key)
+    {
+        int mask = this.keys.length - 1;
+        int index = LongObjectHashMap.hash(key) & mask;
+
+        while (this.values[index] != null)
+        {
+            if (this.keys[index] == key)
+            {
+                V previous = (V) this.values[index];
+                this.deleteSlot(index);
+                this.size--;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+
+    /**
+     * This method returns number of entries in the map.
+     *
+     * @return Number of entries.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+
+    /**
+     * This method returns if map is empty.
+     *
+     * @return {@code true} if map is empty, {@code false} otherwise.
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+
+    /**
+     * This method removes all entries from the map.
+     */
+    public void clear()
+    {
+        if (this.size > 0)
+        {
+            Arrays.fill(this.values, null);
+            this.size = 0;
+        }
+    }
+
+
+    /**
+     * This method removes all entries which value matches given filter.
+     *
+     * @param filter Filter that returns true for values that must be removed.
+     * @return Number of removed entries.
+     */
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<V> filter)
+    {
+        int removed = 0;
+        int index = 0;
+
+        while (index < this.values.length)
+        {
+            if (this.values[index] != null && filter.test((V) this.values[index]))
+            {
+                // Slot is refilled by shifted entry, so it must be checked again.
+                this.deleteSlot(index);
+                this.size--;
+                removed++;
+            }
+            else
+            {
+                index++;
+            }
+        }
+
+        return removed;
+    }
+
+
+    /**
+     * This method empties given slot and shifts back following entries, so probing chains are not broken.
+     *
+     * @param slot Slot that must be emptied.
+     */
+    private void deleteSlot(int slot)
+    {
+        int mask = this.keys.length - 1;
+        int gap = slot;
+        int index = (slot + 1) & mask;
+
+        while (this.values[index] != null)
+        {
+            int home = LongObjectHashMap.hash(this.keys[index]) & mask;
+
+            // Entry can be moved into gap only if gap is between its home slot and its current slot.
+            if (((index - home) & mask) >= ((index - gap) & mask))
+            {
+                this.keys[gap] = this.keys[index];
+                this.values[gap] = this.values[index];
+                gap = index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.values[gap] = null;
+    }
+
+
+    /**
+     * This method rehashes all entries into new arrays.
+     *
+     * @param capacity New capacity, must be power of two.
+     */
+    private void resize(int capacity)
+    {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+
+        int mask = capacity - 1;
+
+        for (int i = 0; i < oldValues.length; i++)
+        {
+            if (oldValues[i] != null)
+            {
+                int index = LongObjectHashMap.hash(oldKeys[i]) & mask;
+
+                while (this.values[index] != null)
+                {
+                    index = (index + 1) & mask;
+                }
+
+                this.keys[index] = oldKeys[i];
+                this.values[index] = oldValues[i];
+            }
+        }
+    }
+
+
+    /**
+     * This method spreads key bits, so packed coordinates are distributed evenly.
+     *
+     * @param key Key.
+     * @return Hash of the key.
+     */
+    private static int hash(long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Variables
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * Maximal part of slots that can be filled before map is resized.
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * Array of keys.
+     */
+    private long[] keys;
+
+    /**
+     * Array of values. Null value marks empty slot.
+     */
+    private Object[] values;
+
+    /**
+     * Number of entries in the map.
+     */
+    private int size;
+}
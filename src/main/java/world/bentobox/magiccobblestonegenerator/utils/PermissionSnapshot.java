@@ -0,0 +1,169 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import world.bentobox.bentobox.api.user.User;
+
+
+/**
+ * This class remembers permission checks of a player. Each permission and permission prefix value is checked with
+ * the same BentoBox and Bukkit methods that were used before, but only on the first request, so repeated checks do
+ * not walk permission attachments again.
+ * <p>
+ * Snapshot does not follow permission changes, so it must be replaced when permissions may be changed.
+ */
+public class PermissionSnapshot
+{
+    /**
+     * Creates permission snapshot.
+     *
+     * @param user User which permission checks must be remembered.
+     */
+    private PermissionSnapshot(User user)
+    {
+        this.user = user;
+        this.op = user.isOp();
+        this.createdAt = System.currentTimeMillis();
+    }
+
+
+    /**
+     * This method creates snapshot of given user permissions.
+     *
+     * @param user User which permission checks must be remembered.
+     * @return PermissionSnapshot of given user.
+     */
+    public static PermissionSnapshot of(User user)
+    {
+        return new PermissionSnapshot(user);
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method gets string value of given permission prefix. If player does not have given permission or it have
+     * all (*), then return default value.
+     *
+     * @param permissionPrefix Prefix that need to be found.
+     * @param defaultValue Default value that will be returned if permission not found.
+     * @return String value that follows permissionPrefix.
+     */
+    public String getValue(String permissionPrefix, String defaultValue)
+    {
+        return this.stringValues.computeIfAbsent(new ValueKey(permissionPrefix, defaultValue),
+            key -> Optional.ofNullable(Utils.getPermissionValue(this.user, permissionPrefix, defaultValue))).
+            orElse(null);
+    }
+
+
+    /**
+     * This method gets integer value of given permission prefix. If player does not have given permission or it have
+     * all (*), then return default value.
+     *
+     * @param permissionPrefix Prefix that need to be found.
+     * @param defaultValue Default value that will be returned if permission not found.
+     * @return Integer value that follows permissionPrefix.
+     */
+    public int getValue(String permissionPrefix, int defaultValue)
+    {
+        return this.intValues.computeIfAbsent(new ValueKey(permissionPrefix, defaultValue),
+            key -> Utils.getPermissionValue(this.user, permissionPrefix, defaultValue));
+    }
+
+
+    /**
+     * This method returns if player has all given permissions.
+     *
+     * @param requiredPermissions Permissions that must be checked.
+     * @return {@code true} if player has all required permissions, {@code false} otherwise.
+     */
+    public boolean hasAllPermissions(Collection<String> requiredPermissions)
+    {
+        if (requiredPermissions.isEmpty() || this.op)
+        {
+            return true;
+        }
+
+        for (String permission : requiredPermissions)
+        {
+            if (!this.permissions.computeIfAbsent(permission, this.user::hasPermission))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * This method returns if snapshot is older than given time.
+     *
+     * @param maxAge Time in milliseconds.
+     * @return {@code true} if snapshot was created more than maxAge milliseconds ago.
+     */
+    public boolean isOlderThan(long maxAge)
+    {
+        return System.currentTimeMillis() - this.createdAt > maxAge;
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Permission prefix with default value, as returned value depends on both.
+     *
+     * @param permissionPrefix Permission prefix.
+     * @param defaultValue Default value of permission prefix.
+     */
+    private record ValueKey(String permissionPrefix, Object defaultValue)
+    {
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * User which permission checks are remembered.
+     */
+    private final User user;
+
+    /**
+     * Indicates if player is an operator.
+     */
+    private final boolean op;
+
+    /**
+     * Time when snapshot was created.
+     */
+    private final long createdAt;
+
+    /**
+     * Result of permission check for each checked permission.
+     */
+    private final Map<String, Boolean> permissions = new ConcurrentHashMap<>();
+
+    /**
+     * String values for each permission prefix. Empty optional means that value is null.
+     */
+    private final Map<ValueKey, Optional<String>> stringValues = new ConcurrentHashMap<>();
+
+    /**
+     * Integer values for each permission prefix.
+     */
+    private final Map<ValueKey, Integer> intValues = new ConcurrentHashMap<>();
+}
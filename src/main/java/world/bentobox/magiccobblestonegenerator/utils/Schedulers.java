@@ -0,0 +1,298 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * This class runs tasks on the thread that owns them. On region threaded servers (Folia) each region of the world is
+ * ticked by its own thread, so tasks that change blocks or entities must run on the region that owns given location,
+ * while other tasks run on global region or asynchronously. On other servers all tasks run on the main thread.
+ * <p>
+ * Region schedulers are not part of Spigot API, so they are accessed by reflection.
+ */
+public final class Schedulers
+{
+    /**
+     * Utility class.
+     */
+    private Schedulers()
+    {
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Methods
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns if server ticks regions with multiple threads.
+     *
+     * @return {@code true} if server is region threaded.
+     */
+    public static boolean isRegionThreading()
+    {
+        return REGION_THREADING;
+    }
+
+
+    /**
+     * This method runs task on the thread that owns given location. If current thread owns it, then task is run
+     * immediately.
+     *
+     * @param plugin Plugin that owns the task.
+     * @param location Location which owner must run the task.
+     * @param task Task that must be run.
+     */
+    public static void runAt(@NotNull Plugin plugin, @NotNull Location location, @NotNull Runnable task)
+    {
+        if (!REGION_THREADING)
+        {
+            if (Bukkit.isPrimaryThread())
+            {
+                task.run();
+            }
+            else
+            {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+
+            return;
+        }
+
+        try
+        {
+            if ((Boolean) IS_OWNED_BY_CURRENT_REGION.invoke(null, location))
+            {
+                task.run();
+            }
+            else
+            {
+                REGION_EXECUTE.invoke(GET_REGION_SCHEDULER.invoke(null), plugin, location, task);
+            }
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Could not schedule region task", e);
+        }
+    }
+
+
+    /**
+     * This method runs task on the main thread, or on global region if server is region threaded. Task is run in the
+     * next tick.
+     *
+     * @param plugin Plugin that owns the task.
+     * @param task Task that must be run.
+     */
+    public static void runGlobal(@NotNull Plugin plugin, @NotNull Runnable task)
+    {
+        if (!REGION_THREADING)
+        {
+            Bukkit.getScheduler().runTask(plugin, task);
+            return;
+        }
+
+        try
+        {
+            GLOBAL_EXECUTE.invoke(GET_GLOBAL_REGION_SCHEDULER.invoke(null), plugin, task);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Could not schedule global task", e);
+        }
+    }
+
+
+    /**
+     * This method runs task repeatedly on the main thread, or on global region if server is region threaded.
+     *
+     * @param plugin Plugin that owns the task.
+     * @param task Task that must be run.
+     * @param delay Ticks before the first run.
+     * @param period Ticks between runs.
+     * @return Task that can be cancelled.
+     */
+    public static Task runTimer(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period)
+    {
+        if (!REGION_THREADING)
+        {
+            BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period);
+            return bukkitTask::cancel;
+        }
+
+        try
+        {
+            Consumer<Object> consumer = scheduledTask -> task.run();
+            Object scheduledTask = GLOBAL_RUN_AT_FIXED_RATE.invoke(GET_GLOBAL_REGION_SCHEDULER.invoke(null),
+                plugin,
+                consumer,
+                Math.max(1, delay),
+                period);
+            Method cancel = scheduledTask.getClass().getMethod("cancel");
+
+            return () -> {
+                try
+                {
+                    cancel.invoke(scheduledTask);
+                }
+                catch (ReflectiveOperationException e)
+                {
+                    throw new IllegalStateException("Could not cancel global task", e);
+                }
+            };
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Could not schedule global task", e);
+        }
+    }
+
+
+    /**
+     * This method runs task asynchronously.
+     *
+     * @param plugin Plugin that owns the task.
+     * @param task Task that must be run.
+     */
+    public static void runAsync(@NotNull Plugin plugin, @NotNull Runnable task)
+    {
+        if (!REGION_THREADING)
+        {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+            return;
+        }
+
+        try
+        {
+            Consumer<Object> consumer = scheduledTask -> task.run();
+            ASYNC_RUN_NOW.invoke(GET_ASYNC_SCHEDULER.invoke(null), plugin, consumer);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Could not schedule asynchronous task", e);
+        }
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Classes
+// ---------------------------------------------------------------------
+
+
+    /**
+     * This interface represents a scheduled repeating task.
+     */
+    @FunctionalInterface
+    public interface Task
+    {
+        /**
+         * This method stops the task.
+         */
+        void cancel();
+    }
+
+
+// ---------------------------------------------------------------------
+// Section: Variables
+// ---------------------------------------------------------------------
+
+
+    /**
+     * Bukkit#isOwnedByCurrentRegion(Location) method.
+     */
+    private static final Method IS_OWNED_BY_CURRENT_REGION;
+
+    /**
+     * Bukkit#getRegionScheduler() method.
+     */
+    private static final Method GET_REGION_SCHEDULER;
+
+    /**
+     * RegionScheduler#execute(Plugin, Location, Runnable) method.
+     */
+    private static final Method REGION_EXECUTE;
+
+    /**
+     * Bukkit#getGlobalRegionScheduler() method.
+     */
+    private static final Method GET_GLOBAL_REGION_SCHEDULER;
+
+    /**
+     * GlobalRegionScheduler#execute(Plugin, Runnable) method.
+     */
+    private static final Method GLOBAL_EXECUTE;
+
+    /**
+     * GlobalRegionScheduler#runAtFixedRate(Plugin, Consumer, long, long) method.
+     */
+    private static final Method GLOBAL_RUN_AT_FIXED_RATE;
+
+    /**
+     * Bukkit#getAsyncScheduler() method.
+     */
+    private static final Method GET_ASYNC_SCHEDULER;
+
+    /**
+     * AsyncScheduler#runNow(Plugin, Consumer) method.
+     */
+    private static final Method ASYNC_RUN_NOW;
+
+    /**
+     * Indicates if server is region threaded.
+     */
+    private static final boolean REGION_THREADING;
+
+    static
+    {
+        Method isOwned = null;
+        Method getRegionScheduler = null;
+        Method regionExecute = null;
+        Method getGlobalRegionScheduler = null;
+        Method globalExecute = null;
+        Method globalRunAtFixedRate = null;
+        Method getAsyncScheduler = null;
+        Method asyncRunNow = null;
+        boolean regionThreading;
+
+        try
+        {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+
+            isOwned = Bukkit.class.getMethod("isOwnedByCurrentRegion", Location.class);
+            getRegionScheduler = Bukkit.class.getMethod("getRegionScheduler");
+            regionExecute = getRegionScheduler.getReturnType().
+                getMethod("execute", Plugin.class, Location.class, Runnable.class);
+            getGlobalRegionScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler");
+            globalExecute = getGlobalRegionScheduler.getReturnType().
+                getMethod("execute", Plugin.class, Runnable.class);
+            globalRunAtFixedRate = getGlobalRegionScheduler.getReturnType().
+                getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+            getAsyncScheduler = Bukkit.class.getMethod("getAsyncScheduler");
+            asyncRunNow = getAsyncScheduler.getReturnType().getMethod("runNow", Plugin.class, Consumer.class);
+            regionThreading = true;
+        }
+        catch (ClassNotFoundException | NoSuchMethodException e)
+        {
+            regionThreading = false;
+        }
+
+        IS_OWNED_BY_CURRENT_REGION = isOwned;
+        GET_REGION_SCHEDULER = getRegionScheduler;
+        REGION_EXECUTE = regionExecute;
+        GET_GLOBAL_REGION_SCHEDULER = getGlobalRegionScheduler;
+        GLOBAL_EXECUTE = globalExecute;
+        GLOBAL_RUN_AT_FIXED_RATE = globalRunAtFixedRate;
+        GET_ASYNC_SCHEDULER = getAsyncScheduler;
+        ASYNC_RUN_NOW = asyncRunNow;
+        REGION_THREADING = regionThreading;
+    }
+}
@@ -377,6 +377,34 @@ public class Utils
     }
 
 
+    /**
+     * This method packs chunk coordinates into single long value.
+     *
+     * @param chunkX Chunk X coordinate.
+     * @param chunkZ Chunk Z coordinate.
+     * @return Packed chunk key.
+     */
+    public static long getChunkKey(int chunkX, int chunkZ)
+    {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+
+    /**
+     * This method packs block coordinates into single long value. X and Z use 26 bits and Y uses 12 bits, which
+     * covers whole world border and build height.
+     *
+     * @param x Block X coordinate.
+     * @param y Block Y coordinate.
+     * @param z Block Z coordinate.
+     * @return Packed block key.
+     */
+    public static long getBlockKey(int x, int y, int z)
+    {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+
 // ---------------------------------------------------------------------
 // Section: Biome Type Resolver
 // ---------------------------------------------------------------------
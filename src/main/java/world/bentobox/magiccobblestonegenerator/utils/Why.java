@@ -7,15 +7,19 @@
 package world.bentobox.magiccobblestonegenerator.utils;
 
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.bukkit.Location;
-import org.bukkit.metadata.MetadataValue;
+import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import world.bentobox.bentobox.BentoBox;
-import world.bentobox.bentobox.api.addons.Addon;
 import world.bentobox.bentobox.api.user.User;
 import world.bentobox.bentobox.database.objects.Island;
 import world.bentobox.bentobox.util.Util;
@@ -23,75 +27,516 @@ import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
 
 
 /**
- * Separate class that manages reports from Why Command.
+ * Separate class that manages reports from Why Command. Reports are collected only for islands that are traced, so
+ * when nobody is tracing, each check is a single field read and messages are never built.
  */
 public class Why
 {
+    /**
+     * Private constructor, as this class contains only static methods.
+     */
+    private Why()
+    {
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Checks
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * This method returns if anyone is tracing generator in given world.
+     *
+     * @param world World that must be checked.
+     * @return {@code true} if at least one island in given world is traced, {@code false} otherwise.
+     */
+    public static boolean isTracing(@Nullable World world)
+    {
+        return Why.tracing && world != null && Why.TRACED_WORLDS.containsKey(world.getName());
+    }
+
+
+    /**
+     * This method returns if anyone is tracing generator on given island.
+     *
+     * @param island Island that must be checked.
+     * @return {@code true} if island is traced, {@code false} otherwise.
+     */
+    public static boolean isTracing(@Nullable Island island)
+    {
+        if (!Why.tracing || island == null)
+        {
+            return false;
+        }
+
+        TraceBuffer buffer = Why.TRACE_BUFFERS.get(island.getUniqueId());
+        return buffer != null && buffer.active;
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Reports
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * This method reports decision at given location. Island lookup happens only if someone is tracing given world.
+     *
+     * @param location Location where something is happening.
+     * @param why Reason and its value for why.
+     */
     public static void report(@NotNull Location location, String why)
     {
-        BentoBox.getInstance().getIslands().getIslandAt(location).ifPresent(island -> {
-            if (island.getOwner() != null)
-            {
-                User owner = User.getInstance(island.getOwner());
-                Why.report(StoneGeneratorAddon.getInstance(), owner, location, why);
-            }
-        });
+        if (Why.isTracing(location.getWorld()))
+        {
+            StoneGeneratorAddon.getInstance().getIslandLookupCache().getIslandAt(location).ifPresent(island ->
+                Why.record(island, location, null, why));
+        }
     }
 
 
-    public static void report(@NotNull Island island, Location location, String why)
+    /**
+     * This method reports decision at given location. Message is built only if someone is tracing given world.
+     *
+     * @param location Location where something is happening.
+     * @param why Supplier for reason and its value for why.
+     */
+    public static void report(@NotNull Location location, Supplier<String> why)
     {
-        if (island.getOwner() != null)
+        if (Why.isTracing(location.getWorld()))
         {
-            User owner = User.getInstance(island.getOwner());
-            Why.report(StoneGeneratorAddon.getInstance(), owner, location, why);
+            StoneGeneratorAddon.getInstance().getIslandLookupCache().getIslandAt(location).ifPresent(island ->
+                Why.record(island, location, null, why.get()));
         }
     }
 
 
     /**
-     * This method prints debug messages about specific user.
+     * This method reports decision on given island.
      *
-     * @param addon Addon which are called
-     * @param user User who calls the command.
+     * @param island Island where something is happening.
      * @param location Location where something is happening.
      * @param why Reason and its value for why.
      */
-    public static void report(Addon addon, @Nullable User user, @NotNull Location location, String why)
+    public static void report(@Nullable Island island, @NotNull Location location, String why)
     {
-        // A quick way to debug flag listener unit tests is to add this line here: System.out.println(why.name()); NOSONAR
-        if (user != null &&
-            user.isPlayer() &&
-            user.getPlayer().getMetadata(location.getWorld().getName() + "_why_debug_generator").stream().
-                filter(p -> p.getOwningPlugin().equals(addon.getPlugin())).
-                findFirst().map(MetadataValue::asBoolean).
-                orElse(false))
-        {
-            String whyEvent = "Why: MagicCobblestoneGenerator in world " + location.getWorld().getName() + " at " +
-                Util.xyz(location.toVector());
-            String whyBypass = "Why: " + user.getName() + " - " + why;
-
-            addon.log(whyEvent);
-            addon.log(whyBypass);
-
-            // See if there is a player that issued the debug
-            String issuerUUID =
-                user.getPlayer().getMetadata(location.getWorld().getName() + "_why_debug_generator_issuer").stream().
-                    filter(p -> addon.getPlugin().equals(p.getOwningPlugin())).
-                    findFirst().
-                    map(MetadataValue::asString).
-                    orElse("");
-
-            if (!issuerUUID.isEmpty())
+        if (Why.isTracing(island))
+        {
+            Why.record(island, location, null, why);
+        }
+    }
+
+
+    /**
+     * This method reports decision on given island. Message is built only if island is traced.
+     *
+     * @param island Island where something is happening.
+     * @param location Location where something is happening.
+     * @param why Supplier for reason and its value for why.
+     */
+    public static void report(@Nullable Island island, @NotNull Location location, Supplier<String> why)
+    {
+        if (Why.isTracing(island))
+        {
+            Why.record(island, location, null, why.get());
+        }
+    }
+
+
+    /**
+     * This method reports decision made by given generator tier on given island. Message is built only if island is
+     * traced.
+     *
+     * @param island Island where something is happening.
+     * @param location Location where something is happening.
+     * @param generatorTier Id of generator tier which made decision.
+     * @param why Supplier for reason and its value for why.
+     */
+    public static void report(@Nullable Island island,
+        @NotNull Location location,
+        @Nullable String generatorTier,
+        Supplier<String> why)
+    {
+        if (Why.isTracing(island))
+        {
+            Why.record(island, location, generatorTier, why.get());
+        }
+    }
+
+
+    /**
+     * This method stores decision record in island trace buffer and prints it to the console and to the issuer.
+     *
+     * @param island Island where something is happening.
+     * @param location Location where something is happening.
+     * @param generatorTier Id of generator tier which made decision.
+     * @param why Reason and its value for why.
+     */
+    private static void record(@NotNull Island island,
+        @NotNull Location location,
+        @Nullable String generatorTier,
+        String why)
+    {
+        TraceBuffer buffer = Why.TRACE_BUFFERS.get(island.getUniqueId());
+
+        if (buffer == null || !buffer.active)
+        {
+            return;
+        }
+
+        DecisionRecord decision = new DecisionRecord(System.currentTimeMillis(),
+            location.getWorld() == null ? "" : location.getWorld().getName(),
+            location.getBlockX(),
+            location.getBlockY(),
+            location.getBlockZ(),
+            generatorTier,
+            why);
+
+        buffer.add(decision);
+
+        String whyEvent = "Why: MagicCobblestoneGenerator in world " + decision.getWorld() + " at " +
+            Util.xyz(location.toVector());
+        String whyBypass = "Why: " +
+            (island.getOwner() == null ? island.getUniqueId() : User.getInstance(island.getOwner()).getName()) +
+            " - " + why;
+
+        StoneGeneratorAddon addon = StoneGeneratorAddon.getInstance();
+        addon.log(whyEvent);
+        addon.log(whyBypass);
+
+        // See if there is a player that issued the debug
+        if (buffer.issuer != null)
+        {
+            User issuer = User.getInstance(buffer.issuer);
+
+            if (issuer != null && issuer.isPlayer() && issuer.isOnline())
             {
-                User issuer = User.getInstance(UUID.fromString(issuerUUID));
+                issuer.sendRawMessage(whyEvent);
+                issuer.sendRawMessage(whyBypass);
+            }
+        }
+    }
+
 
-                if (issuer != null && issuer.isPlayer())
-                {
-                    user.sendRawMessage(whyEvent);
-                    user.sendRawMessage(whyBypass);
-                }
+    // ---------------------------------------------------------------------
+    // Section: Trace management
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * This method toggles tracing for given island.
+     *
+     * @param island Island which tracing must be toggled.
+     * @param world World in which island is located.
+     * @param issuer UUID of player who requested tracing, or null if it was console.
+     * @return {@code true} if tracing was turned on, {@code false} if it was turned off.
+     */
+    public static synchronized boolean toggleTracing(@NotNull Island island,
+        @NotNull World world,
+        @Nullable UUID issuer)
+    {
+        TraceBuffer buffer = Why.TRACE_BUFFERS.computeIfAbsent(island.getUniqueId(),
+            id -> new TraceBuffer(world.getName()));
+
+        buffer.issuer = issuer;
+        buffer.active = !buffer.active;
+
+        Why.updateTracedWorlds();
+
+        return buffer.active;
+    }
+
+
+    /**
+     * This method stops tracing for given island and removes all its decision records.
+     *
+     * @param islandId Id of island which tracing must be removed.
+     */
+    public static synchronized void clearTracing(@Nullable String islandId)
+    {
+        if (islandId != null && Why.TRACE_BUFFERS.remove(islandId) != null)
+        {
+            Why.updateTracedWorlds();
+        }
+    }
+
+
+    /**
+     * This method returns last decision records for given island, oldest first.
+     *
+     * @param island Island which records must be returned.
+     * @return List of last decision records.
+     */
+    public static List<DecisionRecord> getDecisionRecords(@NotNull Island island)
+    {
+        TraceBuffer buffer = Why.TRACE_BUFFERS.get(island.getUniqueId());
+        return buffer == null ? Collections.emptyList() : buffer.getRecords();
+    }
+
+
+    /**
+     * This method recalculates number of traced islands per world and global tracing flag.
+     */
+    private static void updateTracedWorlds()
+    {
+        Map<String, Integer> worldCounts = new ConcurrentHashMap<>();
+
+        Why.TRACE_BUFFERS.values().stream().
+            filter(buffer -> buffer.active).
+            forEach(buffer -> worldCounts.merge(buffer.world, 1, Integer::sum));
+
+        Why.TRACED_WORLDS.keySet().retainAll(worldCounts.keySet());
+        Why.TRACED_WORLDS.putAll(worldCounts);
+
+        Why.tracing = !worldCounts.isEmpty();
+    }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Classes
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * This class holds a single decision made by generator.
+     */
+    public static class DecisionRecord
+    {
+        /**
+         * Creates decision record.
+         *
+         * @param timestamp Time when decision was made.
+         * @param world Name of the world.
+         * @param x Block X coordinate.
+         * @param y Block Y coordinate.
+         * @param z Block Z coordinate.
+         * @param generatorTier Id of generator tier which made decision.
+         * @param message Decision message.
+         */
+        public DecisionRecord(long timestamp,
+            String world,
+            int x,
+            int y,
+            int z,
+            @Nullable String generatorTier,
+            String message)
+        {
+            this.timestamp = timestamp;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.generatorTier = generatorTier;
+            this.message = message;
+        }
+
+
+        /**
+         * @return the timestamp
+         */
+        public long getTimestamp()
+        {
+            return this.timestamp;
+        }
+
+
+        /**
+         * @return the world
+         */
+        public String getWorld()
+        {
+            return this.world;
+        }
+
+
+        /**
+         * @return the x
+         */
+        public int getX()
+        {
+            return this.x;
+        }
+
+
+        /**
+         * @return the y
+         */
+        public int getY()
+        {
+            return this.y;
+        }
+
+
+        /**
+         * @return the z
+         */
+        public int getZ()
+        {
+            return this.z;
+        }
+
+
+        /**
+         * @return the generator tier
+         */
+        @Nullable
+        public String getGeneratorTier()
+        {
+            return this.generatorTier;
+        }
+
+
+        /**
+         * @return the message
+         */
+        public String getMessage()
+        {
+            return this.message;
+        }
+
+
+        /**
+         * Time when decision was made.
+         */
+        private final long timestamp;
+
+        /**
+         * Name of the world where decision was made.
+         */
+        private final String world;
+
+        /**
+         * Block X coordinate.
+         */
+        private final int x;
+
+        /**
+         * Block Y coordinate.
+         */
+        private final int y;
+
+        /**
+         * Block Z coordinate.
+         */
+        private final int z;
+
+        /**
+         * Id of generator tier which made decision.
+         */
+        @Nullable
+        private final String generatorTier;
+
+        /**
+         * Decision message.
+         */
+        private final String message;
+    }
+
+
+    /**
+     * This class holds ring buffer with last decision records for single island.
+     */
+    private static class TraceBuffer
+    {
+        /**
+         * Creates empty trace buffer.
+         *
+         * @param world Name of the world where island is located.
+         */
+        private TraceBuffer(String world)
+        {
+            this.world = world;
+        }
+
+
+        /**
+         * This method adds decision record to the buffer, overriding the oldest one if buffer is full.
+         *
+         * @param decision Decision record.
+         */
+        private synchronized void add(DecisionRecord decision)
+        {
+            this.records[this.next] = decision;
+            this.next = (this.next + 1) % this.records.length;
+            this.size = Math.min(this.size + 1, this.records.length);
+        }
+
+
+        /**
+         * This method returns records from the buffer, oldest first.
+         *
+         * @return List of decision records.
+         */
+        private synchronized List<DecisionRecord> getRecords()
+        {
+            List<DecisionRecord> recordList = new ArrayList<>(this.size);
+            int start = (this.next - this.size + this.records.length) % this.records.length;
+
+            for (int i = 0; i < this.size; i++)
+            {
+                recordList.add(this.records[(start + i) % this.records.length]);
             }
+
+            return recordList;
         }
+
+
+        /**
+         * Name of the world where island is located.
+         */
+        private final String world;
+
+        /**
+         * Ring buffer with decision records.
+         */
+        private final DecisionRecord[] records = new DecisionRecord[BUFFER_SIZE];
+
+        /**
+         * Index where next record will be written.
+         */
+        private int next;
+
+        /**
+         * Number of records in buffer.
+         */
+        private int size;
+
+        /**
+         * Indicates if island is currently traced.
+         */
+        private volatile boolean active;
+
+        /**
+         * UUID of player who requested tracing.
+         */
+        @Nullable
+        private volatile UUID issuer;
     }
+
+
+    // ---------------------------------------------------------------------
+    // Section: Variables
+    // ---------------------------------------------------------------------
+
+
+    /**
+     * Number of decision records that are stored for each island.
+     */
+    public static final int BUFFER_SIZE = 50;
+
+    /**
+     * Map that links island id with its trace buffer.
+     */
+    private static final Map<String, TraceBuffer> TRACE_BUFFERS = new ConcurrentHashMap<>();
+
+    /**
+     * Map that links world name with number of traced islands in it.
+     */
+    private static final Map<String, Integer> TRACED_WORLDS = new ConcurrentHashMap<>();
+
+    /**
+     * Indicates if anyone is tracing anything. Allows to skip all map lookups.
+     */
+    private static volatile boolean tracing;
 }
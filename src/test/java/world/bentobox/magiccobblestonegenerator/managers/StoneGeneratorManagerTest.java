@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -20,23 +21,32 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.World;
+import org.bukkit.block.Biome;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
 import org.jetbrains.annotations.Nullable;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
@@ -45,6 +55,8 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
+import com.google.common.collect.ImmutableSet;
+
 import world.bentobox.bentobox.BentoBox;
 import world.bentobox.bentobox.Settings;
 import world.bentobox.bentobox.api.addons.AddonDescription;
@@ -55,6 +67,7 @@ import world.bentobox.bentobox.database.AbstractDatabaseHandler;
 import world.bentobox.bentobox.database.DatabaseSetup;
 import world.bentobox.bentobox.database.DatabaseSetup.DatabaseType;
 import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.bentobox.managers.AddonsManager;
 import world.bentobox.bentobox.managers.IslandWorldManager;
 import world.bentobox.bentobox.managers.IslandsManager;
 import world.bentobox.bentobox.managers.PlayersManager;
@@ -64,6 +77,7 @@ import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorBundle
 import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject;
 import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject;
 import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject.GeneratorType;
+import world.bentobox.magiccobblestonegenerator.utils.CompiledTier;
 
 /**
  * @author tastybento
@@ -198,6 +212,7 @@ public class StoneGeneratorManagerTest {
 
 	// Island
 	when(island.getOwner()).thenReturn(uuid);
+	when(island.getUniqueId()).thenReturn("BSkyBlock" + uuid);
 
 	// Island manager
 	when(im.getIsland(world, uuid)).thenReturn(island);
@@ -260,6 +275,55 @@ public class StoneGeneratorManagerTest {
 	verify(addon).log("Done");
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#reload()}.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testReloadKeepsUnchangedTiers() throws InstantiationException, IllegalAccessException,
+	    InvocationTargetException, ClassNotFoundException, NoSuchMethodException, IntrospectionException {
+	AddonsManager am = mock(AddonsManager.class);
+	when(plugin.getAddonsManager()).thenReturn(am);
+	when(am.getGameModeAddons()).thenReturn(List.of(gameModeAddon));
+	ItemStack icon = new ItemStack(Material.STONE);
+	GeneratorTierObject kept = createTier("magiccobblegenerator_kept", icon);
+	GeneratorTierObject edited = createTier("magiccobblegenerator_edited", icon);
+	sgm.loadGeneratorTier(kept, false, null);
+	sgm.loadGeneratorTier(edited, false, null);
+	CompiledTier compiled = kept.getCompiledTier();
+	when(generatorData.getUniqueId()).thenReturn("island1");
+	sgm.saveGeneratorData(generatorData);
+	int cachedData = sgm.getCachedDataCount();
+	// Only one tier is edited in the database.
+	GeneratorTierObject storedKept = createTier("magiccobblegenerator_kept", icon);
+	GeneratorTierObject storedEdited = createTier("magiccobblegenerator_edited", icon);
+	storedEdited.setPriority(5);
+	when(h.loadObjects()).thenReturn(List.of(storedKept, storedEdited), List.of());
+
+	StoneGeneratorManager.ReloadResult result = sgm.reload();
+	assertEquals(List.of("magiccobblegenerator_edited"), result.getTiers().getChanged());
+	assertEquals(1, result.getTiers().getUnchanged());
+	assertTrue(result.getGameModes().contains("magiccobblegenerator"));
+	// Unchanged tier keeps its compiled state and island data stays in memory.
+	assertSame(kept, sgm.getGeneratorByID("magiccobblegenerator_kept"));
+	assertSame(compiled, kept.getCompiledTier());
+	assertSame(storedEdited, sgm.getGeneratorByID("magiccobblegenerator_edited"));
+	assertEquals(cachedData, sgm.getCachedDataCount());
+    }
+
+    /**
+     * Creates generator tier with given icon, so tiers can be compared without item meta.
+     */
+    private GeneratorTierObject createTier(String id, ItemStack icon) {
+	GeneratorTierObject tier = new GeneratorTierObject();
+	tier.setUniqueId(id);
+	tier.setGeneratorIcon(icon);
+	tier.setLockedIcon(icon);
+	tier.getBlockChanceMap().put(100.0, Material.STONE);
+	return tier;
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#load()}.
@@ -378,6 +442,52 @@ public class StoneGeneratorManagerTest {
 	assertTrue(cf.isDone());
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#saveGeneratorTier(world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject)}.
+     */
+    @Test
+    public void testSaveGeneratorTierPublishesValidDraft() {
+	GeneratorTierObject tier = new GeneratorTierObject();
+	tier.setUniqueId("magiccobblegenerator_tier");
+	tier.getBlockChanceMap().put(100.0, Material.STONE);
+	sgm.loadGeneratorTier(tier, false, null);
+	CompiledTier published = tier.getCompiledTier();
+	assertNotNull(published);
+	// Half edited draft is not visible to generators.
+	tier.setMinHeight(400);
+	assertSame(published, tier.getCompiledTier());
+	sgm.saveGeneratorTier(tier);
+	assertSame(published, tier.getCompiledTier());
+	// Valid draft is published with a new version.
+	tier.setMaxHeight(500);
+	sgm.saveGeneratorTier(tier);
+	assertEquals(400, tier.getCompiledTier().getMinHeight());
+	assertTrue(tier.getCompiledTier().getVersion() > published.getVersion());
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#loadGeneratorTier(world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject, boolean, world.bentobox.bentobox.api.user.User)}.
+     */
+    @Test
+    public void testLoadGeneratorTierNotValid() {
+	GeneratorTierObject tier = new GeneratorTierObject();
+	tier.setUniqueId("magiccobblegenerator_tier");
+	tier.getBlockChanceMap().put(100.0, Material.STONE);
+	tier.setMinHeight(400);
+	assertTrue(sgm.loadGeneratorTier(tier, false, null));
+	verify(addon).logWarning(anyString());
+	assertNull(tier.getCompiledTier());
+	// Inverted material range skips only that material.
+	tier.setMinHeight(0);
+	tier.getBlockChanceMap().put(200.0, Material.DIAMOND_ORE);
+	tier.setMaterialHeightRange(Material.DIAMOND_ORE, 50, 10);
+	sgm.saveGeneratorTier(tier);
+	assertNotNull(tier.getCompiledTier());
+	assertEquals(1, tier.getCompiledTier().getBlockSampler(30).size());
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#saveGeneratorBundle(world.bentobox.magiccobblestonegenerator.database.objects.GeneratorBundleObject)}.
@@ -398,6 +508,62 @@ public class StoneGeneratorManagerTest {
 	assertTrue(cf.isDone());
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#saveGeneratorData(world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject)}.
+     */
+    @Test
+    public void testSaveGeneratorDataCoalesced() {
+	when(generatorData.getUniqueId()).thenReturn(uuid.toString());
+	sgm.saveGeneratorData(generatorData);
+	sgm.saveGeneratorData(generatorData);
+	// Both saves are queued as a single write.
+	assertEquals(1, sgm.getQueuedDataCount());
+	assertEquals(1, sgm.getCoalescedSaveCount());
+	assertEquals(0, sgm.getDataWriteCount());
+	assertTrue(sgm.flushGeneratorData().isDone());
+	assertEquals(0, sgm.getQueuedDataCount());
+	assertEquals(1, sgm.getDataWriteCount());
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#flushGeneratorDataAndWait(long)}.
+     */
+    @Test
+    public void testFlushGeneratorDataAndWait() throws IllegalAccessException, InvocationTargetException,
+	    IntrospectionException {
+	when(generatorData.getUniqueId()).thenReturn(uuid.toString());
+	sgm.saveGeneratorData(generatorData);
+	assertTrue(sgm.flushGeneratorDataAndWait(1000));
+	assertEquals(0, sgm.getQueuedDataCount());
+	verify(h).saveObject(generatorData);
+	// Write that does not finish in time is reported.
+	when(h.saveObject(generatorData)).thenReturn(new CompletableFuture<>());
+	sgm.saveGeneratorData(generatorData);
+	assertFalse(sgm.flushGeneratorDataAndWait(10));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#saveGeneratorData(world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject)}.
+     */
+    @Test
+    public void testSaveGeneratorDataEvictsOverCacheSize() {
+	s.setDataCacheSize(1);
+	GeneratorDataObject first = new GeneratorDataObject();
+	first.setUniqueId("island1");
+	GeneratorDataObject second = new GeneratorDataObject();
+	second.setUniqueId("island2");
+	sgm.saveGeneratorData(first);
+	sgm.saveGeneratorData(second);
+	// First island is removed from cache and its queued changes are written.
+	assertEquals(1, sgm.getCachedDataCount());
+	assertEquals(1, sgm.getDataCacheEvictionCount());
+	assertEquals(1, sgm.getDataWriteCount());
+	assertEquals(1, sgm.getQueuedDataCount());
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#save()}.
@@ -408,6 +574,24 @@ public class StoneGeneratorManagerTest {
 	assertTrue(cf.isDone());
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#save(boolean)}.
+     */
+    @Test
+    public void testSaveChangedOnly() {
+	assertTrue(sgm.loadGeneratorBundle(generatorBundle, false, null));
+	// Only loaded bundle is changed.
+	StoneGeneratorManager.SaveResult result = sgm.save(false).join();
+	assertEquals(0, result.getTiers().getWritten());
+	assertEquals(1, result.getBundles().getWritten());
+	assertTrue(result.isSuccessful());
+	// Nothing is changed after successful write.
+	assertEquals(0, sgm.save(false).join().getBundles().getWritten());
+	// Full save writes everything.
+	assertEquals(1, sgm.save(true).join().getBundles().getWritten());
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#wipeGameModeGenerators()}.
@@ -457,6 +641,94 @@ public class StoneGeneratorManagerTest {
 	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.ANY));
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorTier(world.bentobox.bentobox.database.objects.Island, org.bukkit.Location, world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject.GeneratorType)}.
+     */
+    @Test
+    public void testGetGeneratorTierDefaultTable() {
+	Biome desert = mock(Biome.class);
+	Biome plains = mock(Biome.class);
+	GeneratorTierObject general = mock(GeneratorTierObject.class);
+	when(general.getUniqueId()).thenReturn("magiccobblegenerator_general");
+	when(general.isDefaultGenerator()).thenReturn(true);
+	when(general.getGeneratorType()).thenReturn(GeneratorType.COBBLESTONE_OR_STONE);
+	when(general.getPriority()).thenReturn(1);
+	GeneratorTierObject sand = mock(GeneratorTierObject.class);
+	when(sand.getUniqueId()).thenReturn("magiccobblegenerator_sand");
+	when(sand.isDefaultGenerator()).thenReturn(true);
+	when(sand.getGeneratorType()).thenReturn(GeneratorType.COBBLESTONE);
+	when(sand.getPriority()).thenReturn(5);
+	when(sand.getRequiredBiomes()).thenReturn(Set.of(desert));
+	sgm.loadGeneratorTier(general, false, null);
+	sgm.loadGeneratorTier(sand, false, null);
+
+	when(world.getBiome(0, 0, 0)).thenReturn(desert);
+	assertEquals(sand, sgm.getGeneratorTier(null, location, GeneratorType.COBBLESTONE));
+	assertEquals(general, sgm.getGeneratorTier(null, location, GeneratorType.STONE));
+	assertNull(sgm.getGeneratorTier(null, location, GeneratorType.BASALT));
+	when(world.getBiome(0, 0, 0)).thenReturn(plains);
+	assertEquals(general, sgm.getGeneratorTier(null, location, GeneratorType.COBBLESTONE));
+	// Table is rebuilt when tier is removed.
+	sgm.wipeGeneratorTier(general);
+	assertNull(sgm.getGeneratorTier(null, location, GeneratorType.COBBLESTONE));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorTier(world.bentobox.bentobox.database.objects.Island, org.bukkit.Location, world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject.GeneratorType)}.
+     */
+    @Test
+    public void testGetGeneratorTierResolvedCache() {
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	// Second call must be served from resolved tier cache.
+	verify(iwm, times(1)).getAddon(world);
+	// Tier edit must invalidate cache.
+	sgm.saveGeneratorTier(generatorTier);
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	verify(iwm, times(2)).getAddon(world);
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorTier(world.bentobox.bentobox.database.objects.Island, org.bukkit.Location, world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject.GeneratorType)}.
+     */
+    @Test
+    public void testGetGeneratorTierLoadsDataAsync() {
+	BukkitScheduler scheduler = mock(BukkitScheduler.class);
+	when(Bukkit.getScheduler()).thenReturn(scheduler);
+
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	// Tier edit clears resolved tiers, but data load is still pending.
+	sgm.saveGeneratorTier(generatorTier);
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	// Resolved tier is cached, but generation still falls back while data is loading.
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	assertTrue(sgm.isIslandDataLoading(island));
+	// All generations are served before data arrives, but only one load is started.
+	verify(scheduler, times(1)).runTaskAsynchronously(any(Plugin.class), any(Runnable.class));
+	assertEquals(1, sgm.getAsyncLoadCount());
+	assertEquals(3, sgm.getServedBeforeLoadCount());
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorTier(world.bentobox.bentobox.database.objects.Island, org.bukkit.Location, world.bentobox.magiccobblestonegenerator.database.objects.GeneratorTierObject.GeneratorType)}.
+     */
+    @Test
+    public void testGetGeneratorTierPublishesLoadedDataOnMainThread() {
+	BukkitScheduler scheduler = mock(BukkitScheduler.class);
+	when(Bukkit.getScheduler()).thenReturn(scheduler);
+
+	assertNull(sgm.getGeneratorTier(island, location, GeneratorType.COBBLESTONE));
+	ArgumentCaptor<Runnable> load = ArgumentCaptor.forClass(Runnable.class);
+	verify(scheduler).runTaskAsynchronously(any(Plugin.class), load.capture());
+	// Loaded data is handed back to the main thread, not published from the loading thread.
+	load.getValue().run();
+	verify(scheduler).runTask(any(Plugin.class), any(Runnable.class));
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getAllGeneratorTiers(org.bukkit.World)}.
@@ -466,6 +738,98 @@ public class StoneGeneratorManagerTest {
 	assertTrue(sgm.getAllGeneratorTiers(world).isEmpty());
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getAllGeneratorTiers(org.bukkit.World)}.
+     */
+    @Test
+    public void testGetAllGeneratorTiersUpdatedOnChange() {
+	GeneratorTierObject high = mock(GeneratorTierObject.class);
+	when(high.getUniqueId()).thenReturn("magiccobblegenerator_high");
+	when(high.getPriority()).thenReturn(10);
+	when(high.isDeployed()).thenReturn(true);
+	GeneratorTierObject low = mock(GeneratorTierObject.class);
+	when(low.getUniqueId()).thenReturn("magiccobblegenerator_low");
+	when(low.getPriority()).thenReturn(1);
+	// Tier from other game mode
+	GeneratorTierObject other = mock(GeneratorTierObject.class);
+	when(other.getUniqueId()).thenReturn("acidisland_other");
+
+	sgm.loadGeneratorTier(high, false, null);
+	sgm.loadGeneratorTier(low, false, null);
+	sgm.loadGeneratorTier(other, false, null);
+	assertEquals(List.of(low, high), sgm.getAllGeneratorTiers(world));
+	// Returned list can be changed by caller.
+	sgm.getAllGeneratorTiers(world).clear();
+	assertEquals(List.of(low, high), sgm.getAllGeneratorTiers(world));
+	assertEquals(List.of(high), sgm.getIslandGeneratorTiers(world, (GeneratorDataObject) null));
+	// Removed tier is not in views.
+	sgm.wipeGeneratorTier(low);
+	assertEquals(List.of(high), sgm.getAllGeneratorTiers(world));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorTierVersion()}.
+     */
+    @Test
+    public void testGetGeneratorTierVersion() {
+	long version = sgm.getGeneratorTierVersion();
+	// Island data changes do not change tier version.
+	sgm.saveGeneratorData(generatorData);
+	assertEquals(version, sgm.getGeneratorTierVersion());
+	// Tier edits change it.
+	sgm.saveGeneratorTier(generatorTier);
+	assertTrue(sgm.getGeneratorTierVersion() > version);
+	version = sgm.getGeneratorTierVersion();
+	sgm.saveGeneratorBundle(generatorBundle);
+	assertTrue(sgm.getGeneratorTierVersion() > version);
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getIslandDataVersion(java.lang.String)}.
+     */
+    @Test
+    public void testGetIslandDataVersion() {
+	when(generatorData.getUniqueId()).thenReturn("island1");
+	long since = sgm.getDataVersion();
+	assertTrue(sgm.getIslandDataVersion("island1") <= since);
+	// Changed island is newer than previous version, other islands are not.
+	sgm.saveGeneratorData(generatorData);
+	assertTrue(sgm.getIslandDataVersion("island1") > since);
+	assertTrue(sgm.getIslandDataVersion("island2") <= since);
+	assertEquals(sgm.getDataVersion(), sgm.getIslandDataVersion("island1"));
+	// Tier changes make all islands newer.
+	since = sgm.getDataVersion();
+	sgm.saveGeneratorTier(generatorTier);
+	assertTrue(sgm.getIslandDataVersion("island1") > since);
+	assertTrue(sgm.getIslandDataVersion("island2") > since);
+	assertTrue(sgm.getIslandDataVersion(null) > since);
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getIslandDataVersion(java.lang.String)}.
+     */
+    @Test
+    public void testGetIslandDataVersionAfterWipe() {
+	long since = sgm.getDataVersion();
+	when(generatorData.getUniqueId()).thenReturn("island2");
+	sgm.saveGeneratorData(generatorData);
+	long otherVersion = sgm.getIslandDataVersion("island2");
+	when(generatorData.getUniqueId()).thenReturn("island1");
+	sgm.saveGeneratorData(generatorData);
+	long version = sgm.getIslandDataVersion("island1");
+	// Removed island version is not lost, islands without known version may be
+	// reported as changed.
+	sgm.wipeGeneratorData("island1");
+	assertTrue(sgm.getIslandDataVersion("island1") >= version);
+	assertTrue(sgm.getIslandDataVersion("island3") > since);
+	// Islands with known version keep it.
+	assertEquals(otherVersion, sgm.getIslandDataVersion("island2"));
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getIslandGeneratorTiers(org.bukkit.World, world.bentobox.bentobox.api.user.User)}.
@@ -475,6 +839,36 @@ public class StoneGeneratorManagerTest {
 	assertTrue(sgm.getIslandGeneratorTiers(world, user).isEmpty());
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getIslandGeneratorTiers(org.bukkit.World, world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject)}.
+     */
+    @Test
+    public void testGetIslandGeneratorTiersBundle() {
+	GeneratorTierObject first = mock(GeneratorTierObject.class);
+	when(first.getUniqueId()).thenReturn("magiccobblegenerator_first");
+	when(first.getPriority()).thenReturn(1);
+	when(first.isDeployed()).thenReturn(true);
+	GeneratorTierObject second = mock(GeneratorTierObject.class);
+	when(second.getUniqueId()).thenReturn("magiccobblegenerator_second");
+	when(second.getPriority()).thenReturn(2);
+	when(second.isDeployed()).thenReturn(true);
+	GeneratorBundleObject bundle = mock(GeneratorBundleObject.class);
+	when(bundle.getUniqueId()).thenReturn("magiccobblegenerator_bundle");
+	when(bundle.getGeneratorTiers()).thenReturn(Set.of("magiccobblegenerator_second"));
+	sgm.loadGeneratorTier(first, false, null);
+	sgm.loadGeneratorTier(second, false, null);
+	sgm.loadGeneratorBundle(bundle, false, null);
+
+	GeneratorDataObject data = new GeneratorDataObject();
+	assertEquals(List.of(first, second), sgm.getIslandGeneratorTiers(world, data));
+	data.setIslandBundle("magiccobblegenerator_bundle");
+	assertEquals(List.of(second), sgm.getIslandGeneratorTiers(world, data));
+	// Unknown bundle does not filter generators.
+	data.setIslandBundle("magiccobblegenerator_removed");
+	assertEquals(List.of(first, second), sgm.getIslandGeneratorTiers(world, data));
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getIslandGeneratorTiers(org.bukkit.World, world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject)}.
@@ -545,6 +939,41 @@ public class StoneGeneratorManagerTest {
 	assertNotNull(gdo);
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#validateIslandData(world.bentobox.bentobox.database.objects.Island)}.
+     */
+    @Test
+    public void testValidateIslandDataKeepsVersion() {
+	sgm.addWorld(world);
+	assertNotNull(sgm.validateIslandData(island));
+	long version = sgm.getIslandDataVersion(island.getUniqueId());
+	// Nothing is changed, so island data version stays the same.
+	assertNotNull(sgm.validateIslandData(island));
+	assertEquals(version, sgm.getIslandDataVersion(island.getUniqueId()));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#validateIslandData(world.bentobox.bentobox.database.objects.Island)}.
+     */
+    @Test
+    public void testValidateIslandDataRemembersPermissions() {
+	PermissionAttachmentInfo range = mock(PermissionAttachmentInfo.class);
+	when(range.getPermission()).thenReturn("bskyblock.stone-generator.max-range.25");
+	when(range.getValue()).thenReturn(true);
+	Player player = Bukkit.getPlayer(uuid);
+	when(player.getEffectivePermissions()).thenReturn(Set.of(range));
+
+	assertEquals(25, sgm.validateIslandData(island).getOwnerWorkingRange());
+	// Permissions are remembered
+	when(range.getPermission()).thenReturn("bskyblock.stone-generator.max-range.50");
+	assertEquals(25, sgm.validateIslandData(island).getOwnerWorkingRange());
+	// Until they are read again
+	sgm.invalidatePermissions(uuid);
+	assertEquals(50, sgm.validateIslandData(island).getOwnerWorkingRange());
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#checkGeneratorUnlockStatus(world.bentobox.bentobox.database.objects.Island, world.bentobox.bentobox.api.user.User, java.lang.Long)}.
@@ -555,6 +984,40 @@ public class StoneGeneratorManagerTest {
 	verify(island, times(2)).isSpawn();
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#checkGeneratorUnlockStatus(world.bentobox.bentobox.database.objects.Island, world.bentobox.bentobox.api.user.User, java.lang.Long)}.
+     */
+    @Test
+    public void testCheckGeneratorUnlockStatusIncremental() {
+	when(island.getWorld()).thenReturn(world);
+	GeneratorTierObject low = mock(GeneratorTierObject.class);
+	when(low.getUniqueId()).thenReturn("magiccobblegenerator_low");
+	when(low.isDeployed()).thenReturn(true);
+	when(low.getPriority()).thenReturn(1);
+	when(low.getRequiredMinIslandLevel()).thenReturn(10L);
+	GeneratorTierObject high = mock(GeneratorTierObject.class);
+	when(high.getUniqueId()).thenReturn("magiccobblegenerator_high");
+	when(high.isDeployed()).thenReturn(true);
+	when(high.getPriority()).thenReturn(2);
+	when(high.getRequiredMinIslandLevel()).thenReturn(100L);
+	sgm.loadGeneratorTier(low, false, null);
+	sgm.loadGeneratorTier(high, false, null);
+	GeneratorDataObject data = sgm.getGeneratorData(island);
+
+	sgm.checkGeneratorUnlockStatus(island, user, 10L);
+	assertEquals(Set.of("magiccobblegenerator_low"), data.getUnlockedTiers());
+	sgm.checkGeneratorUnlockStatus(island, user, 50L);
+	// Generators below checked level are not examined again.
+	data.removeUnlockedTier("magiccobblegenerator_low");
+	sgm.checkGeneratorUnlockStatus(island, user, 100L);
+	assertEquals(Set.of("magiccobblegenerator_high"), data.getUnlockedTiers());
+	// Saved island data is checked again completely.
+	sgm.saveGeneratorData(data);
+	sgm.checkGeneratorUnlockStatus(island, user, 100L);
+	assertEquals(Set.of("magiccobblegenerator_low", "magiccobblegenerator_high"), data.getUnlockedTiers());
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorData(world.bentobox.bentobox.database.objects.Island)}.
@@ -564,6 +1027,58 @@ public class StoneGeneratorManagerTest {
 	assertNotNull(sgm.getGeneratorData(island));
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorData(world.bentobox.bentobox.database.objects.Island)}.
+     */
+    @Test
+    public void testGetGeneratorDataIslandChangedCopy() {
+	GeneratorDataObject data = sgm.getGeneratorData(island);
+	Set<String> unlockedTiers = data.getUnlockedTiers();
+	assertTrue(data.addUnlockedTier(uuid.toString()));
+	// Readers keep a complete set while data is changed.
+	assertTrue(unlockedTiers.isEmpty());
+	assertTrue(sgm.getGeneratorData(island).getUnlockedTiers().contains(uuid.toString()));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getWorkingRange(world.bentobox.bentobox.database.objects.Island)}.
+     */
+    @Test
+    public void testGetWorkingRange() {
+	assertNull(sgm.getWorkingRange(null));
+	int dataRange = sgm.getGeneratorData(island).getRange();
+	Integer range = sgm.getWorkingRange(island);
+	assertNotNull(range);
+	assertEquals(dataRange, range.intValue());
+	// Cached value is returned until island data is changed
+	sgm.getGeneratorData(island).setIslandWorkingRange(range + 10);
+	assertEquals(range, sgm.getWorkingRange(island));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getWorkingRange(world.bentobox.bentobox.database.objects.Island)}.
+     */
+    @Test
+    public void testGetWorkingRangeLoadsDataAsync() {
+	BukkitScheduler scheduler = mock(BukkitScheduler.class);
+	when(Bukkit.getScheduler()).thenReturn(scheduler);
+	s.setDefaultWorkingRange(7);
+
+	// Default range is used while island data is loading, and only one load is
+	// started.
+	assertEquals(7, sgm.getWorkingRange(island).intValue());
+	assertEquals(7, sgm.getWorkingRange(island).intValue());
+	assertTrue(sgm.isIslandDataLoading(island));
+	verify(scheduler, times(1)).runTaskAsynchronously(any(Plugin.class), any(Runnable.class));
+	// Default range is not cached, so island range is used once data is loaded.
+	GeneratorDataObject data = sgm.getGeneratorData(island);
+	data.setIslandWorkingRange(20);
+	assertEquals(data.getRange(), sgm.getWorkingRange(island).intValue());
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getGeneratorData(world.bentobox.bentobox.api.user.User, org.bukkit.World)}.
@@ -689,6 +1204,23 @@ public class StoneGeneratorManagerTest {
 	assertFalse(sgm.isMembersOnline(location));
     }
 
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#hasOnlineMembers(world.bentobox.bentobox.database.objects.Island)}.
+     */
+    @Test
+    public void testHasOnlineMembersCached() {
+	when(island.getMemberSet()).thenReturn(ImmutableSet.of(uuid));
+	assertFalse(sgm.hasOnlineMembers(island));
+	assertFalse(sgm.hasOnlineMembers(island));
+	// Members are counted only once
+	verify(island).getMemberSet();
+	// Until count is updated
+	sgm.updateOnlineMembers(island, uuid);
+	assertFalse(sgm.hasOnlineMembers(island));
+	verify(island, times(2)).getMemberSet();
+    }
+
     /**
      * Test method for
      * {@link world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager#getIslandLevel(world.bentobox.bentobox.database.objects.Island)}.
@@ -0,0 +1,106 @@
+package world.bentobox.magiccobblestonegenerator.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import world.bentobox.bentobox.database.objects.Island;
+import world.bentobox.bentobox.managers.IslandsManager;
+import world.bentobox.magiccobblestonegenerator.StoneGeneratorAddon;
+import world.bentobox.magiccobblestonegenerator.config.Settings;
+import world.bentobox.magiccobblestonegenerator.database.objects.GeneratorDataObject;
+import world.bentobox.magiccobblestonegenerator.managers.StoneGeneratorManager;
+
+/**
+ * Tests for {@link IslandSnapshotRequestHandler}.
+ */
+public class IslandSnapshotRequestHandlerTest {
+
+    private StoneGeneratorManager manager;
+    private IslandSnapshotRequestHandler handler;
+
+    @Before
+    public void setUp() {
+	StoneGeneratorAddon addon = mock(StoneGeneratorAddon.class);
+	IslandsManager im = mock(IslandsManager.class);
+	manager = mock(StoneGeneratorManager.class);
+	when(addon.getSettings()).thenReturn(new Settings());
+	when(addon.getIslands()).thenReturn(im);
+	when(addon.getAddonManager()).thenReturn(manager);
+	when(manager.getDataVersion()).thenReturn(300L);
+
+	// Island "old" is changed at version 100 and island "new" at version 200.
+	addIsland(im, "old", 100L);
+	addIsland(im, "new", 200L);
+
+	handler = new IslandSnapshotRequestHandler(addon);
+    }
+
+    private void addIsland(IslandsManager im, String islandId, long version) {
+	Island island = mock(Island.class);
+	when(island.getUniqueId()).thenReturn(islandId);
+	when(im.getIslandById(islandId)).thenReturn(Optional.of(island));
+
+	GeneratorDataObject data = mock(GeneratorDataObject.class);
+	when(data.getUniqueId()).thenReturn(islandId);
+	when(manager.getGeneratorData(island)).thenReturn(data);
+	when(manager.getIslandDataVersion(islandId)).thenReturn(version);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> requestIslands(Long since) {
+	Map<String, Object> metaData = since == null ? Map.of("islands", List.of("old", "new", "missing"))
+		: Map.of("islands", List.of("old", "new", "missing"), "since", since);
+	Map<String, Object> result = (Map<String, Object>) handler.handle(metaData);
+	assertEquals(300L, result.get("version"));
+	return (Map<String, Map<String, Object>>) result.get("islands");
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.request.IslandSnapshotRequestHandler#handle(java.util.Map)}.
+     */
+    @Test
+    public void testHandleWithoutSince() {
+	Map<String, Map<String, Object>> islands = requestIslands(null);
+	assertEquals(Set.of("old", "new"), islands.keySet());
+	assertEquals(100L, islands.get("old").get("version"));
+	assertEquals(200L, islands.get("new").get("version"));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.request.IslandSnapshotRequestHandler#handle(java.util.Map)}.
+     */
+    @Test
+    public void testHandleSince() {
+	// Island changed at given version is already known by caller.
+	assertEquals(Set.of("new"), requestIslands(100L).keySet());
+	assertEquals(Set.of("new"), requestIslands(199L).keySet());
+	assertTrue(requestIslands(200L).isEmpty());
+	assertTrue(requestIslands(300L).isEmpty());
+	// Island is returned again when it is changed.
+	when(manager.getIslandDataVersion("old")).thenReturn(350L);
+	assertEquals(Set.of("old"), requestIslands(300L).keySet());
+	assertEquals(350L, requestIslands(300L).get("old").get("version"));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.request.IslandSnapshotRequestHandler#handle(java.util.Map)}.
+     */
+    @Test
+    public void testHandleInvalidSince() {
+	assertNull(handler.handle(Map.of("islands", List.of("old"), "since", "yesterday")));
+    }
+}
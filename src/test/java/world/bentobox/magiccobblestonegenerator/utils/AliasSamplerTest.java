@@ -0,0 +1,113 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AliasSampler}.
+ */
+public class AliasSamplerTest {
+
+    private static final int DRAWS = 100000;
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.AliasSampler#fromChanceMap(java.util.TreeMap)}.
+     */
+    @Test
+    public void testFromChanceMapEmpty() {
+	AliasSampler<String> sampler = AliasSampler.fromChanceMap(new TreeMap<>());
+	assertTrue(sampler.isEmpty());
+	assertEquals(0, sampler.size());
+	assertNull(sampler.sample(new Random(1)));
+	assertTrue(AliasSampler.fromChanceMap(null).isEmpty());
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.AliasSampler#fromChanceMap(java.util.TreeMap)}.
+     */
+    @Test
+    public void testFromChanceMapSingleEntry() {
+	TreeMap<Double, String> chanceMap = new TreeMap<>();
+	chanceMap.put(42.0, "stone");
+	AliasSampler<String> sampler = AliasSampler.fromChanceMap(chanceMap);
+	assertFalse(sampler.isEmpty());
+	assertEquals(1, sampler.size());
+	Random random = new Random(1);
+	for (int i = 0; i < 100; i++) {
+	    assertEquals("stone", sampler.sample(random));
+	}
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.AliasSampler#fromChanceMap(java.util.TreeMap)}.
+     */
+    @Test
+    public void testFromChanceMapNotNormalised() {
+	// Keys are cumulative and do not sum to 1 or 100, so weights are 5 and 15.
+	TreeMap<Double, String> chanceMap = new TreeMap<>();
+	chanceMap.put(5.0, "diamond");
+	chanceMap.put(20.0, "stone");
+	Map<String, Integer> counts = draw(AliasSampler.fromChanceMap(chanceMap), new Random(42));
+	assertEquals(0.25, counts.get("diamond") / (double) DRAWS, 0.01);
+	assertEquals(0.75, counts.get("stone") / (double) DRAWS, 0.01);
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.AliasSampler#fromWeights(java.util.List, double[])}.
+     */
+    @Test
+    public void testFromWeightsIgnoresZeroWeights() {
+	AliasSampler<String> sampler = AliasSampler.fromWeights(List.of("a", "b", "c"), new double[] { 0.0, 2.0, -1.0 });
+	assertEquals(1, sampler.size());
+	assertEquals("b", sampler.sample(new Random(1)));
+	assertTrue(AliasSampler.fromWeights(List.of("a"), new double[] { 0.0 }).isEmpty());
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.AliasSampler#sample(java.util.Random)}.
+     */
+    @Test
+    public void testSampleDistribution() {
+	// Cumulative chances, so weights are 1, 2, 3 and 4.
+	TreeMap<Double, String> chanceMap = new TreeMap<>();
+	chanceMap.put(1.0, "a");
+	chanceMap.put(3.0, "b");
+	chanceMap.put(6.0, "c");
+	chanceMap.put(10.0, "d");
+	Map<String, Integer> counts = draw(AliasSampler.fromChanceMap(chanceMap), new Random(42));
+	assertEquals(0.1, counts.get("a") / (double) DRAWS, 0.01);
+	assertEquals(0.2, counts.get("b") / (double) DRAWS, 0.01);
+	assertEquals(0.3, counts.get("c") / (double) DRAWS, 0.01);
+	assertEquals(0.4, counts.get("d") / (double) DRAWS, 0.01);
+    }
+
+    /**
+     * Draws given sampler and counts each value.
+     *
+     * @param sampler sampler that must be drawn.
+     * @param random  random with fixed seed.
+     * @return number of draws for each value.
+     */
+    private static Map<String, Integer> draw(AliasSampler<String> sampler, Random random) {
+	Map<String, Integer> counts = new HashMap<>();
+	for (int i = 0; i < DRAWS; i++) {
+	    counts.merge(sampler.sample(random), 1, Integer::sum);
+	}
+	return counts;
+    }
+}
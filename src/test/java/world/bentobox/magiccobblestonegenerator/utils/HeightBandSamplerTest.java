@@ -0,0 +1,125 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link HeightBandSampler}.
+ */
+public class HeightBandSamplerTest {
+
+    private TreeMap<Double, String> chanceMap;
+    private Map<String, int[]> heightMap;
+
+    @Before
+    public void setUp() {
+	// Cumulative chances, so stone weight is 1 and diamond weight is 3.
+	chanceMap = new TreeMap<>();
+	chanceMap.put(1.0, "stone");
+	chanceMap.put(4.0, "diamond");
+	heightMap = new HashMap<>();
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.HeightBandSampler#compile(java.util.TreeMap, java.util.Map, int, int)}.
+     */
+    @Test
+    public void testCompileEmpty() {
+	HeightBandSampler<String> sampler = HeightBandSampler.compile(new TreeMap<>(), heightMap, 0, 64);
+	assertEquals(0, sampler.getBandCount());
+	assertNull(sampler.getSampler(10));
+	assertNull(HeightBandSampler.compile(null, null, 0, 64).getSampler(10));
+	// Empty height range.
+	assertNull(HeightBandSampler.compile(chanceMap, heightMap, 64, 0).getSampler(10));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.HeightBandSampler#getSampler(int)}.
+     */
+    @Test
+    public void testGetSamplerSingleEntry() {
+	TreeMap<Double, String> single = new TreeMap<>();
+	single.put(100.0, "stone");
+	HeightBandSampler<String> sampler = HeightBandSampler.compile(single, null, 0, 64);
+	assertEquals(1, sampler.getBandCount());
+	assertEquals("stone", sampler.getSampler(0).sample(new Random(1)));
+	assertEquals("stone", sampler.getSampler(64).sample(new Random(1)));
+	assertNull(sampler.getSampler(-1));
+	assertNull(sampler.getSampler(65));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.HeightBandSampler#getSampler(int)}.
+     */
+    @Test
+    public void testGetSamplerMaterialRangeBoundaries() {
+	heightMap.put("diamond", new int[] { 10, 20 });
+	HeightBandSampler<String> sampler = HeightBandSampler.compile(chanceMap, heightMap, 0, 64);
+	assertEquals(3, sampler.getBandCount());
+	assertEquals(1, sampler.getSampler(0).size());
+	assertEquals(1, sampler.getSampler(9).size());
+	assertEquals(2, sampler.getSampler(10).size());
+	assertEquals(2, sampler.getSampler(20).size());
+	assertEquals(1, sampler.getSampler(21).size());
+	assertEquals(1, sampler.getSampler(64).size());
+	assertEquals("stone", sampler.getSampler(21).sample(new Random(1)));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.HeightBandSampler#compile(java.util.TreeMap, java.util.Map, int, int)}.
+     */
+    @Test
+    public void testCompileMergesBands() {
+	// Range covers whole generator range, so it does not split it.
+	heightMap.put("diamond", new int[] { -10, 100 });
+	HeightBandSampler<String> sampler = HeightBandSampler.compile(chanceMap, heightMap, 0, 64);
+	assertEquals(1, sampler.getBandCount());
+	assertEquals(2, sampler.getSampler(0).size());
+	assertEquals(2, sampler.getSampler(64).size());
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.HeightBandSampler#compile(java.util.TreeMap, java.util.Map, int, int)}.
+     */
+    @Test
+    public void testCompileSkipsInvertedRange() {
+	heightMap.put("diamond", new int[] { 20, 10 });
+	HeightBandSampler<String> sampler = HeightBandSampler.compile(chanceMap, heightMap, 0, 64);
+	assertEquals(1, sampler.getBandCount());
+	assertEquals(1, sampler.getSampler(15).size());
+	assertEquals("stone", sampler.getSampler(15).sample(new Random(1)));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.HeightBandSampler#getSampler(int)}.
+     */
+    @Test
+    public void testGetSamplerDistribution() {
+	heightMap.put("diamond", new int[] { 10, 20 });
+	HeightBandSampler<String> sampler = HeightBandSampler.compile(chanceMap, heightMap, 0, 64);
+	AliasSampler<String> band = sampler.getSampler(15);
+	Random random = new Random(42);
+	int diamonds = 0;
+	for (int i = 0; i < 100000; i++) {
+	    if ("diamond".equals(band.sample(random))) {
+		diamonds++;
+	    }
+	}
+	// Weights are renormalised inside the band.
+	assertEquals(0.75, diamonds / 100000.0, 0.01);
+    }
+}
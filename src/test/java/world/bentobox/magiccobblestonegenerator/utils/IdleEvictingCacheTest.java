@@ -0,0 +1,70 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link IdleEvictingCache}.
+ */
+public class IdleEvictingCacheTest {
+
+    private AtomicInteger pinnedChecks;
+    private List<String> evicted;
+    private IdleEvictingCache<Integer> cache;
+
+    @Before
+    public void setUp() {
+	pinnedChecks = new AtomicInteger();
+	evicted = new ArrayList<>();
+	cache = new IdleEvictingCache<>(() -> 100, () -> 0L, key -> {
+	    pinnedChecks.incrementAndGet();
+	    return key.startsWith("pinned");
+	}, (key, value) -> evicted.add(key));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.IdleEvictingCache#put(java.lang.String, java.lang.Object)}.
+     */
+    @Test
+    public void testPutEvictsOverLimit() {
+	for (int i = 0; i < 10; i++) {
+	    cache.put("pinned" + i, i);
+	}
+	for (int i = 0; i < 1000; i++) {
+	    cache.put("island" + i, i);
+	    assertTrue(cache.size() <= 100);
+	    // Inserted entry is never evicted by its own put.
+	    assertTrue(cache.containsKey("island" + i));
+	}
+	for (int i = 0; i < 10; i++) {
+	    assertTrue(cache.containsKey("pinned" + i));
+	}
+	assertEquals(910, evicted.size());
+	assertEquals(910, cache.getEvictionCount());
+	assertFalse(evicted.stream().anyMatch(key -> key.startsWith("pinned")));
+	// Only eviction candidates are checked, not every cached entry on each put.
+	assertTrue(pinnedChecks.get() < 2000);
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.IdleEvictingCache#put(java.lang.String, java.lang.Object)}.
+     */
+    @Test
+    public void testPutAllPinned() {
+	for (int i = 0; i < 150; i++) {
+	    cache.put("pinned" + i, i);
+	}
+	assertEquals(150, cache.size());
+	assertTrue(evicted.isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package world.bentobox.magiccobblestonegenerator.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import world.bentobox.bentobox.api.user.User;
+
+/**
+ * Tests for {@link PermissionSnapshot}.
+ */
+public class PermissionSnapshotTest {
+
+    private User user;
+    private PermissionSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+	user = mock(User.class);
+	snapshot = PermissionSnapshot.of(user);
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.PermissionSnapshot#hasAllPermissions(java.util.Collection)}.
+     */
+    @Test
+    public void testHasAllPermissionsRemembersPermissionChecks() {
+	// Permission granted by a wildcard or by default is not in effective permissions.
+	when(user.hasPermission("bskyblock.stone-generator.VIP")).thenReturn(true);
+	assertTrue(snapshot.hasAllPermissions(List.of()));
+	assertTrue(snapshot.hasAllPermissions(List.of("bskyblock.stone-generator.VIP")));
+	assertFalse(snapshot.hasAllPermissions(List.of("bskyblock.stone-generator.VIP", "bskyblock.other")));
+	assertTrue(snapshot.hasAllPermissions(List.of("bskyblock.stone-generator.VIP")));
+	verify(user, times(1)).hasPermission("bskyblock.stone-generator.VIP");
+	verify(user, times(1)).hasPermission("bskyblock.other");
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.PermissionSnapshot#hasAllPermissions(java.util.Collection)}.
+     */
+    @Test
+    public void testHasAllPermissionsOperator() {
+	when(user.isOp()).thenReturn(true);
+	assertTrue(PermissionSnapshot.of(user).hasAllPermissions(List.of("bskyblock.stone-generator.vip")));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.PermissionSnapshot#getValue(java.lang.String, int)}.
+     */
+    @Test
+    public void testGetValueIntRemembersBentoBoxValue() {
+	when(user.getPermissionValue("bskyblock.stone-generator.max-range", 0)).thenReturn(25);
+	assertEquals(25, snapshot.getValue("bskyblock.stone-generator.max-range", 0));
+	assertEquals(25, snapshot.getValue("bskyblock.stone-generator.max-range", 0));
+	verify(user, times(1)).getPermissionValue("bskyblock.stone-generator.max-range", 0);
+	// Default value is part of the result.
+	when(user.getPermissionValue("bskyblock.stone-generator.max-range", 30)).thenReturn(30);
+	assertEquals(30, snapshot.getValue("bskyblock.stone-generator.max-range", 30));
+    }
+
+    /**
+     * Test method for
+     * {@link world.bentobox.magiccobblestonegenerator.utils.PermissionSnapshot#getValue(java.lang.String, java.lang.String)}.
+     */
+    @Test
+    public void testGetValueStringDefault() {
+	assertNull(snapshot.getValue("bskyblock.stone-generator.bundle", null));
+	assertEquals("basic", snapshot.getValue("bskyblock.stone-generator.bundle", "basic"));
+    }
+}